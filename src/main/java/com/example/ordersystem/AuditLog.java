@@ -0,0 +1,335 @@
+package com.example.ordersystem;
+
+import org.bukkit.Material;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Append-only transaction audit log. Callers enqueue entries on a lock-free queue; a single background
+ * thread drains it in batches into daily segments that rotate by size and are gzip-compressed once closed.
+ */
+public class AuditLog {
+    private static final String PREFIX = "audit-";
+    private static final String SUFFIX = ".log";
+    private static final String COMPRESSED_SUFFIX = ".log.gz";
+
+    private final Logger logger;
+    private final File directory;
+    private final long maxSegmentBytes;
+    private final int retentionDays;
+    private final long flushIntervalMillis;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final Queue<AuditEntry> queue = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "OrderSystem-Audit");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Owned by the writer thread.
+    private BufferedWriter out;
+    private File currentFile;
+    private LocalDate currentDay;
+    private long currentBytes;
+
+    public enum Action {
+        CREATE,
+        DELIVER,
+        COLLECT,
+        TRUST,
+        UNTRUST,
+        EXPIRE,
+        CANCEL,
+        REFUND,
+        REPRICE,
+        CONFLICT
+    }
+
+    public AuditLog(Logger logger, File directory, long maxSegmentBytes, int retentionDays, long flushIntervalMillis) {
+        this.logger = logger;
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.retentionDays = retentionDays;
+        this.flushIntervalMillis = flushIntervalMillis;
+    }
+
+    public void start() {
+        writer.execute(this::compressLeftoverSegments);
+        writer.scheduleWithFixedDelay(this::drain, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the writer thread and, once it has terminated, writes anything still queued from the calling thread.
+     * If the writer cannot be stopped the queue is left alone, since the segment belongs to that thread.
+     */
+    public void shutdown() {
+        writer.shutdown();
+        if (!awaitWriter()) {
+            writer.shutdownNow();
+            if (!awaitWriter()) {
+                logger.severe("Audit writer did not stop; " + queue.size() + " queued entries were not written");
+                return;
+            }
+        }
+        drain();
+        closeSegment(true);
+    }
+
+    private boolean awaitWriter() {
+        try {
+            return writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return writer.isTerminated();
+        }
+    }
+
+    public void record(Action action, int orderId, UUID actorUuid, String actorName, Material material,
+                       long amount, long money, String detail) {
+        queue.offer(new AuditEntry(System.currentTimeMillis(), action, orderId, actorUuid, actorName,
+                material, amount, money, detail));
+    }
+
+    /**
+     * Scans the newest segments first and returns up to {@code limit} matching entries, newest first.
+     * Performs blocking file I/O; call it off the main thread.
+     */
+    public List<AuditEntry> query(Predicate<AuditEntry> filter, int limit, int maxSegments) {
+        List<AuditEntry> results = new ArrayList<>();
+        File[] segments = directory.listFiles((dir, name) -> name.startsWith(PREFIX)
+                && (name.endsWith(SUFFIX) || name.endsWith(COMPRESSED_SUFFIX)));
+        if (segments == null) {
+            return results;
+        }
+        Arrays.sort(segments, (a, b) -> segmentKey(b).compareTo(segmentKey(a)));
+        int scanned = 0;
+        for (File segment : segments) {
+            if (results.size() >= limit || scanned >= maxSegments) {
+                break;
+            }
+            scanned++;
+            List<AuditEntry> matches = new ArrayList<>();
+            try (BufferedReader reader = openReader(segment)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    AuditEntry entry = AuditEntry.parse(line);
+                    if (entry != null && filter.test(entry)) {
+                        matches.add(entry);
+                    }
+                }
+            } catch (IOException ex) {
+                logger.warning("Failed to read audit segment " + segment.getName() + ": " + ex.getMessage());
+            }
+            Collections.reverse(matches);
+            for (AuditEntry entry : matches) {
+                if (results.size() >= limit) {
+                    break;
+                }
+                results.add(entry);
+            }
+        }
+        return results;
+    }
+
+    private void drain() {
+        AuditEntry entry = queue.poll();
+        if (entry == null) {
+            return;
+        }
+        try {
+            while (entry != null) {
+                ensureSegment(entry.timestamp());
+                String line = entry.format();
+                out.write(line);
+                out.newLine();
+                currentBytes += utf8Length(line) + 1;
+                entry = queue.poll();
+            }
+            out.flush();
+        } catch (IOException ex) {
+            logger.severe("Failed to write audit log: " + ex.getMessage());
+            closeSegment(false);
+        }
+    }
+
+    private static long utf8Length(String value) {
+        long bytes = 0L;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    private void ensureSegment(long timestamp) throws IOException {
+        LocalDate day = Instant.ofEpochMilli(timestamp).atZone(zone).toLocalDate();
+        if (out != null && day.equals(currentDay) && currentBytes < maxSegmentBytes) {
+            return;
+        }
+        closeSegment(true);
+        if (!directory.exists()) {
+            directory.mkdirs();
+        }
+        int index = 0;
+        File candidate;
+        do {
+            String base = PREFIX + day + "-" + String.format("%03d", index);
+            candidate = new File(directory, base + SUFFIX);
+            if (!candidate.exists() && !new File(directory, base + COMPRESSED_SUFFIX).exists()) {
+                break;
+            }
+            index++;
+        } while (true);
+        currentFile = candidate;
+        currentDay = day;
+        currentBytes = 0L;
+        OutputStream stream = Files.newOutputStream(candidate.toPath(), StandardOpenOption.CREATE_NEW);
+        out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+        purgeExpiredSegments(day);
+    }
+
+    private void closeSegment(boolean compress) {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException ex) {
+            logger.warning("Failed to close audit segment: " + ex.getMessage());
+        }
+        out = null;
+        if (compress) {
+            compress(currentFile);
+        }
+        currentFile = null;
+    }
+
+    private void compressLeftoverSegments() {
+        File[] leftovers = directory.listFiles((dir, name) -> name.startsWith(PREFIX) && name.endsWith(SUFFIX));
+        if (leftovers == null) {
+            return;
+        }
+        for (File leftover : leftovers) {
+            compress(leftover);
+        }
+    }
+
+    private void compress(File file) {
+        File target = new File(file.getParentFile(), file.getName() + ".gz");
+        try (InputStream in = Files.newInputStream(file.toPath());
+             OutputStream gzip = new GZIPOutputStream(Files.newOutputStream(target.toPath()))) {
+            in.transferTo(gzip);
+        } catch (IOException ex) {
+            logger.warning("Failed to compress audit segment " + file.getName() + ": " + ex.getMessage());
+            target.delete();
+            return;
+        }
+        file.delete();
+    }
+
+    private void purgeExpiredSegments(LocalDate today) {
+        if (retentionDays <= 0) {
+            return;
+        }
+        String cutoff = PREFIX + today.minusDays(retentionDays);
+        File[] segments = directory.listFiles((dir, name) -> name.startsWith(PREFIX) && name.compareTo(cutoff) < 0);
+        if (segments == null) {
+            return;
+        }
+        for (File segment : segments) {
+            segment.delete();
+        }
+    }
+
+    private BufferedReader openReader(File segment) throws IOException {
+        InputStream in = Files.newInputStream(segment.toPath());
+        if (segment.getName().endsWith(COMPRESSED_SUFFIX)) {
+            in = new GZIPInputStream(in);
+        }
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    private String segmentKey(File segment) {
+        String name = segment.getName();
+        return name.endsWith(COMPRESSED_SUFFIX)
+                ? name.substring(0, name.length() - COMPRESSED_SUFFIX.length())
+                : name.substring(0, name.length() - SUFFIX.length());
+    }
+
+    public record AuditEntry(long timestamp,
+                             Action action,
+                             int orderId,
+                             UUID actorUuid,
+                             String actorName,
+                             Material material,
+                             long amount,
+                             long money,
+                             String detail) {
+
+        String format() {
+            return timestamp + "\t" + action.name() + "\t" + orderId + "\t"
+                    + (actorUuid == null ? "-" : actorUuid.toString()) + "\t"
+                    + (actorName == null ? "-" : actorName) + "\t"
+                    + (material == null ? "-" : material.name()) + "\t"
+                    + amount + "\t" + money + "\t"
+                    + (detail == null ? "-" : detail);
+        }
+
+        static AuditEntry parse(String line) {
+            String[] parts = line.split("\t", -1);
+            if (parts.length < 9) {
+                return null;
+            }
+            try {
+                return new AuditEntry(Long.parseLong(parts[0]),
+                        Action.valueOf(parts[1]),
+                        Integer.parseInt(parts[2]),
+                        parts[3].equals("-") ? null : UUID.fromString(parts[3]),
+                        parts[4].equals("-") ? null : parts[4],
+                        parts[5].equals("-") ? null : Material.matchMaterial(parts[5]),
+                        Long.parseLong(parts[6]),
+                        Long.parseLong(parts[7]),
+                        parts[8].equals("-") ? null : parts[8]);
+            } catch (IllegalArgumentException ex) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.ordersystem;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Per-player token buckets for GUI clicks that rebuild screens. Each player may burst up to {@code burst} clicks,
+ * refilled at {@code perSecond}; clicks beyond that are rejected and counted. Used on the main thread only.
+ */
+public class ClickLimiter {
+    private static final long WARN_INTERVAL_MILLIS = 2000L;
+
+    private final double burst;
+    private final double perMilli;
+    private final Map<UUID, Bucket> buckets = new HashMap<>();
+    private long allowed;
+    private long rejected;
+    private long coalesced;
+    private long cached;
+
+    public ClickLimiter(int burst, double perSecond) {
+        this.burst = Math.max(1, burst);
+        this.perMilli = Math.max(0.001D, perSecond) / 1000D;
+    }
+
+    /**
+     * Takes a token for {@code player} if one is available at {@code now}.
+     */
+    public boolean tryAcquire(UUID player, long now) {
+        Bucket bucket = buckets.computeIfAbsent(player, key -> new Bucket(burst, now));
+        bucket.tokens = Math.min(burst, bucket.tokens + (now - bucket.updatedAt) * perMilli);
+        bucket.updatedAt = now;
+        if (bucket.tokens >= 1D) {
+            bucket.tokens -= 1D;
+            allowed++;
+            return true;
+        }
+        rejected++;
+        return false;
+    }
+
+    /**
+     * Whether a rejected player should be told to slow down, at most once per interval.
+     */
+    public boolean shouldWarn(UUID player, long now) {
+        Bucket bucket = buckets.get(player);
+        if (bucket == null || now - bucket.warnedAt < WARN_INTERVAL_MILLIS) {
+            return false;
+        }
+        bucket.warnedAt = now;
+        return true;
+    }
+
+    /**
+     * A click folded into one already queued for the same player.
+     */
+    public void recordCoalesced() {
+        coalesced++;
+    }
+
+    /**
+     * A refresh answered from the last rendered screen.
+     */
+    public void recordCached() {
+        cached++;
+    }
+
+    public void forget(UUID player) {
+        buckets.remove(player);
+    }
+
+    public long getAllowed() {
+        return allowed;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public long getCoalesced() {
+        return coalesced;
+    }
+
+    public long getCached() {
+        return cached;
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long updatedAt;
+        private long warnedAt = Long.MIN_VALUE / 2;
+
+        private Bucket(double tokens, long updatedAt) {
+            this.tokens = tokens;
+            this.updatedAt = updatedAt;
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package com.example.ordersystem;
+
+import net.milkbowl.vault.economy.Economy;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.Container;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryMoveItemEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Container blocks bound to an order, or to the best bids for a material, that accept hopper input.
+ * <p>
+ * Hoppers and players only fill the container; events just mark the endpoint dirty. A periodic maintenance job
+ * settles dirty endpoints in batches within the tick budget, paying each supplier once per batch.
+ */
+public class DeliveryEndpointManager implements Listener {
+    private final OrderSystemPlugin plugin;
+    private final OrderManager orderManager;
+    private final Economy economy;
+    private final long maxUnitsPerSettle;
+    private final Map<BlockKey, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final Set<BlockKey> dirty = ConcurrentHashMap.newKeySet();
+    private long batches;
+    private long unitsSettled;
+    private long moneySettled;
+
+    public DeliveryEndpointManager(OrderSystemPlugin plugin, OrderManager orderManager, Economy economy, long maxUnitsPerSettle) {
+        this.plugin = plugin;
+        this.orderManager = orderManager;
+        this.economy = economy;
+        this.maxUnitsPerSettle = maxUnitsPerSettle;
+    }
+
+    public Collection<Endpoint> getEndpoints() {
+        return endpoints.values();
+    }
+
+    public Endpoint getEndpoint(Block block) {
+        return endpoints.get(BlockKey.of(block));
+    }
+
+    public void addLoadedEndpoint(Endpoint endpoint) {
+        endpoints.put(endpoint.key(), endpoint);
+        dirty.add(endpoint.key());
+    }
+
+    /**
+     * Binds a container to an order ({@code orderId > 0}) or to the best bids for {@code material}.
+     *
+     * @return the endpoint, or {@code null} if the owner may not open the container
+     */
+    public Endpoint bind(Player owner, Block block, int orderId, Material material) {
+        if (!canOpen(owner, block)) {
+            return null;
+        }
+        Endpoint endpoint = new Endpoint(BlockKey.of(block), owner.getUniqueId(), owner.getName(), orderId, material);
+        endpoints.put(endpoint.key(), endpoint);
+        dirty.add(endpoint.key());
+        plugin.getStorageManager().requestSaveAsync(orderManager);
+        return endpoint;
+    }
+
+    /**
+     * Asks protection plugins whether {@code player} may open {@code block} by calling a right click on it;
+     * a denied or cancelled interaction refuses access.
+     */
+    public boolean canOpen(Player player, Block block) {
+        BlockFace face = player.getTargetBlockFace(5);
+        PlayerInteractEvent event = new PlayerInteractEvent(player, Action.RIGHT_CLICK_BLOCK,
+                player.getInventory().getItemInMainHand(), block, face == null ? BlockFace.UP : face, EquipmentSlot.HAND);
+        Bukkit.getPluginManager().callEvent(event);
+        return event.useInteractedBlock() != Event.Result.DENY;
+    }
+
+    public boolean unbind(Block block) {
+        BlockKey key = BlockKey.of(block);
+        dirty.remove(key);
+        if (endpoints.remove(key) == null) {
+            return false;
+        }
+        plugin.getStorageManager().requestSaveAsync(orderManager);
+        return true;
+    }
+
+    public int countOwned(UUID owner) {
+        int count = 0;
+        for (Endpoint endpoint : endpoints.values()) {
+            if (endpoint.owner().equals(owner)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInventoryMove(InventoryMoveItemEvent event) {
+        markDirty(event.getDestination());
+    }
+
+    @EventHandler
+    public void onInventoryClose(InventoryCloseEvent event) {
+        markDirty(event.getInventory());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        if (!endpoints.isEmpty() && unbind(event.getBlock())) {
+            event.getPlayer().sendMessage(ChatColor.YELLOW + "Delivery endpoint removed.");
+        }
+    }
+
+    private void markDirty(Inventory inventory) {
+        if (endpoints.isEmpty()) {
+            return;
+        }
+        Location location = inventory.getLocation();
+        if (location == null || location.getWorld() == null) {
+            return;
+        }
+        BlockKey key = new BlockKey(location.getWorld().getName(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
+        if (endpoints.containsKey(key)) {
+            dirty.add(key);
+        }
+    }
+
+    /**
+     * Returns a job that settles every dirty endpoint a slice at a time within the tick budget.
+     */
+    public TickScheduler.Job newSettleJob(Runnable onSettled) {
+        Iterator<BlockKey> iterator = new ArrayList<>(dirty).iterator();
+        boolean[] settledAny = new boolean[1];
+        return deadline -> {
+            while (iterator.hasNext()) {
+                BlockKey key = iterator.next();
+                dirty.remove(key);
+                Endpoint endpoint = endpoints.get(key);
+                if (endpoint != null && settle(endpoint)) {
+                    settledAny[0] = true;
+                }
+                if (iterator.hasNext() && System.nanoTime() >= deadline) {
+                    return false;
+                }
+            }
+            if (settledAny[0]) {
+                onSettled.run();
+            }
+            return true;
+        };
+    }
+
+    /**
+     * Settles one endpoint's buffered items against its orders.
+     *
+     * @return {@code true} if anything was delivered
+     */
+    private boolean settle(Endpoint endpoint) {
+        if (plugin.getStorageManager().isSavingDisabled()) {
+            // Leave the items buffered; nothing settled now could be saved.
+            return false;
+        }
+        BlockKey key = endpoint.key();
+        World world = Bukkit.getWorld(key.world());
+        if (world == null || !world.isChunkLoaded(key.x() >> 4, key.z() >> 4)) {
+            // Try again once the chunk is loaded and receives items.
+            return false;
+        }
+        if (!(world.getBlockAt(key.x(), key.y(), key.z()).getState() instanceof Container container)) {
+            // The container was replaced without a break event, e.g. by WorldEdit.
+            endpoints.remove(key);
+            plugin.getStorageManager().requestSaveAsync(orderManager);
+            return false;
+        }
+        List<Order> targets = resolveTargets(endpoint);
+        if (targets.isEmpty()) {
+            return false;
+        }
+        Material material = targets.get(0).getMaterial();
+        Inventory inventory = container.getInventory();
+        long buffered = 0;
+        for (ItemStack stack : inventory.getContents()) {
+            if (stack != null && stack.getType() == material) {
+                buffered += stack.getAmount();
+            }
+        }
+        long available = Math.min(buffered, maxUnitsPerSettle);
+        if (available <= 0) {
+            return false;
+        }
+        long delivered = 0;
+        long payout = 0;
+        long forwarded = 0;
+        for (Order order : targets) {
+            if (delivered >= available) {
+                break;
+            }
+            OrderManager.DeliveryResult result = orderManager.deliverFromEndpoint(endpoint.owner(), endpoint.ownerName(),
+                    order, available - delivered);
+            if (result.isSuccess()) {
+                delivered += result.getAmountDelivered();
+                payout += result.getPayout();
+                if (result.isForwarded()) {
+                    forwarded += result.getAmountDelivered();
+                }
+            }
+        }
+        if (delivered <= 0) {
+            return false;
+        }
+        removeBuffered(inventory, material, delivered);
+        if (buffered > delivered && delivered == available) {
+            // Throttled: leave the rest for the next interval.
+            dirty.add(key);
+        }
+        economy.depositPlayer(Bukkit.getOfflinePlayer(endpoint.owner()), Money.toMajor(payout));
+        batches++;
+        unitsSettled += delivered;
+        moneySettled += payout;
+        Player owner = Bukkit.getPlayer(endpoint.owner());
+        if (owner != null) {
+            owner.sendMessage(ChatColor.GREEN + "Your delivery endpoint supplied " + NumberFormatter.formatCompact(delivered) + " "
+                    + plugin.getGuiManager().formatMaterialName(material) + " for $" + NumberFormatter.formatMoney(payout)
+                    + (forwarded > 0 ? "; " + NumberFormatter.formatCompact(forwarded)
+                    + " are paid by the server their order was placed on" : ""));
+        }
+        return true;
+    }
+
+    private List<Order> resolveTargets(Endpoint endpoint) {
+        List<Order> targets = new ArrayList<>();
+        if (endpoint.orderId() > 0) {
+            orderManager.getOrder(endpoint.orderId())
+                    .filter(order -> order.getStatus() == OrderStatus.ACTIVE)
+                    .ifPresent(targets::add);
+            return targets;
+        }
+        for (OrderManager.OrderSnapshot bid : orderManager.getBestBids(endpoint.material())) {
+            orderManager.getOrder(bid.id()).ifPresent(targets::add);
+        }
+        return targets;
+    }
+
+    private void removeBuffered(Inventory inventory, Material material, long amount) {
+        long remaining = amount;
+        ItemStack[] contents = inventory.getContents();
+        for (int i = 0; i < contents.length && remaining > 0; i++) {
+            ItemStack stack = contents[i];
+            if (stack == null || stack.getType() != material) {
+                continue;
+            }
+            int remove = (int) Math.min(stack.getAmount(), remaining);
+            remaining -= remove;
+            if (remove == stack.getAmount()) {
+                contents[i] = null;
+            } else {
+                stack.setAmount(stack.getAmount() - remove);
+            }
+        }
+        inventory.setContents(contents);
+    }
+
+    public long getBatches() {
+        return batches;
+    }
+
+    public long getUnitsSettled() {
+        return unitsSettled;
+    }
+
+    public long getMoneySettled() {
+        return moneySettled;
+    }
+
+    public int getDirtyCount() {
+        return dirty.size();
+    }
+
+    public record BlockKey(String world, int x, int y, int z) {
+        public static BlockKey of(Block block) {
+            return new BlockKey(block.getWorld().getName(), block.getX(), block.getY(), block.getZ());
+        }
+    }
+
+    /**
+     * A bound container. {@code orderId} is 0 for endpoints that follow the best bids for {@code material}.
+     */
+    public record Endpoint(BlockKey key, UUID owner, String ownerName, int orderId, Material material) {
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.ordersystem;
+
+import org.bukkit.Material;
+import org.bukkit.block.ShulkerBox;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.BlockStateMeta;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pulls an order's material out of a delivery inventory, including from shulker boxes.
+ * <p>
+ * Extraction runs in two steps. {@link #scan} counts the target material and reads each shulker's state once;
+ * {@link #extract} then takes up to a limit in a single pass. Only shulkers that give up items are rewritten;
+ * every other stack is returned as-is without cloning or touching its meta.
+ */
+public class DeliveryExtractor {
+    private final AtomicLong extractions = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final AtomicLong shulkersScanned = new AtomicLong();
+    private final AtomicLong shulkersRewritten = new AtomicLong();
+
+    /**
+     * Counts the target material in slots {@code [0, slots)}. The returned plan is only valid until the
+     * inventory changes.
+     */
+    public Plan scan(Inventory inventory, Material material, int slots) {
+        long start = System.nanoTime();
+        SlotPlan[] plans = new SlotPlan[slots];
+        long total = 0;
+        for (int i = 0; i < slots; i++) {
+            ItemStack stack = inventory.getItem(i);
+            if (stack == null || stack.getType() == Material.AIR) {
+                continue;
+            }
+            if (stack.getType() == material) {
+                plans[i] = new SlotPlan(stack, stack.getAmount(), null, null);
+                total += stack.getAmount();
+            } else if (isShulkerBox(stack.getType())) {
+                plans[i] = scanShulker(stack, material);
+                total += plans[i].available();
+            } else {
+                plans[i] = new SlotPlan(stack, 0L, null, null);
+            }
+        }
+        return new Plan(inventory, material, plans, total, System.nanoTime() - start);
+    }
+
+    /**
+     * Removes up to {@code limit} units of the planned material, clears the scanned slots and returns everything
+     * that was not taken as leftovers.
+     */
+    public Result extract(Plan plan, long limit) {
+        long start = System.nanoTime();
+        List<ItemStack> leftovers = new ArrayList<>();
+        long delivered = 0;
+        for (int i = 0; i < plan.slots.length; i++) {
+            SlotPlan slot = plan.slots[i];
+            if (slot == null) {
+                continue;
+            }
+            long take = Math.min(slot.available(), limit - delivered);
+            if (take <= 0) {
+                leftovers.add(slot.stack());
+            } else if (slot.shulker() == null) {
+                delivered += take;
+                int remaining = slot.stack().getAmount() - (int) take;
+                if (remaining > 0) {
+                    leftovers.add(new ItemStack(plan.material, remaining));
+                }
+            } else {
+                delivered += take;
+                leftovers.add(takeFromShulker(slot, plan.material, take));
+            }
+        }
+        for (int i = 0; i < plan.slots.length; i++) {
+            plan.inventory.setItem(i, null);
+        }
+        record(plan.scanNanos + System.nanoTime() - start);
+        return new Result(delivered, leftovers);
+    }
+
+    private SlotPlan scanShulker(ItemStack stack, Material material) {
+        shulkersScanned.incrementAndGet();
+        if (!(stack.getItemMeta() instanceof BlockStateMeta meta)
+                || !(meta.getBlockState() instanceof ShulkerBox shulkerBox)) {
+            return new SlotPlan(stack, 0L, null, null);
+        }
+        long count = 0;
+        for (ItemStack content : shulkerBox.getInventory().getContents()) {
+            if (content != null && content.getType() == material) {
+                count += content.getAmount();
+            }
+        }
+        // Keep the state only when the shulker will need rewriting.
+        return count == 0 ? new SlotPlan(stack, 0L, null, null) : new SlotPlan(stack, count, meta, shulkerBox);
+    }
+
+    private ItemStack takeFromShulker(SlotPlan slot, Material material, long take) {
+        shulkersRewritten.incrementAndGet();
+        ItemStack[] contents = slot.shulker().getInventory().getContents();
+        long remainingToTake = take;
+        for (int i = 0; i < contents.length && remainingToTake > 0; i++) {
+            ItemStack content = contents[i];
+            if (content == null || content.getType() != material) {
+                continue;
+            }
+            int remove = (int) Math.min(content.getAmount(), remainingToTake);
+            remainingToTake -= remove;
+            if (remove == content.getAmount()) {
+                contents[i] = null;
+            } else {
+                content.setAmount(content.getAmount() - remove);
+            }
+        }
+        slot.shulker().getInventory().setContents(contents);
+        slot.meta().setBlockState(slot.shulker());
+        ItemStack updated = slot.stack().clone();
+        updated.setItemMeta(slot.meta());
+        return updated;
+    }
+
+    private void record(long nanos) {
+        extractions.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    private boolean isShulkerBox(Material material) {
+        return material.name().endsWith("SHULKER_BOX");
+    }
+
+    public long getExtractions() {
+        return extractions.get();
+    }
+
+    public long getAverageNanos() {
+        long count = extractions.get();
+        return count == 0 ? 0L : totalNanos.get() / count;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    public long getShulkersScanned() {
+        return shulkersScanned.get();
+    }
+
+    public long getShulkersRewritten() {
+        return shulkersRewritten.get();
+    }
+
+    public static final class Plan {
+        private final Inventory inventory;
+        private final Material material;
+        private final SlotPlan[] slots;
+        private final long total;
+        private final long scanNanos;
+
+        private Plan(Inventory inventory, Material material, SlotPlan[] slots, long total, long scanNanos) {
+            this.inventory = inventory;
+            this.material = material;
+            this.slots = slots;
+            this.total = total;
+            this.scanNanos = scanNanos;
+        }
+
+        /**
+         * Units of the target material found, including inside shulker boxes.
+         */
+        public long total() {
+            return total;
+        }
+    }
+
+    private record SlotPlan(ItemStack stack, long available, BlockStateMeta meta, ShulkerBox shulker) {
+    }
+
+    public record Result(long amountDelivered, List<ItemStack> leftovers) {
+    }
+}
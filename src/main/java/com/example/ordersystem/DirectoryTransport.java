@@ -0,0 +1,173 @@
+package com.example.ordersystem;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Replication over a directory every server can reach, such as a network share, or a local directory when
+ * several servers run on one machine for testing.
+ * <p>
+ * Each server writes its batches as numbered files into its own subdirectory and polls the other
+ * subdirectories for files it has not read yet. Writers delete their own files once they are older than the
+ * retention, which must be longer than any server is expected to be paused.
+ */
+public class DirectoryTransport implements ReplicationTransport {
+    private static final String SUFFIX = ".batch";
+
+    private final Logger logger;
+    private final File root;
+    private final String node;
+    private final long pollMillis;
+    private final long retentionMillis;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "OrderSystem-Replication");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Only touched on the executor thread.
+    private final Map<String, Long> lastRead = new HashMap<>();
+    private long lastWritten;
+    private long lastPrune;
+    private Consumer<byte[]> receiver;
+
+    public DirectoryTransport(Logger logger, File root, String node, long pollMillis, long retentionMillis) {
+        this.logger = logger;
+        this.root = root;
+        this.node = node;
+        this.pollMillis = Math.max(10L, pollMillis);
+        this.retentionMillis = retentionMillis;
+    }
+
+    @Override
+    public void start(Consumer<byte[]> receiver) throws IOException {
+        this.receiver = receiver;
+        File own = new File(root, node);
+        if (!own.isDirectory() && !own.mkdirs()) {
+            throw new IOException("Cannot create " + own);
+        }
+        executor.execute(() -> {
+            // History from before this start is covered by the full sync the other servers send on request.
+            for (File peer : peers()) {
+                lastRead.put(peer.getName(), newestSequence(peer));
+            }
+            lastWritten = newestSequence(own);
+        });
+        executor.scheduleWithFixedDelay(this::poll, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void send(byte[] batch) {
+        executor.execute(() -> write(batch));
+    }
+
+    private void write(byte[] batch) {
+        // Sequence numbers follow the clock so they keep increasing across restarts.
+        long sequence = Math.max(lastWritten + 1, System.currentTimeMillis() * 1000L);
+        File dir = new File(root, node);
+        File target = new File(dir, String.format("%020d", sequence) + SUFFIX);
+        File temp = new File(dir, target.getName() + ".tmp");
+        try {
+            Files.write(temp.toPath(), batch);
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            lastWritten = sequence;
+        } catch (IOException ex) {
+            logger.warning("Failed to write replication batch " + target.getName() + ": " + ex.getMessage());
+        }
+    }
+
+    private void poll() {
+        try {
+            for (File peer : peers()) {
+                long last = lastRead.getOrDefault(peer.getName(), -1L);
+                File[] files = peer.listFiles((dir, name) -> name.endsWith(SUFFIX));
+                if (files == null) {
+                    continue;
+                }
+                Arrays.sort(files);
+                for (File file : files) {
+                    long sequence = sequenceOf(file);
+                    if (sequence <= last) {
+                        continue;
+                    }
+                    try {
+                        receiver.accept(Files.readAllBytes(file.toPath()));
+                    } catch (IOException ex) {
+                        // Pruned by its writer before we got to it; the next full sync covers it.
+                    }
+                    last = sequence;
+                }
+                lastRead.put(peer.getName(), last);
+            }
+            long now = System.currentTimeMillis();
+            if (now - lastPrune >= 60_000L) {
+                lastPrune = now;
+                prune(now);
+            }
+        } catch (RuntimeException ex) {
+            logger.log(Level.WARNING, "Replication poll failed", ex);
+        }
+    }
+
+    private void prune(long now) {
+        File[] files = new File(root, node).listFiles((dir, name) -> name.endsWith(SUFFIX));
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (now - file.lastModified() > retentionMillis) {
+                file.delete();
+            }
+        }
+    }
+
+    private File[] peers() {
+        File[] dirs = root.listFiles(file -> file.isDirectory() && !file.getName().equals(node));
+        return dirs == null ? new File[0] : dirs;
+    }
+
+    private static long newestSequence(File dir) {
+        long newest = -1L;
+        File[] files = dir.listFiles((parent, name) -> name.endsWith(SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                newest = Math.max(newest, sequenceOf(file));
+            }
+        }
+        return newest;
+    }
+
+    private static long sequenceOf(File file) {
+        String name = file.getName();
+        try {
+            return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+        } catch (NumberFormatException ex) {
+            return -1L;
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public String describe() {
+        return "directory " + root.getPath();
+    }
+}
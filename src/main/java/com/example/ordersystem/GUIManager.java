@@ -11,12 +11,11 @@ import org.bukkit.event.Listener;
 import org.bukkit.event.inventory.ClickType;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.InventoryHolder;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.inventory.meta.BlockStateMeta;
 import org.bukkit.inventory.meta.ItemMeta;
-import org.bukkit.block.ShulkerBox;
 
 import java.time.Duration;
 import java.time.Instant;
@@ -40,17 +39,43 @@ public class GUIManager implements Listener {
     private final OrderManager orderManager;
     private final Economy economy;
     private final Map<UUID, BoardSession> boardSessions = new HashMap<>();
-    private final Map<Integer, UUID> deliveryLocks = new HashMap<>();
     private final Set<UUID> deliveryClosing = new HashSet<>();
-    private final List<Material> selectableMaterials = new ArrayList<>();
-
-    public GUIManager(OrderSystemPlugin plugin, OrderManager orderManager, Economy economy) {
+    private final Set<UUID> pendingSubmits = new HashSet<>();
+    private final ClickLimiter clickLimiter;
+    private final Map<UUID, PendingClick> pendingBoardClicks = new HashMap<>();
+    private final Set<UUID> pendingCollectRenders = new HashSet<>();
+    private final Map<UUID, RenderedBoard> renderedBoards = new HashMap<>();
+    private long boardRenders;
+    private final DeliveryExtractor deliveryExtractor = new DeliveryExtractor();
+    private volatile List<Material> selectableMaterials;
+
+    public GUIManager(OrderSystemPlugin plugin, OrderManager orderManager, Economy economy, ClickLimiter clickLimiter) {
         this.plugin = plugin;
         this.orderManager = orderManager;
         this.economy = economy;
-        for (Material material : Material.values()) {
-            if (material.isItem() && !material.isLegacy()) {
-                selectableMaterials.add(material);
+        this.clickLimiter = clickLimiter;
+        orderManager.getEventBus().subscribe(this::onOrderChange, false);
+    }
+
+    /**
+     * Keeps open collect screens current when goods arrive from other suppliers, another server changed the
+     * order, or it expires.
+     */
+    private void onOrderChange(OrderEventBus.OrderChange change) {
+        if (!change.has(OrderEventBus.Change.DELIVERED) && !change.has(OrderEventBus.Change.EXPIRED)
+                && !change.has(OrderEventBus.Change.REPLICATED)) {
+            return;
+        }
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            if (!(player.getOpenInventory().getTopInventory().getHolder() instanceof CollectHolder holder)
+                    || holder.orderId() != change.orderId()) {
+                continue;
+            }
+            Optional<Order> order = orderManager.getOrder(change.orderId());
+            if (order.isEmpty()) {
+                player.closeInventory();
+            } else {
+                openCollectGUI(player, order.get(), holder.page());
             }
         }
     }
@@ -59,47 +84,67 @@ public class GUIManager implements Listener {
         openOrderBoard(player, page, filter, null);
     }
 
-    public void openOrderBoard(Player player, int page, Material filter, UUID ownerFilter) {
-        List<Order> orders;
-        if (ownerFilter != null) {
-            orders = new ArrayList<>();
-            for (Order order : orderManager.getOrdersSorted()) {
-                if (order.getOwnerUuid().equals(ownerFilter)) {
-                    if (filter == null || order.getMaterial() == filter) {
-                        orders.add(order);
-                    }
+    public ClickLimiter getClickLimiter() {
+        return clickLimiter;
+    }
+
+    public long getBoardRenders() {
+        return boardRenders;
+    }
+
+    /**
+     * Materials offered by the selector and search. Built on first use; the startup loader warms it up.
+     */
+    public List<Material> getSelectableMaterials() {
+        List<Material> materials = selectableMaterials;
+        if (materials == null) {
+            List<Material> built = new ArrayList<>();
+            for (Material material : Material.values()) {
+                if (material.isItem() && !material.isLegacy()) {
+                    built.add(material);
                 }
             }
-        } else {
-            orders = filter == null ? orderManager.getOrdersSorted() : orderManager.getOrdersSortedFiltered(filter);
+            materials = List.copyOf(built);
+            selectableMaterials = materials;
         }
-        int maxPage = Math.max(1, (int) Math.ceil(orders.size() / (double) PAGE_SIZE));
-        int currentPage = Math.min(Math.max(page, 1), maxPage);
+        return materials;
+    }
+
+    public void openOrderBoard(Player player, int page, Material filter, UUID ownerFilter) {
+        if (!orderManager.isLoaded()) {
+            openLoadingBoard(player, filter, ownerFilter);
+            return;
+        }
+        long epoch = orderManager.snapshot().number();
+        OrderManager.BoardPage boardPage = orderManager.queryBoardPage(filter, ownerFilter, page, PAGE_SIZE);
+        int currentPage = boardPage.page();
+        orderManager.recordBoardQuery(player, filter, ownerFilter, currentPage);
         String title = filter == null
                 ? "ORDERS (Page " + currentPage + ")"
                 : "ORDERS - " + filter.name() + " (Page " + currentPage + ")";
         Inventory inventory = Bukkit.createInventory(new OrderBoardHolder(), 54, title);
 
-        int startIndex = (currentPage - 1) * PAGE_SIZE;
-        int endIndex = Math.min(startIndex + PAGE_SIZE, orders.size());
         List<Integer> orderIds = new ArrayList<>();
-        for (int i = startIndex; i < endIndex; i++) {
-            Order order = orders.get(i);
-            ItemStack item = new ItemStack(order.getMaterial());
+        for (OrderManager.OrderSnapshot order : boardPage.orders()) {
+            ItemStack item = new ItemStack(order.material());
             ItemMeta meta = item.getItemMeta();
-            meta.setDisplayName(ChatColor.YELLOW + order.getOwnerName() + "'s Order");
+            meta.setDisplayName(ChatColor.YELLOW + order.ownerName() + "'s Order");
             List<String> lore = new ArrayList<>();
-            lore.add(ChatColor.GRAY + NumberFormatter.formatCompact(order.getTotalQuantity()) + " " + formatMaterialName(order.getMaterial()));
-            lore.add(ChatColor.GREEN + "$" + NumberFormatter.formatCompact(order.getPricePerItem()) + " each");
-            long delivered = order.getTotalQuantity() - order.getRemainingQuantity();
-            lore.add(ChatColor.GRAY + NumberFormatter.formatCompact(delivered) + " / " + NumberFormatter.formatCompact(order.getTotalQuantity()) + " Delivered");
-            lore.add(ChatColor.GREEN + "$" + NumberFormatter.formatCompact(order.getTotalPaid()) + " / $" + NumberFormatter.formatCompact(order.getTotalEscrow()) + " Paid");
+            lore.add(ChatColor.GRAY + NumberFormatter.formatCompact(order.totalQuantity()) + " " + formatMaterialName(order.material()));
+            lore.add(ChatColor.GREEN + "$" + NumberFormatter.formatMoney(order.pricePerItem()) + " each");
+            long delivered = order.totalQuantity() - order.remainingQuantity();
+            lore.add(ChatColor.GRAY + NumberFormatter.formatCompact(delivered) + " / " + NumberFormatter.formatCompact(order.totalQuantity()) + " Delivered");
+            lore.add(ChatColor.GREEN + "$" + NumberFormatter.formatMoney(order.totalPaid()) + " / $" + NumberFormatter.formatMoney(order.totalEscrow()) + " Paid");
             lore.add(ChatColor.GRAY + formatRemainingTime(order));
-            lore.add(ChatColor.GRAY + "Status: " + (order.getStatus() == OrderStatus.ACTIVE ? ChatColor.GREEN + "Active" : ChatColor.GOLD + "Completed"));
+            lore.add(ChatColor.GRAY + "Status: " + switch (order.status()) {
+                case ACTIVE -> ChatColor.GREEN + "Active";
+                case COMPLETED -> ChatColor.GOLD + "Completed";
+                case CANCELLED -> ChatColor.RED + "Cancelled";
+            });
             meta.setLore(lore);
             item.setItemMeta(meta);
             inventory.setItem(orderIds.size(), item);
-            orderIds.add(order.getId());
+            orderIds.add(order.id());
         }
 
         inventory.setItem(45, createButton(Material.ARROW, ChatColor.YELLOW + "Previous Page"));
@@ -111,6 +156,39 @@ public class GUIManager implements Listener {
         BoardSession session = new BoardSession(currentPage, filter, ownerFilter, orderIds);
         boardSessions.put(player.getUniqueId(), session);
         player.openInventory(inventory);
+        renderedBoards.put(player.getUniqueId(), new RenderedBoard(session, inventory, epoch, System.currentTimeMillis()));
+        boardRenders++;
+    }
+
+    /**
+     * Re-shows the board a player is on. Within the refresh window, or if no order changed since, the last
+     * rendered screen is reused instead of querying and building it again.
+     */
+    private void refreshOrderBoard(Player player, BoardSession session) {
+        RenderedBoard rendered = renderedBoards.get(player.getUniqueId());
+        long now = System.currentTimeMillis();
+        if (rendered != null && rendered.session().equals(session)
+                && (rendered.epoch() == orderManager.snapshot().number() || now - rendered.renderedAt() < refreshWindowMillis())) {
+            clickLimiter.recordCached();
+            if (player.getOpenInventory().getTopInventory() != rendered.inventory()) {
+                player.openInventory(rendered.inventory());
+                boardSessions.put(player.getUniqueId(), session);
+            }
+            return;
+        }
+        openOrderBoard(player, session.page(), session.filter(), session.ownerFilter());
+    }
+
+    private long refreshWindowMillis() {
+        return plugin.getConfig().getLong("gui.refresh-cache-ms", 1000L);
+    }
+
+    private void openLoadingBoard(Player player, Material filter, UUID ownerFilter) {
+        Inventory inventory = Bukkit.createInventory(new OrderBoardHolder(), 54, "ORDERS (Loading...)");
+        inventory.setItem(22, createButton(Material.CLOCK, ChatColor.YELLOW + "Loading orders..."));
+        inventory.setItem(49, createButton(Material.MAP, ChatColor.GREEN + "Refresh"));
+        boardSessions.put(player.getUniqueId(), new BoardSession(1, filter, ownerFilter, new ArrayList<>()));
+        player.openInventory(inventory);
     }
 
     public void openMaterialSelector(Player player, boolean forSearch) {
@@ -118,14 +196,15 @@ public class GUIManager implements Listener {
     }
 
     public void openMaterialSelector(Player player, boolean forSearch, int page) {
-        int maxPage = Math.max(1, (int) Math.ceil(selectableMaterials.size() / (double) PAGE_SIZE));
+        List<Material> materials = getSelectableMaterials();
+        int maxPage = Math.max(1, (int) Math.ceil(materials.size() / (double) PAGE_SIZE));
         int currentPage = Math.min(Math.max(page, 1), maxPage);
         Inventory inventory = Bukkit.createInventory(new MaterialSelectorHolder(forSearch, currentPage), 54,
                 forSearch ? "Search Material" : "Select Material");
         int startIndex = (currentPage - 1) * PAGE_SIZE;
-        int endIndex = Math.min(startIndex + PAGE_SIZE, selectableMaterials.size());
+        int endIndex = Math.min(startIndex + PAGE_SIZE, materials.size());
         for (int i = startIndex; i < endIndex; i++) {
-            inventory.setItem(i - startIndex, new ItemStack(selectableMaterials.get(i)));
+            inventory.setItem(i - startIndex, new ItemStack(materials.get(i)));
         }
         inventory.setItem(45, createButton(Material.ARROW, ChatColor.YELLOW + "Previous Page"));
         inventory.setItem(53, createButton(Material.ARROW, ChatColor.YELLOW + "Next Page"));
@@ -137,13 +216,14 @@ public class GUIManager implements Listener {
             player.sendMessage(ChatColor.RED + "Order is no longer active.");
             return;
         }
-        UUID current = deliveryLocks.get(order.getId());
-        if (current != null && !current.equals(player.getUniqueId())) {
-            player.sendMessage(ChatColor.RED + "Someone else is already delivering to this order.");
+        // Claim what one delivery screen can hold so other suppliers can work the rest of the order in parallel.
+        long slice = (long) DELIVERY_CONTENTS_END * order.getMaterial().getMaxStackSize();
+        OrderManager.Reservation reservation = orderManager.reserve(order, player.getUniqueId(), slice, reservationTtlMillis());
+        if (reservation == null) {
+            player.sendMessage(ChatColor.RED + "The rest of this order is reserved by other suppliers. Try again shortly.");
             return;
         }
-        deliveryLocks.put(order.getId(), player.getUniqueId());
-        Inventory inventory = Bukkit.createInventory(new DeliveryHolder(order.getId()), DELIVERY_SIZE,
+        Inventory inventory = Bukkit.createInventory(new DeliveryHolder(order.getId(), reservation), DELIVERY_SIZE,
                 "Deliver Items \u2192 Order #" + order.getId());
         ItemStack filler = createButton(Material.GRAY_STAINED_GLASS_PANE, " ");
         for (int i = DELIVERY_CONTENTS_END; i < DELIVERY_SIZE; i++) {
@@ -152,7 +232,8 @@ public class GUIManager implements Listener {
         ItemStack info = createButton(Material.PAPER,
                 ChatColor.YELLOW + "Deliver " + formatMaterialName(order.getMaterial()),
                 ChatColor.GRAY + "Remaining: " + NumberFormatter.formatCompact(order.getRemainingQuantity()),
-                ChatColor.GRAY + "Price per item: $" + NumberFormatter.formatCompact(order.getPricePerItem()));
+                ChatColor.GRAY + "Reserved for you: " + NumberFormatter.formatCompact(reservation.amount()),
+                ChatColor.GRAY + "Price per item: $" + NumberFormatter.formatMoney(order.getPricePerItem()));
         inventory.setItem(47, info);
         inventory.setItem(45, createButton(Material.RED_STAINED_GLASS_PANE, ChatColor.RED + "Cancel"));
         inventory.setItem(53, createButton(Material.GREEN_STAINED_GLASS_PANE, ChatColor.GREEN + "Deliver Items"));
@@ -160,16 +241,21 @@ public class GUIManager implements Listener {
     }
 
     public void openCollectGUI(Player player, Order order, int page) {
-        int maxPage = Math.max(1, (int) Math.ceil(order.getStoredItems().size() / (double) PAGE_SIZE));
+        OrderManager.OrderSnapshot view = orderManager.snapshot().get(order.getId());
+        if (view == null) {
+            player.closeInventory();
+            return;
+        }
+        int maxPage = Math.max(1, (int) Math.ceil(view.storedStackCount() / (double) PAGE_SIZE));
         int currentPage = Math.min(Math.max(page, 1), maxPage);
         Inventory inventory = Bukkit.createInventory(new CollectHolder(order.getId(), currentPage), 54, "ORDERS \u2192 Collect Items");
         int startIndex = (currentPage - 1) * PAGE_SIZE;
-        int endIndex = Math.min(startIndex + PAGE_SIZE, order.getStoredItems().size());
-        for (int i = startIndex; i < endIndex; i++) {
-            inventory.setItem(i - startIndex, order.getStoredItems().get(i));
+        List<ItemStack> pageItems = view.storedStacks(startIndex, startIndex + PAGE_SIZE);
+        for (int i = 0; i < pageItems.size(); i++) {
+            inventory.setItem(i, pageItems.get(i));
         }
         ItemStack info = createButton(Material.PAPER, ChatColor.YELLOW + "Stored Items",
-                ChatColor.GRAY + "Total: " + NumberFormatter.formatCompact(calculateStoredAmount(order)));
+                ChatColor.GRAY + "Total: " + NumberFormatter.formatCompact(view.storedQuantity()));
         inventory.setItem(4, info);
         inventory.setItem(45, createButton(Material.ARROW, ChatColor.YELLOW + "Previous Page"));
         inventory.setItem(49, createButton(Material.EMERALD, ChatColor.GREEN + "Drop Loot", ChatColor.GRAY + "Collect all items on this page"));
@@ -177,17 +263,26 @@ public class GUIManager implements Listener {
         player.openInventory(inventory);
     }
 
-    public void openConfirmCreation(Player player, OrderCreationSession session, double listingFee) {
+    public void openConfirmCreation(Player player, OrderCreationSession session, long listingFee) {
         Inventory inventory = Bukkit.createInventory(new ConfirmCreateHolder(), 27, "Confirm Order");
         ItemStack item = new ItemStack(session.getMaterial());
         ItemMeta meta = item.getItemMeta();
         meta.setDisplayName(ChatColor.YELLOW + formatMaterialName(session.getMaterial()));
         List<String> lore = new ArrayList<>();
         lore.add(ChatColor.GRAY + "Quantity: " + NumberFormatter.formatCompact(session.getQuantity()));
-        lore.add(ChatColor.GRAY + "Total Price: $" + NumberFormatter.formatCompact(session.getTotalPrice()));
-        lore.add(ChatColor.GRAY + "Price per item: $" + NumberFormatter.formatCompact(session.getPricePerItem()));
-        lore.add(ChatColor.GRAY + "Total Escrow: $" + NumberFormatter.formatCompact(session.getTotalPrice()));
-        lore.add(ChatColor.GRAY + "Listing Fee: $" + NumberFormatter.formatCompact(listingFee));
+        lore.add(ChatColor.GRAY + "Total Price: $" + NumberFormatter.formatMoney(session.getTotalPrice()));
+        lore.add(ChatColor.GRAY + "Price per item: $" + NumberFormatter.formatMoney(session.getPricePerItem()));
+        lore.add(ChatColor.GRAY + "Total Escrow: $" + NumberFormatter.formatMoney(session.getTotalPrice()));
+        lore.add(ChatColor.GRAY + "Listing Fee: $" + NumberFormatter.formatMoney(listingFee));
+        MarketStats.WindowSummary market = plugin.getMarketStats().summarize(session.getMaterial(), MarketStats.Window.DAY,
+                System.currentTimeMillis());
+        if (market.trades() > 0) {
+            lore.add(ChatColor.AQUA + "Market 24h VWAP: $" + NumberFormatter.formatMoney(market.vwap())
+                    + " ($" + NumberFormatter.formatMoney(market.minPrice()) + "-$" + NumberFormatter.formatMoney(market.maxPrice()) + ")");
+        } else {
+            lore.add(ChatColor.AQUA + "Market 24h: no trades");
+        }
+        lore.add(ChatColor.AQUA + "Open demand: " + NumberFormatter.formatCompact(plugin.getMarketStats().getOpenDemand(session.getMaterial())));
         meta.setLore(lore);
         item.setItemMeta(meta);
         inventory.setItem(13, item);
@@ -205,7 +300,7 @@ public class GUIManager implements Listener {
         if (holder instanceof OrderBoardHolder) {
             event.setCancelled(true);
             if (event.getRawSlot() < event.getInventory().getSize()) {
-                handleOrderBoardClick(player, event.getRawSlot(), event.getClick());
+                queueBoardClick(player, event.getRawSlot(), event.getClick());
             }
         } else if (holder instanceof MaterialSelectorHolder selector) {
             event.setCancelled(true);
@@ -216,8 +311,10 @@ public class GUIManager implements Listener {
             handleDeliveryClick(player, deliveryHolder, event);
         } else if (holder instanceof CollectHolder collectHolder) {
             event.setCancelled(true);
-            if (event.getRawSlot() < event.getInventory().getSize()) {
-                handleCollectClick(player, collectHolder, event.getRawSlot(), event.getClick());
+            if (event.getRawSlot() < event.getInventory().getSize() && acquireClick(player)) {
+                int slot = event.getRawSlot();
+                ClickType click = event.getClick();
+                schedule(TickScheduler.Priority.INTERACTIVE, () -> handleCollectClick(player, collectHolder, slot, click));
             }
         } else if (holder instanceof ConfirmCreateHolder) {
             event.setCancelled(true);
@@ -227,6 +324,49 @@ public class GUIManager implements Listener {
         }
     }
 
+    /**
+     * Queues a board click. Another press of Previous, Refresh or Next while the first is still queued is folded
+     * into it, so paging several times renders once; other clicks spend a token from the player's bucket.
+     */
+    private void queueBoardClick(Player player, int slot, ClickType click) {
+        UUID playerId = player.getUniqueId();
+        PendingClick pending = pendingBoardClicks.get(playerId);
+        if (pending != null && pending.slot == slot && (slot == 45 || slot == 49 || slot == 53)) {
+            pending.repeats++;
+            clickLimiter.recordCoalesced();
+            return;
+        }
+        if (!acquireClick(player)) {
+            return;
+        }
+        PendingClick queued = new PendingClick(slot);
+        pendingBoardClicks.put(playerId, queued);
+        schedule(TickScheduler.Priority.INTERACTIVE, () -> {
+            pendingBoardClicks.remove(playerId, queued);
+            handleOrderBoardClick(player, slot, click, queued.repeats);
+        });
+    }
+
+    private boolean acquireClick(Player player) {
+        long now = System.currentTimeMillis();
+        if (clickLimiter.tryAcquire(player.getUniqueId(), now)) {
+            return true;
+        }
+        if (clickLimiter.shouldWarn(player.getUniqueId(), now)) {
+            player.sendMessage(ChatColor.RED + "You're clicking too fast, slow down.");
+        }
+        return false;
+    }
+
+    @EventHandler
+    public void onQuit(PlayerQuitEvent event) {
+        UUID playerId = event.getPlayer().getUniqueId();
+        clickLimiter.forget(playerId);
+        renderedBoards.remove(playerId);
+        pendingBoardClicks.remove(playerId);
+        pendingCollectRenders.remove(playerId);
+    }
+
     @EventHandler
     public void onInventoryClose(InventoryCloseEvent event) {
         InventoryHolder holder = event.getInventory().getHolder();
@@ -235,22 +375,28 @@ public class GUIManager implements Listener {
             return;
         }
         if (holder instanceof DeliveryHolder deliveryHolder && event.getPlayer() instanceof Player player) {
+            if (pendingSubmits.remove(player.getUniqueId())) {
+                // The queued submit has not run yet; settle it now while the player is still here.
+                handleDeliverySubmit(player, deliveryHolder, event.getInventory(), true);
+                orderManager.releaseReservation(deliveryHolder.reservation());
+                return;
+            }
             if (deliveryClosing.remove(player.getUniqueId())) {
-                releaseDeliveryLock(deliveryHolder.orderId());
+                orderManager.releaseReservation(deliveryHolder.reservation());
                 return;
             }
             returnDeliveryItems(player, collectInventoryItems(event.getInventory()));
-            releaseDeliveryLock(deliveryHolder.orderId());
+            orderManager.releaseReservation(deliveryHolder.reservation());
         }
     }
 
-    private void handleOrderBoardClick(Player player, int slot, ClickType clickType) {
+    private void handleOrderBoardClick(Player player, int slot, ClickType clickType, int repeats) {
         BoardSession session = boardSessions.get(player.getUniqueId());
         if (session == null) {
             return;
         }
         if (slot == 45) {
-            openOrderBoard(player, session.page() - 1, session.filter(), session.ownerFilter());
+            openOrderBoard(player, session.page() - 1 - repeats, session.filter(), session.ownerFilter());
             return;
         }
         if (slot == 48) {
@@ -262,7 +408,7 @@ public class GUIManager implements Listener {
             return;
         }
         if (slot == 49) {
-            openOrderBoard(player, session.page(), session.filter(), session.ownerFilter());
+            refreshOrderBoard(player, session);
             return;
         }
         if (slot == 50) {
@@ -274,7 +420,7 @@ public class GUIManager implements Listener {
             return;
         }
         if (slot == 53) {
-            openOrderBoard(player, session.page() + 1, session.filter(), session.ownerFilter());
+            openOrderBoard(player, session.page() + 1 + repeats, session.filter(), session.ownerFilter());
             return;
         }
         int index = slot;
@@ -309,50 +455,105 @@ public class GUIManager implements Listener {
     }
 
     private void handleDeliveryClick(Player player, DeliveryHolder holder, InventoryClickEvent event) {
+        if (pendingSubmits.contains(player.getUniqueId())) {
+            // Contents are frozen until the queued submit runs.
+            event.setCancelled(true);
+            return;
+        }
         int slot = event.getSlot();
         if (slot >= DELIVERY_CONTENTS_END) {
             event.setCancelled(true);
             if (slot == 45) {
                 player.closeInventory();
-            } else if (slot == 53) {
-                handleDeliverySubmit(player, holder, event.getInventory());
+            } else if (slot == 53 && pendingSubmits.add(player.getUniqueId())) {
+                Inventory inventory = event.getInventory();
+                schedule(TickScheduler.Priority.DELIVERY, () -> {
+                    if (pendingSubmits.remove(player.getUniqueId())) {
+                        handleDeliverySubmit(player, holder, inventory, false);
+                    }
+                });
             }
             return;
         }
     }
 
-    private void handleDeliverySubmit(Player player, DeliveryHolder holder, Inventory inventory) {
+    private void handleDeliverySubmit(Player player, DeliveryHolder holder, Inventory inventory, boolean closing) {
         Optional<Order> optionalOrder = orderManager.getOrder(holder.orderId());
         if (optionalOrder.isEmpty()) {
-            player.closeInventory();
+            returnDeliveryItems(player, collectInventoryItems(inventory));
+            finishDelivery(player, closing);
             return;
         }
         Order order = optionalOrder.get();
         if (order.getStatus() != OrderStatus.ACTIVE) {
             player.sendMessage(ChatColor.RED + "Order is no longer active.");
             returnDeliveryItems(player, collectInventoryItems(inventory));
-            player.closeInventory();
+            finishDelivery(player, closing);
             return;
         }
-        DeliveryExtraction extraction = extractDeliverables(inventory, order.getMaterial(), order.getRemainingQuantity());
-        if (extraction.amountDelivered() <= 0) {
-            player.sendMessage(ChatColor.RED + "You have no items to deliver.");
+        if (plugin.getStorageManager().isSavingDisabled()) {
+            player.sendMessage(ChatColor.RED + StorageManager.SAVING_DISABLED_MESSAGE);
             returnDeliveryItems(player, collectInventoryItems(inventory));
-            player.closeInventory();
+            finishDelivery(player, closing);
+            return;
+        }
+        // Grow the claim to what was actually offered, then extract only what the claim covers.
+        DeliveryExtractor.Plan plan = deliveryExtractor.scan(inventory, order.getMaterial(), DELIVERY_CONTENTS_END);
+        long offered = plan.total();
+        long held = offered <= 0 ? 0L
+                : orderManager.extendReservation(order, holder.reservation(), offered, reservationTtlMillis());
+        DeliveryExtractor.Result extraction = deliveryExtractor.extract(plan, held);
+        if (extraction.amountDelivered() <= 0) {
+            player.sendMessage(ChatColor.RED + (offered > 0
+                    ? "The rest of this order is reserved by other suppliers."
+                    : "You have no items to deliver."));
+            returnDeliveryItems(player, extraction.leftovers());
+            finishDelivery(player, closing);
             return;
         }
-        OrderManager.DeliveryResult result = orderManager.deliverItems(player, order, extraction.amountDelivered(), economy);
+        OrderManager.DeliveryResult result = orderManager.deliverReserved(player, order, holder.reservation(),
+                extraction.amountDelivered(), economy);
+        List<ItemStack> leftovers = new ArrayList<>(extraction.leftovers());
+        long undelivered = extraction.amountDelivered() - result.getAmountDelivered();
+        int maxStack = order.getMaterial().getMaxStackSize();
+        while (undelivered > 0) {
+            int amount = (int) Math.min(undelivered, maxStack);
+            leftovers.add(new ItemStack(order.getMaterial(), amount));
+            undelivered -= amount;
+        }
         if (result.isSuccess()) {
             plugin.getStorageManager().requestSaveAsync(orderManager);
             player.sendMessage(ChatColor.GREEN + "You delivered " + NumberFormatter.formatCompact(result.getAmountDelivered()) + " "
-                    + formatMaterialName(order.getMaterial()) + " and received $" + NumberFormatter.formatCompact(result.getPayout()));
+                    + formatMaterialName(order.getMaterial()) + (result.isForwarded()
+                    ? "; the server this order was placed on pays you once it confirms the delivery."
+                    : " and received $" + NumberFormatter.formatMoney(result.getPayout())));
             player.playSound(player.getLocation(), Sound.ENTITY_PLAYER_LEVELUP, 1F, 1F);
         } else {
             player.sendMessage(ChatColor.RED + result.getMessage());
         }
-        deliveryClosing.add(player.getUniqueId());
-        returnDeliveryItems(player, extraction.leftovers());
-        player.closeInventory();
+        if (!closing) {
+            deliveryClosing.add(player.getUniqueId());
+        }
+        returnDeliveryItems(player, leftovers);
+        finishDelivery(player, closing);
+    }
+
+    public DeliveryExtractor getDeliveryExtractor() {
+        return deliveryExtractor;
+    }
+
+    private long reservationTtlMillis() {
+        return plugin.getConfig().getLong("delivery.reservation-timeout-seconds", 300L) * 1000L;
+    }
+
+    private void finishDelivery(Player player, boolean closing) {
+        if (!closing) {
+            player.closeInventory();
+        }
+    }
+
+    private void schedule(TickScheduler.Priority priority, Runnable action) {
+        plugin.getTickScheduler().submit(priority, action);
     }
 
     private void handleCollectClick(Player player, CollectHolder holder, int slot, ClickType clickType) {
@@ -367,6 +568,14 @@ public class GUIManager implements Listener {
             player.closeInventory();
             return;
         }
+        if (plugin.getStorageManager().isSavingDisabled() && (slot == 49 || slot >= 0 && slot < PAGE_SIZE)) {
+            player.sendMessage(ChatColor.RED + StorageManager.SAVING_DISABLED_MESSAGE);
+            return;
+        }
+        if (orderManager.isCopy(order) && (slot == 49 || slot >= 0 && slot < PAGE_SIZE)) {
+            player.sendMessage(ChatColor.RED + "Collect this order on the server it was placed on.");
+            return;
+        }
         if (slot == 45) {
             openCollectGUI(player, order, holder.page() - 1);
             return;
@@ -381,8 +590,8 @@ public class GUIManager implements Listener {
         }
         if (slot >= 0 && slot < PAGE_SIZE) {
             int index = (holder.page() - 1) * PAGE_SIZE + slot;
-            if (index < order.getStoredItems().size()) {
-                ItemStack stack = order.getStoredItems().remove(index);
+            ItemStack stack = orderManager.takeStoredItem(player, order, index);
+            if (stack != null) {
                 Map<Integer, ItemStack> remaining = player.getInventory().addItem(stack);
                 if (!remaining.isEmpty()) {
                     for (ItemStack leftover : remaining.values()) {
@@ -390,11 +599,28 @@ public class GUIManager implements Listener {
                     }
                 }
                 plugin.getStorageManager().requestSaveAsync(orderManager);
-                openCollectGUI(player, order, holder.page());
+                requestCollectRender(player, order.getId());
             }
         }
     }
 
+    /**
+     * Re-renders a collect screen once after the clicks already queued for it, however many items they take.
+     */
+    private void requestCollectRender(Player player, int orderId) {
+        if (!pendingCollectRenders.add(player.getUniqueId())) {
+            clickLimiter.recordCoalesced();
+            return;
+        }
+        schedule(TickScheduler.Priority.INTERACTIVE, () -> {
+            pendingCollectRenders.remove(player.getUniqueId());
+            if (player.getOpenInventory().getTopInventory().getHolder() instanceof CollectHolder holder
+                    && holder.orderId() == orderId) {
+                orderManager.getOrder(orderId).ifPresent(order -> openCollectGUI(player, order, holder.page()));
+            }
+        });
+    }
+
     private void handleConfirmCreateClick(Player player, int slot) {
         if (slot == 11) {
             plugin.confirmCreate(player);
@@ -405,12 +631,10 @@ public class GUIManager implements Listener {
 
     private void collectPage(Player player, Order order, int page) {
         int startIndex = (page - 1) * PAGE_SIZE;
-        int endIndex = Math.min(startIndex + PAGE_SIZE, order.getStoredItems().size());
-        if (startIndex >= endIndex) {
+        List<ItemStack> toCollect = orderManager.takeStoredItems(player, order, startIndex, startIndex + PAGE_SIZE);
+        if (toCollect.isEmpty()) {
             return;
         }
-        List<ItemStack> toCollect = new ArrayList<>(order.getStoredItems().subList(startIndex, endIndex));
-        order.getStoredItems().subList(startIndex, endIndex).clear();
         for (ItemStack stack : toCollect) {
             Map<Integer, ItemStack> remaining = player.getInventory().addItem(stack);
             if (!remaining.isEmpty()) {
@@ -423,19 +647,11 @@ public class GUIManager implements Listener {
         openCollectGUI(player, order, page);
     }
 
-    private long calculateStoredAmount(Order order) {
-        long total = 0;
-        for (ItemStack stack : order.getStoredItems()) {
-            total += stack.getAmount();
-        }
-        return total;
-    }
-
-    private String formatRemainingTime(Order order) {
-        if (order.getStatus() == OrderStatus.ACTIVE) {
+    private String formatRemainingTime(OrderManager.OrderSnapshot order) {
+        if (order.status() == OrderStatus.ACTIVE) {
             return "Time remaining: Active";
         }
-        long remainingMillis = order.getExpirationTimestamp() - Instant.now().toEpochMilli();
+        long remainingMillis = order.expirationTimestamp() - Instant.now().toEpochMilli();
         if (remainingMillis <= 0) {
             return "Expired";
         }
@@ -469,7 +685,7 @@ public class GUIManager implements Listener {
             return null;
         }
         String normalized = normalize(input);
-        for (Material material : selectableMaterials) {
+        for (Material material : getSelectableMaterials()) {
             if (normalize(material.name()).equals(normalized)) {
                 return material;
             }
@@ -484,7 +700,7 @@ public class GUIManager implements Listener {
         String normalized = normalize(input);
         Material best = null;
         int bestDistance = Integer.MAX_VALUE;
-        for (Material material : selectableMaterials) {
+        for (Material material : getSelectableMaterials()) {
             String candidate = normalize(material.name());
             if (candidate.equals(normalized)) {
                 return material;
@@ -507,7 +723,7 @@ public class GUIManager implements Listener {
         }
         String normalized = normalize(input);
         List<MaterialSuggestion> suggestions = new ArrayList<>();
-        for (Material material : selectableMaterials) {
+        for (Material material : getSelectableMaterials()) {
             String candidate = normalize(material.name());
             int score;
             if (candidate.contains(normalized) || normalized.contains(candidate)) {
@@ -563,73 +779,6 @@ public class GUIManager implements Listener {
         return costs[b.length()];
     }
 
-    private DeliveryExtraction extractDeliverables(Inventory inventory, Material material, long limit) {
-        List<ItemStack> leftovers = new ArrayList<>();
-        long delivered = 0;
-        for (int i = 0; i < DELIVERY_CONTENTS_END; i++) {
-            ItemStack stack = inventory.getItem(i);
-            if (stack == null || stack.getType() == Material.AIR) {
-                continue;
-            }
-            if (isShulkerBox(stack.getType())) {
-                DeliveryExtraction shulkerExtraction = extractFromShulker(stack, material, limit - delivered);
-                delivered += shulkerExtraction.amountDelivered();
-                leftovers.addAll(shulkerExtraction.leftovers());
-            } else if (stack.getType() == material) {
-                int remove = (int) Math.min(stack.getAmount(), Math.max(0, limit - delivered));
-                int remaining = stack.getAmount() - remove;
-                delivered += remove;
-                if (remaining > 0) {
-                    leftovers.add(new ItemStack(material, remaining));
-                }
-            } else {
-                leftovers.add(stack);
-            }
-        }
-        for (int i = 0; i < DELIVERY_CONTENTS_END; i++) {
-            inventory.setItem(i, null);
-        }
-        return new DeliveryExtraction(delivered, leftovers);
-    }
-
-    private DeliveryExtraction extractFromShulker(ItemStack shulkerStack, Material material, long limit) {
-        ItemStack updatedShulker = shulkerStack.clone();
-        ItemMeta meta = updatedShulker.getItemMeta();
-        if (!(meta instanceof BlockStateMeta blockStateMeta)) {
-            return new DeliveryExtraction(0L, List.of(updatedShulker));
-        }
-        if (!(blockStateMeta.getBlockState() instanceof ShulkerBox shulkerBox)) {
-            return new DeliveryExtraction(0L, List.of(updatedShulker));
-        }
-        ItemStack[] contents = shulkerBox.getInventory().getContents();
-        long delivered = 0;
-        for (int i = 0; i < contents.length; i++) {
-            ItemStack content = contents[i];
-            if (content == null || content.getType() != material) {
-                continue;
-            }
-            int remove = (int) Math.min(content.getAmount(), Math.max(0, limit - delivered));
-            int remaining = content.getAmount() - remove;
-            delivered += remove;
-            if (remaining <= 0) {
-                contents[i] = null;
-            } else {
-                content.setAmount(remaining);
-            }
-            if (delivered >= limit) {
-                break;
-            }
-        }
-        shulkerBox.getInventory().setContents(contents);
-        blockStateMeta.setBlockState(shulkerBox);
-        updatedShulker.setItemMeta(blockStateMeta);
-        return new DeliveryExtraction(delivered, List.of(updatedShulker));
-    }
-
-    private boolean isShulkerBox(Material material) {
-        return material.name().endsWith("SHULKER_BOX");
-    }
-
     private List<ItemStack> collectInventoryItems(Inventory inventory) {
         List<ItemStack> items = new ArrayList<>();
         for (int i = 0; i < DELIVERY_CONTENTS_END; i++) {
@@ -653,11 +802,19 @@ public class GUIManager implements Listener {
         }
     }
 
-    private void releaseDeliveryLock(int orderId) {
-        deliveryLocks.remove(orderId);
+    private record BoardSession(int page, Material filter, UUID ownerFilter, List<Integer> orderIds) {
     }
 
-    private record BoardSession(int page, Material filter, UUID ownerFilter, List<Integer> orderIds) {
+    private record RenderedBoard(BoardSession session, Inventory inventory, long epoch, long renderedAt) {
+    }
+
+    private static final class PendingClick {
+        private final int slot;
+        private int repeats;
+
+        private PendingClick(int slot) {
+            this.slot = slot;
+        }
     }
 
     private record OrderBoardHolder() implements InventoryHolder {
@@ -674,7 +831,7 @@ public class GUIManager implements Listener {
         }
     }
 
-    private record DeliveryHolder(int orderId) implements InventoryHolder {
+    private record DeliveryHolder(int orderId, OrderManager.Reservation reservation) implements InventoryHolder {
         @Override
         public Inventory getInventory() {
             return null;
@@ -695,9 +852,6 @@ public class GUIManager implements Listener {
         }
     }
 
-    private record DeliveryExtraction(long amountDelivered, List<ItemStack> leftovers) {
-    }
-
     private record MaterialSuggestion(Material material, int score) {
     }
 }
@@ -0,0 +1,311 @@
+package com.example.ordersystem;
+
+import org.bukkit.Material;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Incrementally maintained per-material trade statistics over rolling windows.
+ * Deliveries and new orders are folded into fixed-size ring buckets, so queries never scan orders.
+ */
+public class MarketStats {
+    private static final int FORMAT_VERSION = 1;
+    private static final long MINUTE_MILLIS = 60_000L;
+    private static final long HOUR_MILLIS = 60L * MINUTE_MILLIS;
+    private static final int MINUTE_BUCKETS = 60;
+    private static final int HOUR_BUCKETS = 24 * 7;
+
+    private final Map<Material, MaterialStats> stats = new ConcurrentHashMap<>();
+
+    public enum Window {
+        HOUR("1h"),
+        DAY("24h"),
+        WEEK("7d");
+
+        private final String label;
+
+        Window(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    public void recordTrade(Material material, long units, long payout, long now) {
+        if (units <= 0) {
+            return;
+        }
+        statsFor(material).recordTrade(units, payout, now);
+    }
+
+    public void recordDemand(Material material, long units, long now) {
+        if (units <= 0) {
+            return;
+        }
+        statsFor(material).recordDemand(units, now);
+    }
+
+    /**
+     * Adjusts open demand without counting it as new demand, e.g. for orders restored from disk.
+     */
+    public void adjustOpenDemand(Material material, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        statsFor(material).adjustOpenDemand(delta);
+    }
+
+    public WindowSummary summarize(Material material, Window window, long now) {
+        MaterialStats materialStats = stats.get(material);
+        if (materialStats == null) {
+            return WindowSummary.EMPTY;
+        }
+        return materialStats.summarize(window, now);
+    }
+
+    public long getOpenDemand(Material material) {
+        MaterialStats materialStats = stats.get(material);
+        return materialStats == null ? 0L : materialStats.getOpenDemand();
+    }
+
+    public long getLastPrice(Material material) {
+        MaterialStats materialStats = stats.get(material);
+        return materialStats == null ? 0L : materialStats.getLastPrice();
+    }
+
+    public void writeTo(DataOutputStream out, long now) throws IOException {
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(stats.size());
+        for (Map.Entry<Material, MaterialStats> entry : stats.entrySet()) {
+            out.writeUTF(entry.getKey().name());
+            entry.getValue().writeTo(out, now);
+        }
+    }
+
+    public void readFrom(DataInputStream in, long now) throws IOException {
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported market stats version " + version);
+        }
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            Material material = Material.matchMaterial(in.readUTF());
+            MaterialStats materialStats = new MaterialStats();
+            materialStats.readFrom(in, now);
+            if (material != null) {
+                stats.put(material, materialStats);
+            }
+        }
+    }
+
+    private MaterialStats statsFor(Material material) {
+        return stats.computeIfAbsent(material, key -> new MaterialStats());
+    }
+
+    public record WindowSummary(long volume, long notional, long minPrice, long maxPrice, long trades, long demandAdded) {
+        public static final WindowSummary EMPTY = new WindowSummary(0L, 0L, 0L, 0L, 0L, 0L);
+
+        /**
+         * Volume-weighted average unit price in minor units.
+         */
+        public long vwap() {
+            return volume <= 0 ? 0L : notional / volume;
+        }
+    }
+
+    private static final class MaterialStats {
+        private final Ring minutes = new Ring(MINUTE_BUCKETS, MINUTE_MILLIS);
+        private final Ring hours = new Ring(HOUR_BUCKETS, HOUR_MILLIS);
+        private long lastPrice;
+        private long openDemand;
+
+        synchronized void recordTrade(long units, long payout, long now) {
+            long unitPrice = payout / units;
+            minutes.addTrade(now, units, payout, unitPrice);
+            hours.addTrade(now, units, payout, unitPrice);
+            lastPrice = unitPrice;
+            openDemand = Math.max(0L, openDemand - units);
+        }
+
+        synchronized void recordDemand(long units, long now) {
+            minutes.addDemand(now, units);
+            hours.addDemand(now, units);
+            openDemand += units;
+        }
+
+        synchronized void adjustOpenDemand(long delta) {
+            openDemand = Math.max(0L, openDemand + delta);
+        }
+
+        synchronized long getOpenDemand() {
+            return openDemand;
+        }
+
+        synchronized long getLastPrice() {
+            return lastPrice;
+        }
+
+        synchronized WindowSummary summarize(Window window, long now) {
+            return switch (window) {
+                case HOUR -> minutes.summarize(now, MINUTE_BUCKETS);
+                case DAY -> hours.summarize(now, 24);
+                case WEEK -> hours.summarize(now, HOUR_BUCKETS);
+            };
+        }
+
+        synchronized void writeTo(DataOutputStream out, long now) throws IOException {
+            out.writeLong(lastPrice);
+            minutes.writeTo(out, now);
+            hours.writeTo(out, now);
+        }
+
+        synchronized void readFrom(DataInputStream in, long now) throws IOException {
+            lastPrice = in.readLong();
+            minutes.readFrom(in, now);
+            hours.readFrom(in, now);
+        }
+    }
+
+    /**
+     * Fixed-size ring of time buckets held as parallel primitive arrays. A bucket is lazily reset when
+     * its slot is reused for a newer period.
+     */
+    private static final class Ring {
+        private final int size;
+        private final long bucketMillis;
+        private final long[] period;
+        private final long[] volume;
+        private final long[] notional;
+        private final long[] minPrice;
+        private final long[] maxPrice;
+        private final long[] trades;
+        private final long[] demand;
+
+        Ring(int size, long bucketMillis) {
+            this.size = size;
+            this.bucketMillis = bucketMillis;
+            this.period = new long[size];
+            this.volume = new long[size];
+            this.notional = new long[size];
+            this.minPrice = new long[size];
+            this.maxPrice = new long[size];
+            this.trades = new long[size];
+            this.demand = new long[size];
+            Arrays.fill(period, -1L);
+        }
+
+        void addTrade(long now, long units, long payout, long unitPrice) {
+            int slot = slotFor(now / bucketMillis);
+            if (trades[slot] == 0) {
+                minPrice[slot] = unitPrice;
+                maxPrice[slot] = unitPrice;
+            } else {
+                minPrice[slot] = Math.min(minPrice[slot], unitPrice);
+                maxPrice[slot] = Math.max(maxPrice[slot], unitPrice);
+            }
+            volume[slot] += units;
+            notional[slot] += payout;
+            trades[slot]++;
+        }
+
+        void addDemand(long now, long units) {
+            demand[slotFor(now / bucketMillis)] += units;
+        }
+
+        WindowSummary summarize(long now, int buckets) {
+            long current = now / bucketMillis;
+            long oldest = current - buckets + 1;
+            long totalVolume = 0;
+            long totalNotional = 0;
+            long min = Long.MAX_VALUE;
+            long max = 0;
+            long totalTrades = 0;
+            long totalDemand = 0;
+            for (int i = 0; i < size; i++) {
+                if (period[i] < oldest || period[i] > current) {
+                    continue;
+                }
+                totalVolume += volume[i];
+                totalNotional += notional[i];
+                totalDemand += demand[i];
+                if (trades[i] > 0) {
+                    totalTrades += trades[i];
+                    min = Math.min(min, minPrice[i]);
+                    max = Math.max(max, maxPrice[i]);
+                }
+            }
+            if (totalTrades == 0 && totalDemand == 0) {
+                return WindowSummary.EMPTY;
+            }
+            return new WindowSummary(totalVolume, totalNotional, totalTrades == 0 ? 0L : min, max, totalTrades, totalDemand);
+        }
+
+        void writeTo(DataOutputStream out, long now) throws IOException {
+            long oldest = now / bucketMillis - size + 1;
+            int live = 0;
+            for (int i = 0; i < size; i++) {
+                if (period[i] >= oldest) {
+                    live++;
+                }
+            }
+            out.writeShort(live);
+            for (int i = 0; i < size; i++) {
+                if (period[i] < oldest) {
+                    continue;
+                }
+                out.writeLong(period[i]);
+                out.writeLong(volume[i]);
+                out.writeLong(notional[i]);
+                out.writeLong(minPrice[i]);
+                out.writeLong(maxPrice[i]);
+                out.writeLong(trades[i]);
+                out.writeLong(demand[i]);
+            }
+        }
+
+        void readFrom(DataInputStream in, long now) throws IOException {
+            long oldest = now / bucketMillis - size + 1;
+            int live = in.readUnsignedShort();
+            for (int i = 0; i < live; i++) {
+                long bucketPeriod = in.readLong();
+                long bucketVolume = in.readLong();
+                long bucketNotional = in.readLong();
+                long bucketMin = in.readLong();
+                long bucketMax = in.readLong();
+                long bucketTrades = in.readLong();
+                long bucketDemand = in.readLong();
+                if (bucketPeriod < oldest) {
+                    continue;
+                }
+                int slot = slotFor(bucketPeriod);
+                volume[slot] = bucketVolume;
+                notional[slot] = bucketNotional;
+                minPrice[slot] = bucketMin;
+                maxPrice[slot] = bucketMax;
+                trades[slot] = bucketTrades;
+                demand[slot] = bucketDemand;
+            }
+        }
+
+        private int slotFor(long bucketPeriod) {
+            int slot = (int) Math.floorMod(bucketPeriod, (long) size);
+            if (period[slot] != bucketPeriod) {
+                period[slot] = bucketPeriod;
+                volume[slot] = 0L;
+                notional[slot] = 0L;
+                minPrice[slot] = 0L;
+                maxPrice[slot] = 0L;
+                trades[slot] = 0L;
+                demand[slot] = 0L;
+            }
+            return slot;
+        }
+    }
+}
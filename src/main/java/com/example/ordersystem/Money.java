@@ -0,0 +1,60 @@
+package com.example.ordersystem;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point helpers for amounts held as minor units (hundredths of a currency unit).
+ */
+public final class Money {
+    public static final int SCALE = 2;
+    public static final long MINOR_PER_MAJOR = 100L;
+
+    private Money() {
+    }
+
+    public static long toMinor(double major) {
+        return Math.round(major * MINOR_PER_MAJOR);
+    }
+
+    public static double toMajor(long minor) {
+        return minor / (double) MINOR_PER_MAJOR;
+    }
+
+    /**
+     * Parses a player-entered amount such as "12.5" exactly, rounding half-up to the minor unit.
+     */
+    public static long parse(String input) {
+        BigDecimal value = new BigDecimal(input.trim());
+        try {
+            return value.movePointRight(SCALE).setScale(0, RoundingMode.HALF_UP).longValueExact();
+        } catch (ArithmeticException ex) {
+            throw new NumberFormatException("Amount out of range: " + input);
+        }
+    }
+
+    /**
+     * Returns floor(total * part / whole). Paying out the difference between two consecutive
+     * prorations telescopes, so the delivery that reaches {@code whole} settles exactly {@code total}.
+     */
+    public static long prorate(long total, long part, long whole) {
+        if (whole <= 0 || part >= whole) {
+            return total;
+        }
+        if (part <= 0) {
+            return 0L;
+        }
+        long quotient = total / whole;
+        long remainder = total % whole;
+        long low = remainder * part;
+        if (Math.multiplyHigh(remainder, part) == 0L && low >= 0L) {
+            return quotient * part + low / whole;
+        }
+        // Only reachable for quantities beyond ~3 billion; fall back to exact arithmetic.
+        return quotient * part + BigInteger.valueOf(remainder)
+                .multiply(BigInteger.valueOf(part))
+                .divide(BigInteger.valueOf(whole))
+                .longValueExact();
+    }
+}
@@ -31,4 +31,20 @@ public final class NumberFormatter {
     public static String formatCompact(long value) {
         return formatCompact((double) value);
     }
+
+    /**
+     * Formats an amount held in minor units, e.g. 1234 as "12.34" and 150000000 as "1.5M".
+     */
+    public static String formatMoney(long minorUnits) {
+        long major = minorUnits / Money.MINOR_PER_MAJOR;
+        if (Math.abs(major) >= 100_000) {
+            return formatCompact(major);
+        }
+        long cents = Math.abs(minorUnits % Money.MINOR_PER_MAJOR);
+        if (cents == 0) {
+            return String.valueOf(major);
+        }
+        String sign = minorUnits < 0 && major == 0 ? "-" : "";
+        return sign + major + (cents < 10 ? ".0" : ".") + cents;
+    }
 }
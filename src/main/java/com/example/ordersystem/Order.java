@@ -1,31 +1,40 @@
 package com.example.ordersystem;
 
 import org.bukkit.Material;
-import org.bukkit.inventory.ItemStack;
 
 import java.time.Instant;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.UUID;
 
 /**
- * Represents a buy order stored by the OrderSystem plugin.
+ * Represents a buy order stored by the OrderSystem plugin. Money fields are held in minor units.
+ * <p>
+ * The layout is kept compact because the plugin holds one instance per order: the owner UUID is stored as two
+ * longs, the owner name as an index into {@link PlayerNameTable}, material and status as ordinals, and delivered
+ * goods as a plain unit count that is only turned into item stacks when collected.
  */
 public class Order {
+    /**
+     * Home node of an order created while replication was off, until a replicating server claims it.
+     */
+    public static final int NO_HOME = -1;
+
+    private static final Material[] MATERIALS = Material.values();
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
     private final int id;
-    private final UUID ownerUuid;
-    private final String ownerName;
-    private final Material material;
-    private final long totalQuantity;
+    private final long ownerMostBits;
+    private final long ownerLeastBits;
+    private final int ownerNameIndex;
+    private final short materialOrdinal;
+    private byte statusOrdinal;
+    private short homeNode;
+    private long totalQuantity;
     private long remainingQuantity;
-    private final double pricePerItem;
-    private final double totalEscrow;
-    private double totalPaid;
+    private long totalEscrow;
+    private long totalPaid;
     private final long createdTimestamp;
     private long expirationTimestamp;
-    private OrderStatus status;
-    private final List<ItemStack> storedItems;
-    private final List<UUID> trustedPlayers;
+    private long storedQuantity;
 
     public Order(int id,
                  UUID ownerUuid,
@@ -33,28 +42,27 @@ public class Order {
                  Material material,
                  long totalQuantity,
                  long remainingQuantity,
-                 double pricePerItem,
-                 double totalEscrow,
-                 double totalPaid,
+                 long totalEscrow,
+                 long totalPaid,
                  long createdTimestamp,
                  long expirationTimestamp,
                  OrderStatus status,
-                 List<ItemStack> storedItems,
-                 List<UUID> trustedPlayers) {
+                 long storedQuantity,
+                 int homeNode) {
         this.id = id;
-        this.ownerUuid = ownerUuid;
-        this.ownerName = ownerName;
-        this.material = material;
+        this.ownerMostBits = ownerUuid.getMostSignificantBits();
+        this.ownerLeastBits = ownerUuid.getLeastSignificantBits();
+        this.ownerNameIndex = PlayerNameTable.intern(ownerName);
+        this.materialOrdinal = (short) material.ordinal();
         this.totalQuantity = totalQuantity;
         this.remainingQuantity = remainingQuantity;
-        this.pricePerItem = pricePerItem;
         this.totalEscrow = totalEscrow;
         this.totalPaid = totalPaid;
         this.createdTimestamp = createdTimestamp;
         this.expirationTimestamp = expirationTimestamp;
-        this.status = status;
-        this.storedItems = storedItems == null ? new ArrayList<>() : storedItems;
-        this.trustedPlayers = trustedPlayers == null ? new ArrayList<>() : trustedPlayers;
+        this.statusOrdinal = (byte) status.ordinal();
+        this.storedQuantity = storedQuantity;
+        this.homeNode = (short) homeNode;
     }
 
     public int getId() {
@@ -62,21 +70,32 @@ public class Order {
     }
 
     public UUID getOwnerUuid() {
-        return ownerUuid;
+        return new UUID(ownerMostBits, ownerLeastBits);
+    }
+
+    /**
+     * Compares the owner without allocating a {@link UUID}.
+     */
+    public boolean isOwnedBy(UUID uuid) {
+        return uuid.getMostSignificantBits() == ownerMostBits && uuid.getLeastSignificantBits() == ownerLeastBits;
     }
 
     public String getOwnerName() {
-        return ownerName;
+        return PlayerNameTable.name(ownerNameIndex);
     }
 
     public Material getMaterial() {
-        return material;
+        return MATERIALS[materialOrdinal];
     }
 
     public long getTotalQuantity() {
         return totalQuantity;
     }
 
+    public void setTotalQuantity(long totalQuantity) {
+        this.totalQuantity = totalQuantity;
+    }
+
     public long getRemainingQuantity() {
         return remainingQuantity;
     }
@@ -85,19 +104,27 @@ public class Order {
         this.remainingQuantity = remainingQuantity;
     }
 
-    public double getPricePerItem() {
-        return pricePerItem;
+    /**
+     * Per-item price in minor units, rounded down. Payouts are prorated against
+     * {@link #getTotalEscrow()} so the rounding remainder is never lost.
+     */
+    public long getPricePerItem() {
+        return totalQuantity <= 0 ? 0L : totalEscrow / totalQuantity;
     }
 
-    public double getTotalEscrow() {
+    public long getTotalEscrow() {
         return totalEscrow;
     }
 
-    public double getTotalPaid() {
+    public void setTotalEscrow(long totalEscrow) {
+        this.totalEscrow = totalEscrow;
+    }
+
+    public long getTotalPaid() {
         return totalPaid;
     }
 
-    public void setTotalPaid(double totalPaid) {
+    public void setTotalPaid(long totalPaid) {
         this.totalPaid = totalPaid;
     }
 
@@ -114,22 +141,36 @@ public class Order {
     }
 
     public OrderStatus getStatus() {
-        return status;
+        return STATUSES[statusOrdinal];
     }
 
     public void setStatus(OrderStatus status) {
-        this.status = status;
+        this.statusOrdinal = (byte) status.ordinal();
+    }
+
+    /**
+     * Units delivered to this order and not yet collected.
+     */
+    public long getStoredQuantity() {
+        return storedQuantity;
+    }
+
+    public void setStoredQuantity(long storedQuantity) {
+        this.storedQuantity = storedQuantity;
     }
 
-    public List<ItemStack> getStoredItems() {
-        return storedItems;
+    /**
+     * The replication node that created the order and publishes its state, or {@link #NO_HOME}.
+     */
+    public int getHomeNode() {
+        return homeNode;
     }
 
-    public List<UUID> getTrustedPlayers() {
-        return trustedPlayers;
+    public void setHomeNode(int homeNode) {
+        this.homeNode = (short) homeNode;
     }
 
     public boolean isExpired() {
-        return status == OrderStatus.COMPLETED && expirationTimestamp > 0 && Instant.now().toEpochMilli() >= expirationTimestamp;
+        return getStatus() != OrderStatus.ACTIVE && expirationTimestamp > 0 && Instant.now().toEpochMilli() >= expirationTimestamp;
     }
 }
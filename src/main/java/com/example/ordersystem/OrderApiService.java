@@ -0,0 +1,193 @@
+package com.example.ordersystem;
+
+import net.milkbowl.vault.economy.Economy;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * {@link OrderSystemApi} backed by the read model's snapshots and indexes, running queries on a small worker pool.
+ */
+public class OrderApiService implements OrderSystemApi {
+    private final Plugin plugin;
+    private final OrderManager orderManager;
+    private final StorageManager storageManager;
+    private final MarketStats marketStats;
+    private final Economy economy;
+    private final ExecutorService executor;
+    private final AtomicLong queries = new AtomicLong();
+    private final AtomicLong bulkDeliveries = new AtomicLong();
+
+    public OrderApiService(Plugin plugin, OrderManager orderManager, StorageManager storageManager, MarketStats marketStats,
+                           Economy economy, int threads) {
+        this.plugin = plugin;
+        this.orderManager = orderManager;
+        this.storageManager = storageManager;
+        this.marketStats = marketStats;
+        this.economy = economy;
+        AtomicInteger threadIds = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "OrderSystem-API-" + threadIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public long getQueries() {
+        return queries.get();
+    }
+
+    public long getBulkDeliveries() {
+        return bulkDeliveries.get();
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Optional<OrderManager.OrderSnapshot>> getOrder(int id) {
+        return query(() -> Optional.ofNullable(orderManager.snapshot().get(id)));
+    }
+
+    @Override
+    public CompletableFuture<Map<Integer, OrderManager.OrderSnapshot>> getOrders(Collection<Integer> ids) {
+        List<Integer> requested = List.copyOf(ids);
+        return query(() -> {
+            OrderReadModel.Epoch epoch = orderManager.snapshot();
+            Map<Integer, OrderManager.OrderSnapshot> found = new LinkedHashMap<>();
+            for (int id : requested) {
+                OrderManager.OrderSnapshot view = epoch.get(id);
+                if (view != null) {
+                    found.put(id, view);
+                }
+            }
+            return Collections.unmodifiableMap(found);
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<OrderManager.OrderSnapshot>> getOrdersByMaterial(Material material) {
+        return query(() -> newestFirst(orderManager.getOrdersByMaterial(material)));
+    }
+
+    @Override
+    public CompletableFuture<List<OrderManager.OrderSnapshot>> getOrdersByOwner(UUID ownerUuid) {
+        return query(() -> newestFirst(orderManager.getOrdersByOwner(ownerUuid)));
+    }
+
+    @Override
+    public CompletableFuture<List<OrderManager.OrderSnapshot>> getBestBids(Material material, int limit) {
+        return query(() -> top(orderManager.getBestBids(material), limit));
+    }
+
+    @Override
+    public CompletableFuture<Map<Material, List<OrderManager.OrderSnapshot>>> getBestBids(Collection<Material> materials, int limit) {
+        List<Material> requested = List.copyOf(materials);
+        return query(() -> {
+            OrderReadModel.Epoch epoch = orderManager.snapshot();
+            Map<Material, List<OrderManager.OrderSnapshot>> bids = new EnumMap<>(Material.class);
+            for (Material material : requested) {
+                bids.put(material, top(orderManager.getBestBids(epoch, material), limit));
+            }
+            return Map.copyOf(bids);
+        });
+    }
+
+    @Override
+    public CompletableFuture<MarketView> getMarket(Material material) {
+        return query(() -> {
+            long now = System.currentTimeMillis();
+            Map<MarketStats.Window, MarketStats.WindowSummary> windows = new EnumMap<>(MarketStats.Window.class);
+            for (MarketStats.Window window : MarketStats.Window.values()) {
+                windows.put(window, marketStats.summarize(material, window, now));
+            }
+            return new MarketView(material, marketStats.getOpenDemand(material), marketStats.getLastPrice(material),
+                    Map.copyOf(windows));
+        });
+    }
+
+    @Override
+    public CompletableFuture<Map<Integer, OrderManager.DeliveryResult>> deliver(UUID supplierUuid, String supplierName,
+                                                                                Map<Integer, Long> amounts) {
+        Map<Integer, Long> requested = new LinkedHashMap<>(amounts);
+        return CompletableFuture.supplyAsync(() -> {
+            bulkDeliveries.incrementAndGet();
+            Map<Integer, OrderManager.DeliveryResult> results = new LinkedHashMap<>();
+            String refusal = !orderManager.isLoaded() ? "Orders are still loading."
+                    : storageManager.isSavingDisabled() ? StorageManager.SAVING_DISABLED_MESSAGE : null;
+            if (refusal != null) {
+                for (Integer id : requested.keySet()) {
+                    results.put(id, OrderManager.DeliveryResult.failed(refusal));
+                }
+                return Collections.unmodifiableMap(results);
+            }
+            long payout = 0;
+            boolean delivered = false;
+            for (Map.Entry<Integer, Long> entry : requested.entrySet()) {
+                Optional<Order> order = orderManager.getOrder(entry.getKey());
+                if (order.isEmpty()) {
+                    results.put(entry.getKey(), OrderManager.DeliveryResult.failed("Order not found."));
+                    continue;
+                }
+                OrderManager.DeliveryResult result = orderManager.deliverFromEndpoint(supplierUuid, supplierName,
+                        order.get(), entry.getValue());
+                if (result.isSuccess()) {
+                    payout += result.getPayout();
+                    delivered = true;
+                }
+                results.put(entry.getKey(), result);
+            }
+            if (delivered) {
+                long total = payout;
+                // Vault economies are only safe to call from the main thread.
+                Bukkit.getScheduler().runTask(plugin, () ->
+                        economy.depositPlayer(Bukkit.getOfflinePlayer(supplierUuid), Money.toMajor(total)));
+                storageManager.requestSaveAsync(orderManager);
+            }
+            return Collections.unmodifiableMap(results);
+        }, executor);
+    }
+
+    @Override
+    public OrderEventBus.Subscription subscribe(Consumer<OrderEventBus.OrderChange> listener, boolean async) {
+        return orderManager.getEventBus().subscribe(listener, async);
+    }
+
+    private <T> CompletableFuture<T> query(Supplier<T> query) {
+        queries.incrementAndGet();
+        return CompletableFuture.supplyAsync(query, executor);
+    }
+
+    private static List<OrderManager.OrderSnapshot> newestFirst(List<OrderManager.OrderSnapshot> views) {
+        views.sort(Comparator.comparingLong(OrderManager.OrderSnapshot::createdTimestamp).reversed());
+        return List.copyOf(views);
+    }
+
+    private static List<OrderManager.OrderSnapshot> top(List<OrderManager.OrderSnapshot> views, int limit) {
+        return List.copyOf(views.subList(0, Math.min(views.size(), Math.max(0, limit))));
+    }
+}
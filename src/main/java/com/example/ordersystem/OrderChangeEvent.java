@@ -0,0 +1,67 @@
+package com.example.ordersystem;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+
+import java.util.Set;
+
+/**
+ * Fired on the main thread once per tick for each order that changed, with changes coalesced by
+ * {@link OrderEventBus}.
+ */
+public class OrderChangeEvent extends Event {
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final OrderEventBus.OrderChange change;
+
+    public OrderChangeEvent(OrderEventBus.OrderChange change) {
+        this.change = change;
+    }
+
+    public int getOrderId() {
+        return change.orderId();
+    }
+
+    public Set<OrderEventBus.Change> getChanges() {
+        return change.changes();
+    }
+
+    public boolean has(OrderEventBus.Change type) {
+        return change.has(type);
+    }
+
+    /**
+     * The order after its last change; for expired orders, the last view before removal.
+     */
+    public OrderManager.OrderSnapshot getView() {
+        return change.view();
+    }
+
+    public int getCoalesced() {
+        return change.coalesced();
+    }
+
+    public long getDelivered() {
+        return change.delivered();
+    }
+
+    /**
+     * Money paid for {@link #getDelivered()}, in minor units.
+     */
+    public long getPaid() {
+        return change.paid();
+    }
+
+    public long getCollected() {
+        return change.collected();
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+}
@@ -0,0 +1,349 @@
+package com.example.ordersystem;
+
+import org.bukkit.Material;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The scalar fields of every order as parallel primitive arrays, one row per order, for scans and aggregations
+ * that would otherwise walk every view object.
+ * <p>
+ * Rows are dense: a removed row is filled with the last one. Owners are stored as indexes into a dictionary that
+ * only grows, with a count of live rows per owner so totals report only owners who still have orders. The read model updates the columns together with each epoch; scans hold a read lock, so they see
+ * the columns as of one update, which may be a little newer or older than the epoch a caller resolves ids in.
+ */
+public class OrderColumns {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int NO_ROW = -1;
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<UUID, Integer> ownerIndexes = new HashMap<>();
+    private final List<UUID> owners = new ArrayList<>();
+    // Live rows per owner index, and how many owners have any.
+    private int[] ownerRows = new int[INITIAL_CAPACITY];
+    private int liveOwners;
+    private int[] rowById = new int[INITIAL_CAPACITY];
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private int[] materials = new int[INITIAL_CAPACITY];
+    private int[] ownerColumn = new int[INITIAL_CAPACITY];
+    private long[] remaining = new long[INITIAL_CAPACITY];
+    private long[] prices = new long[INITIAL_CAPACITY];
+    private long[] created = new long[INITIAL_CAPACITY];
+    private long[] expirations = new long[INITIAL_CAPACITY];
+    private byte[] statuses = new byte[INITIAL_CAPACITY];
+    private int size;
+
+    public OrderColumns() {
+        Arrays.fill(rowById, NO_ROW);
+    }
+
+    /**
+     * Writes a view into its row, adding the row if the order is new.
+     */
+    public void put(OrderManager.OrderSnapshot view) {
+        lock.writeLock().lock();
+        try {
+            write(view);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void putAll(Iterable<OrderManager.OrderSnapshot> views) {
+        lock.writeLock().lock();
+        try {
+            for (OrderManager.OrderSnapshot view : views) {
+                write(view);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            if (id < 0 || id >= rowById.length || rowById[id] == NO_ROW) {
+                return;
+            }
+            int row = rowById[id];
+            int owner = ownerColumn[row];
+            int last = --size;
+            if (row != last) {
+                ids[row] = ids[last];
+                materials[row] = materials[last];
+                ownerColumn[row] = ownerColumn[last];
+                remaining[row] = remaining[last];
+                prices[row] = prices[last];
+                created[row] = created[last];
+                expirations[row] = expirations[last];
+                statuses[row] = statuses[last];
+                rowById[ids[row]] = row;
+            }
+            rowById[id] = NO_ROW;
+            if (--ownerRows[owner] == 0) {
+                liveOwners--;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void write(OrderManager.OrderSnapshot view) {
+        int id = view.id();
+        if (id >= rowById.length) {
+            int oldLength = rowById.length;
+            rowById = Arrays.copyOf(rowById, Math.max(id + 1, oldLength * 2));
+            Arrays.fill(rowById, oldLength, rowById.length, NO_ROW);
+        }
+        int row = rowById[id];
+        if (row == NO_ROW) {
+            if (size == ids.length) {
+                grow();
+            }
+            row = size++;
+            rowById[id] = row;
+            ids[row] = id;
+            materials[row] = view.material().ordinal();
+            int owner = ownerIndexes.computeIfAbsent(view.ownerUuid(), uuid -> {
+                owners.add(uuid);
+                return owners.size() - 1;
+            });
+            if (owner == ownerRows.length) {
+                ownerRows = Arrays.copyOf(ownerRows, owner * 2);
+            }
+            if (ownerRows[owner]++ == 0) {
+                liveOwners++;
+            }
+            ownerColumn[row] = owner;
+            created[row] = view.createdTimestamp();
+        }
+        remaining[row] = view.remainingQuantity();
+        prices[row] = view.pricePerItem();
+        expirations[row] = view.expirationTimestamp();
+        statuses[row] = (byte) view.status().ordinal();
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        materials = Arrays.copyOf(materials, capacity);
+        ownerColumn = Arrays.copyOf(ownerColumn, capacity);
+        remaining = Arrays.copyOf(remaining, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        created = Arrays.copyOf(created, capacity);
+        expirations = Arrays.copyOf(expirations, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Active orders placed by {@code owner}.
+     */
+    public int countActive(UUID owner) {
+        lock.readLock().lock();
+        try {
+            Integer ownerIndex = ownerIndexes.get(owner);
+            if (ownerIndex == null) {
+                return 0;
+            }
+            int wanted = ownerIndex;
+            byte active = (byte) OrderStatus.ACTIVE.ordinal();
+            int count = 0;
+            for (int row = 0; row < size; row++) {
+                if (ownerColumn[row] == wanted && statuses[row] == active) {
+                    count++;
+                }
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of finished orders whose expiration passed at {@code now}, in no particular order.
+     */
+    public int[] expiredIds(long now) {
+        lock.readLock().lock();
+        try {
+            byte active = (byte) OrderStatus.ACTIVE.ordinal();
+            int[] matches = new int[16];
+            int count = 0;
+            for (int row = 0; row < size; row++) {
+                long expiration = expirations[row];
+                if (statuses[row] != active && expiration > 0 && now >= expiration) {
+                    if (count == matches.length) {
+                        matches = Arrays.copyOf(matches, count * 2);
+                    }
+                    matches[count++] = ids[row];
+                }
+            }
+            return Arrays.copyOf(matches, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The first {@code limit} orders in board order (newest first, then by id) among those matching the optional
+     * material and owner, together with how many match in total.
+     */
+    public Board board(Material material, UUID owner, int limit) {
+        lock.readLock().lock();
+        try {
+            int wantedMaterial = material == null ? -1 : material.ordinal();
+            int wantedOwner = -1;
+            if (owner != null) {
+                Integer ownerIndex = ownerIndexes.get(owner);
+                if (ownerIndex == null) {
+                    return new Board(0, new int[0]);
+                }
+                wantedOwner = ownerIndex;
+            }
+            int[] rows = new int[size];
+            int count = 0;
+            long newest = Long.MIN_VALUE;
+            long oldest = Long.MAX_VALUE;
+            int maxId = 0;
+            for (int row = 0; row < size; row++) {
+                if ((wantedMaterial < 0 || materials[row] == wantedMaterial)
+                        && (wantedOwner < 0 || ownerColumn[row] == wantedOwner)) {
+                    rows[count++] = row;
+                    newest = Math.max(newest, created[row]);
+                    oldest = Math.min(oldest, created[row]);
+                    maxId = Math.max(maxId, ids[row]);
+                }
+            }
+            return new Board(count, firstInBoardOrder(rows, count, Math.min(count, Math.max(0, limit)), newest, oldest, maxId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Packs (age, id) into one long so primitive selection and sorting give the board order. Only the first
+    // {@code limit} keys are sorted. Falls back to a comparator when timestamps and ids need more than 63 bits.
+    private int[] firstInBoardOrder(int[] rows, int count, int limit, long newest, long oldest, int maxId) {
+        int[] first = new int[limit];
+        if (limit == 0) {
+            return first;
+        }
+        int idBits = 32 - Integer.numberOfLeadingZeros(maxId);
+        long span = newest - oldest;
+        int ageBits = 64 - Long.numberOfLeadingZeros(span);
+        if (span >= 0 && idBits + ageBits <= 63) {
+            long[] keys = new long[count];
+            for (int i = 0; i < count; i++) {
+                int row = rows[i];
+                keys[i] = ((newest - created[row]) << idBits) | ids[row];
+            }
+            if (limit < count) {
+                selectSmallest(keys, count, limit);
+            }
+            Arrays.sort(keys, 0, limit);
+            long idMask = (1L << idBits) - 1;
+            for (int i = 0; i < limit; i++) {
+                first[i] = (int) (keys[i] & idMask);
+            }
+            return first;
+        }
+        Integer[] boxed = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            boxed[i] = rows[i];
+        }
+        Arrays.sort(boxed, (a, b) -> created[a] != created[b]
+                ? Long.compare(created[b], created[a])
+                : Integer.compare(ids[a], ids[b]));
+        for (int i = 0; i < limit; i++) {
+            first[i] = ids[boxed[i]];
+        }
+        return first;
+    }
+
+    // Moves the k smallest of keys[0, count) to the front, unordered (quickselect).
+    private static void selectSmallest(long[] keys, int count, int k) {
+        int low = 0;
+        int high = count - 1;
+        while (low < high) {
+            long pivot = keys[(low + high) >>> 1];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (keys[i] < pivot) {
+                    i++;
+                }
+                while (keys[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    long swap = keys[i];
+                    keys[i++] = keys[j];
+                    keys[j--] = swap;
+                }
+            }
+            if (k - 1 <= j) {
+                high = j;
+            } else if (k - 1 >= i) {
+                low = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Order count and open units per status, plus the escrow still committed to open units.
+     */
+    public Totals totals() {
+        lock.readLock().lock();
+        try {
+            long[] counts = new long[STATUSES.length];
+            long openUnits = 0L;
+            long openValue = 0L;
+            byte active = (byte) OrderStatus.ACTIVE.ordinal();
+            for (int row = 0; row < size; row++) {
+                counts[statuses[row]]++;
+                if (statuses[row] == active) {
+                    openUnits += remaining[row];
+                    openValue += remaining[row] * prices[row];
+                }
+            }
+            Map<OrderStatus, Long> byStatus = new EnumMap<>(OrderStatus.class);
+            for (OrderStatus status : STATUSES) {
+                byStatus.put(status, counts[status.ordinal()]);
+            }
+            return new Totals(size, byStatus, openUnits, openValue, liveOwners);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * {@code total} matching orders, of which {@code ids} holds the first ones in board order.
+     */
+    public record Board(int total, int[] ids) {
+    }
+
+    /**
+     * {@code owners} counts owners with at least one order.
+     */
+    public record Totals(int orders, Map<OrderStatus, Long> byStatus, long openUnits, long openValue, int owners) {
+    }
+}
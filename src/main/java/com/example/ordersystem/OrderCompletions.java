@@ -0,0 +1,184 @@
+package com.example.ordersystem;
+
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prebuilt prefix tries behind tab completion: subcommands, material names and, per owner, the ids of orders
+ * with stored items to collect.
+ * <p>
+ * Material keys are lowercase names without underscores, so {@code oakl} and {@code oak_l} both complete to
+ * {@code oak_log}. The id tries follow order changes from the event bus and are rebuilt once after loading.
+ * Everything here runs on the main thread.
+ */
+public class OrderCompletions {
+    private final OrderManager orderManager;
+    private final GUIManager guiManager;
+    private final int maxResults;
+    private final PrefixTrie subcommands = new PrefixTrie();
+    private final Map<UUID, PrefixTrie> collectibleByOwner = new HashMap<>();
+    // Owner of each id in the tries, so an order that leaves an owner's trie is found without a scan.
+    private final Map<Integer, UUID> collectibleOwners = new HashMap<>();
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong lookupNanos = new AtomicLong();
+    private volatile PrefixTrie materials;
+
+    public OrderCompletions(OrderManager orderManager, GUIManager guiManager, List<String> subcommandNames, int maxResults) {
+        this.orderManager = orderManager;
+        this.guiManager = guiManager;
+        this.maxResults = Math.max(1, maxResults);
+        for (String name : subcommandNames) {
+            subcommands.add(name, name);
+        }
+        orderManager.getEventBus().subscribe(this::onOrderChange, false);
+    }
+
+    /**
+     * Builds the material trie. Safe to call from a worker while the server starts; later calls do nothing.
+     */
+    public void warmUp() {
+        materialTrie();
+    }
+
+    private PrefixTrie materialTrie() {
+        PrefixTrie trie = materials;
+        if (trie == null) {
+            trie = new PrefixTrie();
+            for (Material material : guiManager.getSelectableMaterials()) {
+                String name = material.name().toLowerCase(Locale.ROOT);
+                trie.add(normalize(name), name);
+            }
+            materials = trie;
+        }
+        return trie;
+    }
+
+    /**
+     * Fills the id tries from the current snapshot, e.g. once loaded orders are installed.
+     */
+    public void rebuildCollectible() {
+        collectibleByOwner.clear();
+        collectibleOwners.clear();
+        orderManager.snapshot().forEach(this::track);
+    }
+
+    private void onOrderChange(OrderEventBus.OrderChange change) {
+        OrderManager.OrderSnapshot current = orderManager.snapshot().get(change.orderId());
+        if (current == null) {
+            untrack(change.orderId());
+        } else {
+            track(current);
+        }
+    }
+
+    private void track(OrderManager.OrderSnapshot view) {
+        if (view.storedQuantity() <= 0) {
+            untrack(view.id());
+            return;
+        }
+        if (collectibleOwners.putIfAbsent(view.id(), view.ownerUuid()) == null) {
+            String id = Integer.toString(view.id());
+            collectibleByOwner.computeIfAbsent(view.ownerUuid(), owner -> new PrefixTrie()).add(id, id);
+        }
+    }
+
+    private void untrack(int id) {
+        UUID owner = collectibleOwners.remove(id);
+        if (owner == null) {
+            return;
+        }
+        PrefixTrie trie = collectibleByOwner.get(owner);
+        if (trie != null && trie.remove(Integer.toString(id)) && trie.isEmpty()) {
+            collectibleByOwner.remove(owner);
+        }
+    }
+
+    public List<String> completeSubcommand(String prefix) {
+        return timed(out -> subcommands.complete(prefix.toLowerCase(Locale.ROOT), maxResults, out));
+    }
+
+    public List<String> completeMaterial(String prefix) {
+        return timed(out -> materialTrie().complete(normalize(prefix), maxResults, out));
+    }
+
+    /**
+     * Ids of orders {@code player} can collect from that have items stored: their own orders, then those of owners
+     * who trust them, each lowest first. Staff who may collect from any order get their own orders only.
+     */
+    public List<String> completeCollectible(Player player, String prefix) {
+        return timed(out -> {
+            complete(player.getUniqueId(), prefix, maxResults, out);
+            int remaining = maxResults - out.size();
+            List<String> trusting = new ArrayList<>();
+            for (UUID owner : orderManager.getTrustTable().getOwnersTrusting(player.getUniqueId())) {
+                complete(owner, prefix, remaining, trusting);
+            }
+            // Each owner's ids arrive in order; merge them by numeric value and keep the lowest.
+            trusting.sort((a, b) -> a.length() != b.length() ? Integer.compare(a.length(), b.length()) : a.compareTo(b));
+            for (int i = 0; i < trusting.size() && out.size() < maxResults; i++) {
+                out.add(trusting.get(i));
+            }
+        });
+    }
+
+    private void complete(UUID owner, String prefix, int limit, List<String> out) {
+        PrefixTrie trie = collectibleByOwner.get(owner);
+        if (trie != null) {
+            trie.complete(prefix, limit, out);
+        }
+    }
+
+    private List<String> timed(Completion completion) {
+        long start = System.nanoTime();
+        List<String> out = new ArrayList<>(maxResults);
+        completion.fill(out);
+        lookupNanos.addAndGet(System.nanoTime() - start);
+        lookups.incrementAndGet();
+        return out;
+    }
+
+    private static String normalize(String value) {
+        StringBuilder builder = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '_' && c != ' ') {
+                builder.append(Character.toLowerCase(c));
+            }
+        }
+        return builder.toString();
+    }
+
+    public int getMaterialCount() {
+        PrefixTrie trie = materials;
+        return trie == null ? 0 : trie.size();
+    }
+
+    public int getCollectibleCount() {
+        return collectibleOwners.size();
+    }
+
+    public int getCollectibleOwnerCount() {
+        return collectibleByOwner.size();
+    }
+
+    public long getLookups() {
+        return lookups.get();
+    }
+
+    public long getAverageLookupNanos() {
+        long count = lookups.get();
+        return count == 0 ? 0L : lookupNanos.get() / count;
+    }
+
+    private interface Completion {
+        void fill(List<String> out);
+    }
+}
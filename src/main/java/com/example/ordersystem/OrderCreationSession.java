@@ -15,8 +15,7 @@ public class OrderCreationSession {
     private Step step = Step.MATERIAL;
     private Material material;
     private long quantity;
-    private double pricePerItem;
-    private double totalPrice;
+    private long totalPrice;
 
     public Step getStep() {
         return step;
@@ -42,19 +41,15 @@ public class OrderCreationSession {
         this.quantity = quantity;
     }
 
-    public double getPricePerItem() {
-        return pricePerItem;
+    public long getPricePerItem() {
+        return quantity <= 0 ? 0L : totalPrice / quantity;
     }
 
-    public void setPricePerItem(double pricePerItem) {
-        this.pricePerItem = pricePerItem;
-    }
-
-    public double getTotalPrice() {
+    public long getTotalPrice() {
         return totalPrice;
     }
 
-    public void setTotalPrice(double totalPrice) {
+    public void setTotalPrice(long totalPrice) {
         this.totalPrice = totalPrice;
     }
 }
@@ -0,0 +1,192 @@
+package com.example.ordersystem;
+
+import org.bukkit.Bukkit;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Buffers order changes and publishes them once per {@link #flush()}, normally once per tick.
+ * <p>
+ * Changes are coalesced per order: however many deliveries hit an order between two flushes, listeners see one
+ * {@link OrderChange} carrying the union of change types and the latest view. Synchronous listeners run on the
+ * flushing thread; asynchronous listeners run in order on a single background thread. When a server is present
+ * each change is also fired as an {@link OrderChangeEvent}.
+ */
+public class OrderEventBus {
+    public enum Change {
+        CREATED,
+        DELIVERED,
+        COMPLETED,
+        COLLECTED,
+        EXPIRED,
+        CANCELLED,
+        REPRICED,
+        /** The order was updated or removed with state received from another server. */
+        REPLICATED
+    }
+
+    /**
+     * Everything that happened to one order since the previous flush.
+     *
+     * @param view the order after the last change; for expired orders, the last view before removal
+     * @param coalesced how many changes were folded into this notification
+     * @param delivered units delivered since the previous notification
+     * @param paid money paid out for those units, in minor units
+     * @param collected units collected since the previous notification
+     */
+    public record OrderChange(int orderId, Set<Change> changes, OrderManager.OrderSnapshot view, int coalesced,
+                              long delivered, long paid, long collected) {
+        public boolean has(Change change) {
+            return changes.contains(change);
+        }
+    }
+
+    /**
+     * Handle returned by {@link #subscribe(Consumer, boolean)}.
+     */
+    public interface Subscription {
+        void cancel();
+    }
+
+    private final Logger logger;
+    private final Map<Integer, Pending> pending = new ConcurrentHashMap<>();
+    private final List<Registration> listeners = new CopyOnWriteArrayList<>();
+    private final ExecutorService asyncExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "OrderSystem-Events");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicLong posted = new AtomicLong();
+    private final AtomicLong notified = new AtomicLong();
+
+    public OrderEventBus(Logger logger) {
+        this.logger = logger;
+    }
+
+    public Subscription subscribe(Consumer<OrderChange> listener, boolean async) {
+        Registration registration = new Registration(listener, async);
+        listeners.add(registration);
+        return () -> listeners.remove(registration);
+    }
+
+    /**
+     * Records a change from any thread. Callers post while holding the order's lock, so the last view posted for
+     * an order is its newest.
+     */
+    public void post(OrderManager.OrderSnapshot view, Change change) {
+        post(view, change, 0L, 0L);
+    }
+
+    /**
+     * Records {@code units} delivered and paid with {@code payout}, or collected for {@link Change#COLLECTED},
+     * summed into the order's next notification.
+     */
+    public void post(OrderManager.OrderSnapshot view, Change change, long units, long payout) {
+        posted.incrementAndGet();
+        pending.compute(view.id(), (id, existing) -> {
+            Pending entry = existing == null ? new Pending() : existing;
+            entry.changes.add(change);
+            entry.view = view;
+            entry.count++;
+            if (change == Change.COLLECTED) {
+                entry.collected += units;
+            } else {
+                entry.delivered += units;
+            }
+            entry.paid += payout;
+            return entry;
+        });
+    }
+
+    /**
+     * Publishes everything posted since the previous flush.
+     */
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<OrderChange> batch = new ArrayList<>(pending.size());
+        for (Integer id : pending.keySet()) {
+            Pending entry = pending.remove(id);
+            if (entry != null) {
+                batch.add(new OrderChange(id, Collections.unmodifiableSet(entry.changes), entry.view, entry.count,
+                        entry.delivered, entry.paid, entry.collected));
+            }
+        }
+        notified.addAndGet(batch.size());
+        for (Registration registration : listeners) {
+            if (registration.async) {
+                asyncExecutor.execute(() -> dispatch(registration, batch));
+            } else {
+                dispatch(registration, batch);
+            }
+        }
+        if (Bukkit.getServer() != null) {
+            for (OrderChange change : batch) {
+                Bukkit.getPluginManager().callEvent(new OrderChangeEvent(change));
+            }
+        }
+    }
+
+    /**
+     * Flushes what is left and stops the asynchronous listener thread.
+     */
+    public void shutdown() {
+        flush();
+        asyncExecutor.shutdown();
+        try {
+            asyncExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public long getPosted() {
+        return posted.get();
+    }
+
+    public long getNotified() {
+        return notified.get();
+    }
+
+    public int getListenerCount() {
+        return listeners.size();
+    }
+
+    private void dispatch(Registration registration, List<OrderChange> batch) {
+        for (OrderChange change : batch) {
+            try {
+                registration.listener.accept(change);
+            } catch (RuntimeException ex) {
+                logger.log(Level.WARNING, "Order change listener failed for order #" + change.orderId(), ex);
+            }
+        }
+    }
+
+    private record Registration(Consumer<OrderChange> listener, boolean async) {
+    }
+
+    // Only mutated inside ConcurrentHashMap.compute, which also orders it before the removing flush.
+    private static final class Pending {
+        private final Set<Change> changes = EnumSet.noneOf(Change.class);
+        private OrderManager.OrderSnapshot view;
+        private int count;
+        private long delivered;
+        private long paid;
+        private long collected;
+    }
+}
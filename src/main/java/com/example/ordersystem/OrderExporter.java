@@ -0,0 +1,301 @@
+package com.example.ordersystem;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams the order book to CSV or JSON Lines on a background thread.
+ * <p>
+ * An export reads one {@link OrderReadModel.Epoch}, so it sees every order as of a single instant while the
+ * server keeps mutating orders. Rows are formatted one at a time into a buffered writer, so memory use does not
+ * grow with the number of orders. The file is written under a temporary name and renamed when complete.
+ */
+public class OrderExporter {
+    private static final String[] COLUMNS = {
+            "id", "owner_uuid", "owner_name", "material", "status", "total_quantity", "remaining_quantity",
+            "delivered_quantity", "total_escrow", "total_paid", "price_per_item", "created", "expires",
+            "stored_quantity", "stored_stacks"
+    };
+
+    public enum Format {
+        CSV("csv"),
+        JSONL("jsonl");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private final Logger logger;
+    private final File directory;
+    private final AtomicReference<Export> running = new AtomicReference<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "OrderSystem-Export");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public OrderExporter(Logger logger, File directory) {
+        this.logger = logger;
+        this.directory = directory;
+    }
+
+    /**
+     * Starts exporting {@code snapshot} to a new file in the export directory.
+     *
+     * @return the running export, or {@code null} if another export is still running
+     */
+    public Export export(OrderReadModel.Epoch snapshot, Format format, boolean gzip, String baseName) {
+        File file = new File(directory, baseName + "." + format.getExtension() + (gzip ? ".gz" : ""));
+        Export export = new Export(file, snapshot.size());
+        if (!running.compareAndSet(null, export)) {
+            return null;
+        }
+        executor.execute(() -> {
+            try {
+                write(snapshot, format, gzip, export);
+            } catch (IOException ex) {
+                export.error = ex.getMessage();
+                logger.severe("Failed to export orders to " + file.getName() + ": " + ex.getMessage());
+            } finally {
+                export.finishedAt = System.currentTimeMillis();
+                running.set(null);
+            }
+        });
+        return export;
+    }
+
+    /**
+     * The export in progress, or {@code null}.
+     */
+    public Export getRunning() {
+        return running.get();
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(OrderReadModel.Epoch snapshot, Format format, boolean gzip, Export export) throws IOException {
+        if (!directory.exists()) {
+            directory.mkdirs();
+        }
+        File tempFile = new File(directory, export.file.getName() + ".tmp");
+        try (OutputStream raw = Files.newOutputStream(tempFile.toPath());
+             CountingOutputStream counted = new CountingOutputStream(raw, export.bytes);
+             OutputStream out = gzip ? new GZIPOutputStream(counted, 1 << 16) : counted;
+             Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16)) {
+            if (format == Format.CSV) {
+                writer.write(String.join(",", COLUMNS));
+                writer.write('\n');
+            }
+            StringBuilder row = new StringBuilder(256);
+            IOException[] failure = new IOException[1];
+            snapshot.forEach(view -> {
+                if (failure[0] != null) {
+                    return;
+                }
+                row.setLength(0);
+                if (format == Format.CSV) {
+                    appendCsv(row, view);
+                } else {
+                    appendJson(row, view);
+                }
+                try {
+                    writer.append(row);
+                } catch (IOException ex) {
+                    failure[0] = ex;
+                }
+                export.written.incrementAndGet();
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+        } catch (IOException ex) {
+            Files.deleteIfExists(tempFile.toPath());
+            throw ex;
+        }
+        try {
+            Files.move(tempFile.toPath(), export.file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            Files.move(tempFile.toPath(), export.file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static Object[] values(OrderManager.OrderSnapshot view) {
+        return new Object[]{
+                view.id(), view.ownerUuid(), view.ownerName(), view.material().name(), view.status().name(),
+                view.totalQuantity(), view.remainingQuantity(), view.totalQuantity() - view.remainingQuantity(),
+                major(view.totalEscrow()), major(view.totalPaid()), major(view.pricePerItem()),
+                view.createdTimestamp(), view.expirationTimestamp(), view.storedQuantity(), view.storedStackCount()
+        };
+    }
+
+    private static void appendCsv(StringBuilder row, OrderManager.OrderSnapshot view) {
+        Object[] values = values(view);
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                row.append(',');
+            }
+            String value = String.valueOf(values[i]);
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0) {
+                row.append('"').append(value.replace("\"", "\"\"")).append('"');
+            } else {
+                row.append(value);
+            }
+        }
+        row.append('\n');
+    }
+
+    private static void appendJson(StringBuilder row, OrderManager.OrderSnapshot view) {
+        Object[] values = values(view);
+        row.append('{');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                row.append(',');
+            }
+            row.append('"').append(COLUMNS[i]).append("\":");
+            Object value = values[i];
+            if (value instanceof Number) {
+                row.append(value);
+            } else {
+                appendJsonString(row, String.valueOf(value));
+            }
+        }
+        row.append("}\n");
+    }
+
+    private static void appendJsonString(StringBuilder row, String value) {
+        row.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> row.append("\\\"");
+                case '\\' -> row.append("\\\\");
+                case '\n' -> row.append("\\n");
+                case '\r' -> row.append("\\r");
+                case '\t' -> row.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        row.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+                    } else {
+                        row.append(c);
+                    }
+                }
+            }
+        }
+        row.append('"');
+    }
+
+    private static BigDecimal major(long minor) {
+        return BigDecimal.valueOf(minor, Money.SCALE);
+    }
+
+    /**
+     * Progress of one export. Fields are updated by the export thread and safe to poll from any thread.
+     */
+    public static final class Export {
+        private final File file;
+        private final int total;
+        private final AtomicLong written = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+        private final long startedAt = System.currentTimeMillis();
+        private volatile long finishedAt;
+        private volatile String error;
+
+        private Export(File file, int total) {
+            this.file = file;
+            this.total = total;
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public long getWritten() {
+            return written.get();
+        }
+
+        /**
+         * Bytes written to disk so far, after compression.
+         */
+        public long getBytes() {
+            return bytes.get();
+        }
+
+        public boolean isDone() {
+            return finishedAt != 0L;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public long getElapsedMillis() {
+            return (finishedAt == 0L ? System.currentTimeMillis() : finishedAt) - startedAt;
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private final OutputStream out;
+        private final AtomicLong count;
+
+        private CountingOutputStream(OutputStream out, AtomicLong count) {
+            this.out = out;
+            this.count = count;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count.incrementAndGet();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count.addAndGet(len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
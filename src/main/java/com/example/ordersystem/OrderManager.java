@@ -6,67 +6,165 @@ import org.bukkit.Material;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.Plugin;
 
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongPredicate;
 
 /**
  * Manages order lifecycle and concurrency-safe delivery handling.
  */
 public class OrderManager {
-    private final OrderSystemPlugin plugin;
+    private final Plugin plugin;
+    private final MarketStats marketStats;
+    private final AuditLog auditLog;
     private final Map<Integer, Order> orders = new ConcurrentHashMap<>();
     private final Map<Integer, ReentrantLock> locks = new ConcurrentHashMap<>();
     private final AtomicInteger nextId = new AtomicInteger(1);
+    private final OrderReadModel readModel = new OrderReadModel();
+    private final TrustTable trustTable = new TrustTable();
+    // Guarded by the owning order's lock.
+    private final Map<Integer, List<Reservation>> reservations = new ConcurrentHashMap<>();
+    private final AtomicLong nextReservationId = new AtomicLong(1L);
+    private final AtomicLong lockAcquisitions = new AtomicLong();
+    private final AtomicLong lockContentions = new AtomicLong();
+    private final AtomicLong lockWaitNanos = new AtomicLong();
+    private final AtomicLong maxLockWaitNanos = new AtomicLong();
+    // Units delivered to copies and sent to their home, until the home's next state accounts for them.
+    private final Map<Integer, Long> forwardedUnits = new ConcurrentHashMap<>();
+    private final OrderEventBus eventBus;
+    private volatile WorkloadRecorder recorder;
+    private volatile HomeLink homeLink;
+    private volatile boolean loaded = true;
+    private volatile int idOffset;
+    private volatile int idStride = 1;
+    private volatile int homeNode = Order.NO_HOME;
 
-    public OrderManager(OrderSystemPlugin plugin) {
+    public OrderManager(Plugin plugin, MarketStats marketStats, AuditLog auditLog) {
         this.plugin = plugin;
+        this.marketStats = marketStats;
+        this.auditLog = auditLog;
+        this.eventBus = new OrderEventBus(plugin.getLogger());
     }
 
+    /**
+     * The live, mutable orders. Other plugins should use {@link OrderSystemApi} instead.
+     */
     public Map<Integer, Order> getOrders() {
         return orders;
     }
 
-    public Map<Integer, OrderSnapshot> snapshotOrders() {
-        Map<Integer, OrderSnapshot> snapshot = new ConcurrentHashMap<>();
-        for (Order order : orders.values()) {
-            ReentrantLock lock = locks.computeIfAbsent(order.getId(), id -> new ReentrantLock());
-            lock.lock();
-            try {
-                snapshot.put(order.getId(), new OrderSnapshot(order.getId(),
-                        order.getOwnerUuid(),
-                        order.getOwnerName(),
-                        order.getMaterial(),
-                        order.getTotalQuantity(),
-                        order.getRemainingQuantity(),
-                        order.getPricePerItem(),
-                        order.getTotalEscrow(),
-                        order.getTotalPaid(),
-                        order.getCreatedTimestamp(),
-                        order.getExpirationTimestamp(),
-                        order.getStatus(),
-                        new ArrayList<>(order.getStoredItems()),
-                        new ArrayList<>(order.getTrustedPlayers())));
-            } finally {
-                lock.unlock();
+    public TrustTable getTrustTable() {
+        return trustTable;
+    }
+
+    public OrderEventBus getEventBus() {
+        return eventBus;
+    }
+
+    public WorkloadRecorder getRecorder() {
+        return recorder;
+    }
+
+    /**
+     * Starts or, with {@code null}, stops capturing operations for replay.
+     */
+    public void setRecorder(WorkloadRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * Routes changes to orders homed on another server to that server. Without a link every order is local.
+     */
+    public void setHomeLink(HomeLink homeLink) {
+        this.homeLink = homeLink;
+    }
+
+    /**
+     * Whether {@code order} is a copy of an order homed on another server. Copies are never settled here: their
+     * deliveries and staff changes go to the home, which moves the money, and their goods are collected there.
+     */
+    public boolean isCopy(Order order) {
+        int home = order.getHomeNode();
+        return homeLink != null && home != homeNode && home != Order.NO_HOME;
+    }
+
+    /**
+     * Returns the current immutable view of all orders. Safe from any thread without locking.
+     */
+    public OrderReadModel.Epoch snapshot() {
+        return readModel.current();
+    }
+
+    /**
+     * Whether saved orders are in place. Until then saves are skipped and commands are refused.
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Marks orders as loading in the background until {@link #installLoaded(LoadedOrders)}.
+     */
+    public void beginLoading() {
+        loaded = false;
+    }
+
+    /**
+     * Builds views, locks and indexes for loaded orders on the calling thread and publishes the views as one
+     * epoch. The live order map is only filled by {@link #installLoaded(LoadedOrders)} on the main thread.
+     */
+    public LoadedOrders prepareLoaded(List<Order> loadedOrders) {
+        Map<Integer, Order> byId = new HashMap<>(loadedOrders.size() * 2);
+        Map<Integer, ReentrantLock> loadedLocks = new HashMap<>(loadedOrders.size() * 2);
+        Map<Material, Long> openDemand = new EnumMap<>(Material.class);
+        int maxId = 0;
+        for (Order order : loadedOrders) {
+            byId.put(order.getId(), order);
+            loadedLocks.put(order.getId(), new ReentrantLock());
+            maxId = Math.max(maxId, order.getId());
+            if (order.getStatus() == OrderStatus.ACTIVE) {
+                openDemand.merge(order.getMaterial(), order.getRemainingQuantity(), Long::sum);
             }
         }
-        return snapshot;
+        readModel.publishAll(loadedOrders.parallelStream().map(OrderManager::viewOf).toList());
+        return new LoadedOrders(byId, loadedLocks, maxId, openDemand);
+    }
+
+    public void installLoaded(LoadedOrders loadedOrders) {
+        locks.putAll(loadedOrders.locks());
+        orders.putAll(loadedOrders.orders());
+        nextId.updateAndGet(current -> alignId(Math.max(current, loadedOrders.maxId() + 1)));
+        loadedOrders.openDemand().forEach(marketStats::adjustOpenDemand);
+        loaded = true;
+    }
+
+    public record LoadedOrders(Map<Integer, Order> orders, Map<Integer, ReentrantLock> locks, int maxId,
+                               Map<Material, Long> openDemand) {
     }
 
     public void addLoadedOrder(Order order) {
         orders.put(order.getId(), order);
         locks.put(order.getId(), new ReentrantLock());
-        nextId.updateAndGet(current -> Math.max(current, order.getId() + 1));
+        nextId.updateAndGet(current -> alignId(Math.max(current, order.getId() + 1)));
+        publish(order);
+        if (order.getStatus() == OrderStatus.ACTIVE) {
+            marketStats.adjustOpenDemand(order.getMaterial(), order.getRemainingQuantity());
+        }
     }
 
     public Material parseMaterial(String name) {
@@ -78,23 +176,74 @@ public class OrderManager {
     }
 
     public int getActiveOrderCount(UUID ownerUuid) {
-        int count = 0;
+        return readModel.columns().countActive(ownerUuid);
+    }
+
+    /**
+     * Scalar fields of every order as primitive columns, for scans and aggregations.
+     */
+    public OrderColumns columns() {
+        return readModel.columns();
+    }
+
+    /**
+     * Allocates new ids as {@code offset + k * stride}, so servers sharing orders never pick the same id.
+     */
+    public void setIdStride(int offset, int stride) {
+        idStride = Math.max(1, stride);
+        idOffset = Math.floorMod(offset, idStride);
+        nextId.updateAndGet(this::alignId);
+    }
+
+    /**
+     * Makes {@code node} the home of orders created from now on and of every order without one, i.e. orders
+     * created before replication was enabled. Call again once saved orders are loaded.
+     *
+     * @return how many existing orders were claimed
+     */
+    public int claimHome(int node) {
+        homeNode = node;
+        int claimed = 0;
         for (Order order : orders.values()) {
-            if (order.getOwnerUuid().equals(ownerUuid) && order.getStatus() == OrderStatus.ACTIVE) {
-                count++;
+            if (order.getHomeNode() != Order.NO_HOME) {
+                continue;
+            }
+            ReentrantLock lock = lockOrder(order.getId());
+            try {
+                if (order.getHomeNode() == Order.NO_HOME && orders.containsKey(order.getId())) {
+                    order.setHomeNode(node);
+                    publish(order);
+                    claimed++;
+                }
+            } finally {
+                lock.unlock();
             }
         }
-        return count;
+        return claimed;
     }
 
-    public Order createOrder(Player player, Material material, long quantity, double pricePerItem) {
-        int id = nextId.getAndIncrement();
-        double totalEscrow = quantity * pricePerItem;
+    private int alignId(int candidate) {
+        int behind = Math.floorMod(candidate - idOffset, idStride);
+        return behind == 0 ? candidate : candidate + idStride - behind;
+    }
+
+    public Order createOrder(Player player, Material material, long quantity, long totalEscrow) {
+        int id = nextId.getAndAdd(idStride);
         long created = Instant.now().toEpochMilli();
         Order order = new Order(id, player.getUniqueId(), player.getName(), material, quantity, quantity,
-                pricePerItem, totalEscrow, 0D, created, 0L, OrderStatus.ACTIVE, new ArrayList<>(), new ArrayList<>());
-        orders.put(order.getId(), order);
+                totalEscrow, 0L, created, 0L, OrderStatus.ACTIVE, 0L, homeNode);
+        // Publish before the order is reachable: afterwards only holders of its lock may, or a delivery's newer
+        // view could be overwritten by this one.
+        OrderSnapshot view = publish(order);
         locks.put(order.getId(), new ReentrantLock());
+        orders.put(order.getId(), order);
+        eventBus.post(view, OrderEventBus.Change.CREATED);
+        marketStats.recordDemand(material, quantity, created);
+        auditLog.record(AuditLog.Action.CREATE, id, player.getUniqueId(), player.getName(), material, quantity, totalEscrow, null);
+        WorkloadRecorder recorder = this.recorder;
+        if (recorder != null) {
+            recorder.record(WorkloadRecorder.Kind.CREATE, player.getUniqueId(), player.getName(), id, material, quantity, totalEscrow);
+        }
         return order;
     }
 
@@ -102,124 +251,803 @@ public class OrderManager {
         return Optional.ofNullable(orders.get(id));
     }
 
-    public List<Order> getOrdersSorted() {
-        List<Order> list = new ArrayList<>(orders.values());
-        list.sort(Comparator.comparingLong(Order::getCreatedTimestamp).reversed());
-        return list;
+    public List<OrderSnapshot> getOrdersSorted() {
+        return queryBoard(null, null);
     }
 
-    public List<Order> getOrdersSortedFiltered(Material material) {
-        List<Order> list = new ArrayList<>();
-        for (Order order : orders.values()) {
-            if (order.getMaterial() == material) {
-                list.add(order);
+    /**
+     * Orders for the board, newest first, optionally narrowed to one material and one owner. Filtering and
+     * sorting run over the columns; only the matches are resolved to views.
+     */
+    public List<OrderSnapshot> queryBoard(Material filter, UUID ownerFilter) {
+        return resolve(readModel.columns().board(filter, ownerFilter, Integer.MAX_VALUE).ids());
+    }
+
+    /**
+     * One page of {@link #queryBoard(Material, UUID)}, clamped to the pages that exist. Only the orders up to
+     * that page are sorted.
+     */
+    public BoardPage queryBoardPage(Material filter, UUID ownerFilter, int page, int pageSize) {
+        int wanted = Math.max(page, 1);
+        OrderColumns.Board board = readModel.columns().board(filter, ownerFilter, (int) Math.min(Integer.MAX_VALUE, (long) wanted * pageSize));
+        int pages = Math.max(1, (board.total() + pageSize - 1) / pageSize);
+        int current = Math.min(wanted, pages);
+        int from = Math.min((current - 1) * pageSize, board.ids().length);
+        int to = Math.min(from + pageSize, board.ids().length);
+        return new BoardPage(current, pages, board.total(), resolve(Arrays.copyOfRange(board.ids(), from, to)));
+    }
+
+    public record BoardPage(int page, int pages, int total, List<OrderSnapshot> orders) {
+    }
+
+    private List<OrderSnapshot> resolve(int[] ids) {
+        OrderReadModel.Epoch epoch = snapshot();
+        List<OrderSnapshot> list = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            OrderSnapshot view = epoch.get(id);
+            if (view != null) {
+                list.add(view);
             }
         }
-        list.sort(Comparator.comparingLong(Order::getCreatedTimestamp).reversed());
         return list;
     }
 
-    public DeliveryResult deliverItems(Player player, Order order, long deliverAmount, Economy economy) {
-        ReentrantLock lock = locks.computeIfAbsent(order.getId(), id -> new ReentrantLock());
-        lock.lock();
+    public void recordBoardQuery(Player player, Material filter, UUID ownerFilter, int page) {
+        WorkloadRecorder recorder = this.recorder;
+        if (recorder != null) {
+            recorder.recordWithTarget(WorkloadRecorder.Kind.BOARD, player.getUniqueId(), player.getName(),
+                    ownerFilter, null, 0, filter, page);
+        }
+    }
+
+    public List<OrderSnapshot> getOrdersSortedFiltered(Material material) {
+        return queryBoard(material, null);
+    }
+
+    /**
+     * Orders of one material from the current snapshot, in id order. The list is a fresh copy.
+     */
+    public List<OrderSnapshot> getOrdersByMaterial(Material material) {
+        return readModel.byMaterial(snapshot(), material);
+    }
+
+    /**
+     * Orders of one owner from the current snapshot, in id order. The list is a fresh copy.
+     */
+    public List<OrderSnapshot> getOrdersByOwner(UUID ownerUuid) {
+        return readModel.byOwner(snapshot(), ownerUuid);
+    }
+
+    /**
+     * Active orders for a material, best price per item first and oldest first among equal prices.
+     */
+    public List<OrderSnapshot> getBestBids(Material material) {
+        return getBestBids(snapshot(), material);
+    }
+
+    /**
+     * {@link #getBestBids(Material)} as of an earlier snapshot.
+     */
+    public List<OrderSnapshot> getBestBids(OrderReadModel.Epoch epoch, Material material) {
+        List<OrderSnapshot> bids = readModel.byMaterial(epoch, material);
+        bids.removeIf(view -> view.status() != OrderStatus.ACTIVE);
+        bids.sort(Comparator.comparingLong(OrderSnapshot::pricePerItem).reversed()
+                .thenComparingLong(OrderSnapshot::createdTimestamp));
+        return bids;
+    }
+
+    /**
+     * Claims up to {@code amount} units of the order's unreserved remaining quantity for {@code supplier}.
+     * Several suppliers can hold reservations on one order at once; together they never exceed what remains.
+     *
+     * @return the reservation, or {@code null} if nothing is left to claim
+     */
+    public Reservation reserve(Order order, UUID supplier, long amount, long ttlMillis) {
+        ReentrantLock lock = lockOrder(order.getId());
+        try {
+            if (order.getStatus() != OrderStatus.ACTIVE) {
+                return null;
+            }
+            long claim = Math.min(amount, unreserved(order, null));
+            if (claim <= 0) {
+                return null;
+            }
+            Reservation reservation = new Reservation(nextReservationId.getAndIncrement(), order.getId(), supplier,
+                    claim, System.currentTimeMillis() + ttlMillis);
+            reservations.computeIfAbsent(order.getId(), id -> new ArrayList<>()).add(reservation);
+            return reservation;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Grows a live reservation to {@code amount} units where unreserved quantity allows and refreshes its timeout.
+     * An expired reservation is claimed again from scratch.
+     *
+     * @return the units now held by the reservation
+     */
+    public long extendReservation(Order order, Reservation reservation, long amount, long ttlMillis) {
+        ReentrantLock lock = lockOrder(order.getId());
         try {
             if (order.getStatus() != OrderStatus.ACTIVE) {
+                return 0L;
+            }
+            long now = System.currentTimeMillis();
+            List<Reservation> held = reservations.computeIfAbsent(order.getId(), id -> new ArrayList<>());
+            boolean lapsed = !held.contains(reservation) || reservation.isExpired(now);
+            // Refresh the timeout first, so unreserved() neither drops a lapsed reservation re-added here nor
+            // counts it as expired.
+            reservation.expiresAt = now + ttlMillis;
+            if (lapsed) {
+                held.remove(reservation);
+                reservation.amount = 0L;
+                held.add(reservation);
+            }
+            if (amount > reservation.amount) {
+                reservation.amount += Math.min(amount - reservation.amount, unreserved(order, reservation));
+            }
+            return reservation.amount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void releaseReservation(Reservation reservation) {
+        if (!locks.containsKey(reservation.orderId())) {
+            reservations.remove(reservation.orderId());
+            return;
+        }
+        ReentrantLock lock = lockOrder(reservation.orderId());
+        try {
+            removeReservation(reservation);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Delivers up to {@code deliverAmount} units against a reservation and releases it.
+     */
+    public DeliveryResult deliverReserved(Player player, Order order, Reservation reservation, long deliverAmount, Economy economy) {
+        ReentrantLock lock = lockOrder(order.getId());
+        try {
+            if (order.getStatus() != OrderStatus.ACTIVE) {
+                removeReservation(reservation);
                 return DeliveryResult.failed("Order is no longer active.");
             }
-            long remaining = order.getRemainingQuantity();
-            long actual = Math.min(remaining, deliverAmount);
+            // Releasing first frees the held units; a lapsed reservation is still honoured from whatever
+            // nobody else holds.
+            removeReservation(reservation);
+            long actual = Math.min(deliverAmount, unreserved(order, null));
             if (actual <= 0) {
                 return DeliveryResult.failed("No remaining quantity to deliver.");
             }
-            double payout = actual * order.getPricePerItem();
-            order.setRemainingQuantity(remaining - actual);
-            order.setTotalPaid(order.getTotalPaid() + payout);
-            addStoredItems(order, actual);
-            economy.depositPlayer(player, payout);
-            if (order.getRemainingQuantity() <= 0) {
-                completeOrder(order);
+            return payOut(player, settleDelivery(player.getUniqueId(), player.getName(), order, actual,
+                    WorkloadRecorder.CHANNEL_ITEMS), economy);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public DeliveryResult deliverItems(Player player, Order order, long deliverAmount, Economy economy) {
+        ReentrantLock lock = lockOrder(order.getId());
+        try {
+            if (order.getStatus() != OrderStatus.ACTIVE) {
+                return DeliveryResult.failed("Order is no longer active.");
+            }
+            long actual = Math.min(unreserved(order, null), deliverAmount);
+            if (actual <= 0) {
+                return DeliveryResult.failed("No remaining quantity to deliver.");
             }
-            return DeliveryResult.success(actual, payout);
+            return payOut(player, settleDelivery(player.getUniqueId(), player.getName(), order, actual,
+                    WorkloadRecorder.CHANNEL_ITEMS), economy);
         } finally {
             lock.unlock();
         }
     }
 
     public DeliveryResult deliverFromPlayer(Player player, Order order, Economy economy) {
-        ReentrantLock lock = locks.computeIfAbsent(order.getId(), id -> new ReentrantLock());
-        lock.lock();
+        ReentrantLock lock = lockOrder(order.getId());
         try {
             if (order.getStatus() != OrderStatus.ACTIVE) {
                 return DeliveryResult.failed("Order is no longer active.");
             }
             long deliverable = countItems(player, order.getMaterial());
-            long actual = Math.min(deliverable, order.getRemainingQuantity());
+            long actual = Math.min(deliverable, unreserved(order, null));
             if (actual <= 0) {
                 return DeliveryResult.failed("No remaining quantity to deliver.");
             }
             removeItems(player, order.getMaterial(), actual);
-            double payout = actual * order.getPricePerItem();
-            order.setRemainingQuantity(order.getRemainingQuantity() - actual);
-            order.setTotalPaid(order.getTotalPaid() + payout);
-            addStoredItems(order, actual);
-            economy.depositPlayer(player, payout);
-            if (order.getRemainingQuantity() <= 0) {
-                completeOrder(order);
-            }
-            return DeliveryResult.success(actual, payout);
+            return payOut(player, settleDelivery(player.getUniqueId(), player.getName(), order, actual,
+                    WorkloadRecorder.CHANNEL_INVENTORY), economy);
         } finally {
             lock.unlock();
         }
     }
 
+    /**
+     * Delivers up to {@code deliverAmount} units on behalf of an automated endpoint. No money moves here: the caller
+     * sums {@link DeliveryResult#getPayout()} over a batch and pays the supplier once.
+     */
+    public DeliveryResult deliverFromEndpoint(UUID supplierUuid, String supplierName, Order order, long deliverAmount) {
+        ReentrantLock lock = lockOrder(order.getId());
+        try {
+            if (order.getStatus() != OrderStatus.ACTIVE) {
+                return DeliveryResult.failed("Order is no longer active.");
+            }
+            long actual = Math.min(unreserved(order, null), deliverAmount);
+            if (actual <= 0) {
+                return DeliveryResult.failed("No remaining quantity to deliver.");
+            }
+            return settleDelivery(supplierUuid, supplierName, order, actual, WorkloadRecorder.CHANNEL_ENDPOINT);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Locks an order, timing the wait only when the lock is contended.
+     */
+    private ReentrantLock lockOrder(int orderId) {
+        ReentrantLock lock = locks.computeIfAbsent(orderId, id -> new ReentrantLock());
+        lockAcquisitions.incrementAndGet();
+        if (lock.tryLock()) {
+            return lock;
+        }
+        long start = System.nanoTime();
+        lock.lock();
+        long waited = System.nanoTime() - start;
+        lockContentions.incrementAndGet();
+        lockWaitNanos.addAndGet(waited);
+        maxLockWaitNanos.accumulateAndGet(waited, Math::max);
+        return lock;
+    }
+
+    public long getLockAcquisitions() {
+        return lockAcquisitions.get();
+    }
+
+    public long getLockContentions() {
+        return lockContentions.get();
+    }
+
+    public long getLockWaitNanos() {
+        return lockWaitNanos.get();
+    }
+
+    public long getMaxLockWaitNanos() {
+        return maxLockWaitNanos.get();
+    }
+
+    private DeliveryResult payOut(Player player, DeliveryResult result, Economy economy) {
+        economy.depositPlayer(player, Money.toMajor(result.getPayout()));
+        return result;
+    }
+
+    /**
+     * Records and stores {@code actual} units and returns the payout owed. Callers hold the order lock and have
+     * bounded {@code actual}.
+     */
+    private DeliveryResult settleDelivery(UUID supplierUuid, String supplierName, Order order, long actual, int channel) {
+        if (isCopy(order)) {
+            return forwardDelivery(supplierUuid, supplierName, order, actual, channel);
+        }
+        long payout = calculatePayout(order, actual);
+        order.setRemainingQuantity(order.getRemainingQuantity() - actual);
+        order.setTotalPaid(order.getTotalPaid() + payout);
+        addStoredItems(order, actual);
+        marketStats.recordTrade(order.getMaterial(), actual, payout, Instant.now().toEpochMilli());
+        auditLog.record(AuditLog.Action.DELIVER, order.getId(), supplierUuid, supplierName,
+                order.getMaterial(), actual, payout, order.getOwnerName());
+        WorkloadRecorder recorder = this.recorder;
+        if (recorder != null) {
+            recorder.record(WorkloadRecorder.Kind.DELIVER, supplierUuid, supplierName, order.getId(), null, actual, channel);
+        }
+        boolean completed = order.getRemainingQuantity() <= 0;
+        if (completed) {
+            completeOrder(order);
+        }
+        OrderSnapshot view = publish(order);
+        eventBus.post(view, OrderEventBus.Change.DELIVERED, actual, payout);
+        if (completed) {
+            eventBus.post(view, OrderEventBus.Change.COMPLETED);
+        }
+        return DeliveryResult.success(actual, payout);
+    }
+
+    /**
+     * Sends {@code actual} units delivered to a copy to the order's home, which pays the supplier for what it
+     * accepts. Until the home's next state arrives the units count as taken, so this server cannot hand them out
+     * again.
+     */
+    private DeliveryResult forwardDelivery(UUID supplierUuid, String supplierName, Order order, long actual, int channel) {
+        forwardedUnits.merge(order.getId(), actual, Long::sum);
+        homeLink.deliver(order.getId(), supplierUuid, supplierName, actual);
+        auditLog.record(AuditLog.Action.DELIVER, order.getId(), supplierUuid, supplierName, order.getMaterial(), actual,
+                0L, "sent to node-" + order.getHomeNode());
+        WorkloadRecorder recorder = this.recorder;
+        if (recorder != null) {
+            recorder.record(WorkloadRecorder.Kind.DELIVER, supplierUuid, supplierName, order.getId(), null, actual, channel);
+        }
+        return DeliveryResult.forwarded(actual);
+    }
+
+    /**
+     * Remaining quantity not held by live reservations other than {@code except}. Drops expired reservations.
+     * Callers hold the order lock.
+     */
+    private long unreserved(Order order, Reservation except) {
+        List<Reservation> held = reservations.get(order.getId());
+        long reserved = 0L;
+        if (held != null) {
+            long now = System.currentTimeMillis();
+            held.removeIf(reservation -> reservation.isExpired(now));
+            for (Reservation reservation : held) {
+                if (reservation != except) {
+                    reserved += reservation.amount;
+                }
+            }
+            if (held.isEmpty()) {
+                reservations.remove(order.getId());
+            }
+        }
+        return Math.max(0L, order.getRemainingQuantity() - reserved - forwardedUnits.getOrDefault(order.getId(), 0L));
+    }
+
+    private void removeReservation(Reservation reservation) {
+        List<Reservation> held = reservations.get(reservation.orderId());
+        if (held != null) {
+            held.remove(reservation);
+            if (held.isEmpty()) {
+                reservations.remove(reservation.orderId());
+            }
+        }
+    }
+
+    public int getReservedOrderCount() {
+        return reservations.size();
+    }
+
     public void completeOrder(Order order) {
         order.setStatus(OrderStatus.COMPLETED);
+        order.setExpirationTimestamp(retentionExpiry());
+        long threshold = Money.toMinor(plugin.getConfig().getDouble("completion-broadcast-threshold", 0D));
+        if (order.getTotalEscrow() >= threshold && threshold > 0L) {
+            String message = order.getOwnerName() + "'s order for " + order.getMaterial().name() + " has been completed!";
+            // Deliveries through the API complete orders on worker threads.
+            if (Bukkit.isPrimaryThread()) {
+                Bukkit.broadcastMessage(message);
+            } else {
+                Bukkit.getScheduler().runTask(plugin, () -> Bukkit.broadcastMessage(message));
+            }
+        }
+    }
+
+    /**
+     * Returns a job that removes expired orders a slice at a time within the tick budget, then runs
+     * {@code onComplete}.
+     */
+    public TickScheduler.Job newExpirySweep(Runnable onComplete) {
+        // Candidates come from the columns in one pass; each is checked against the live order before removal.
+        int[][] candidates = new int[1][];
+        int[] next = new int[1];
+        return deadline -> {
+            if (candidates[0] == null) {
+                candidates[0] = readModel.columns().expiredIds(Instant.now().toEpochMilli());
+            }
+            int[] ids = candidates[0];
+            while (next[0] < ids.length) {
+                Order order = orders.get(ids[next[0]++]);
+                if (order != null && order.isExpired()) {
+                    expireOrder(order.getId());
+                }
+                if ((next[0] & 63) == 0 && System.nanoTime() >= deadline) {
+                    return false;
+                }
+            }
+            onComplete.run();
+            return true;
+        };
+    }
+
+    private long retentionExpiry() {
         long retentionDays = plugin.getConfig().getLong("completion-retention-days", 7L);
-        long expiration = Instant.now().plus(Duration.ofDays(retentionDays)).toEpochMilli();
-        order.setExpirationTimestamp(expiration);
-        double threshold = plugin.getConfig().getDouble("completion-broadcast-threshold", 0D);
-        if (order.getTotalEscrow() >= threshold && threshold > 0D) {
-            Bukkit.broadcastMessage(order.getOwnerName() + "'s order for " + order.getMaterial().name() + " has been completed!");
+        return Instant.now().plus(Duration.ofDays(retentionDays)).toEpochMilli();
+    }
+
+    /**
+     * Staff cancellation: the order stops taking deliveries and its stored goods stay collectable until it expires
+     * like a completed order. Callers refund the returned escrow if {@code refund} is set. A copy is left unchanged
+     * and the cancellation is sent to its home, which pays any refund.
+     *
+     * @return the unspent escrow to refund here, or -1 if the order is gone or no longer active
+     */
+    public long cancelOrder(int id, boolean refund, UUID staffUuid, String staffName) {
+        Order order = orders.get(id);
+        if (order == null) {
+            return -1L;
+        }
+        ReentrantLock lock = lockOrder(id);
+        try {
+            if (order.getStatus() != OrderStatus.ACTIVE || !orders.containsKey(id)) {
+                return -1L;
+            }
+            if (isCopy(order)) {
+                homeLink.cancel(id, refund, staffUuid, staffName);
+                return 0L;
+            }
+            long unspent = order.getTotalEscrow() - order.getTotalPaid();
+            order.setStatus(OrderStatus.CANCELLED);
+            order.setExpirationTimestamp(retentionExpiry());
+            reservations.remove(id);
+            marketStats.adjustOpenDemand(order.getMaterial(), -order.getRemainingQuantity());
+            auditLog.record(refund ? AuditLog.Action.REFUND : AuditLog.Action.CANCEL, id, staffUuid, staffName,
+                    order.getMaterial(), order.getRemainingQuantity(), refund ? unspent : 0L, order.getOwnerName());
+            eventBus.post(publish(order), OrderEventBus.Change.CANCELLED);
+            return unspent;
+        } finally {
+            lock.unlock();
         }
     }
 
-    public void removeExpiredOrders() {
-        List<Integer> toRemove = new ArrayList<>();
-        for (Order order : orders.values()) {
-            if (order.isExpired()) {
-                toRemove.add(order.getId());
+    /**
+     * Staff repricing. The order's accounting restarts at its remaining quantity with a new price per item, so
+     * payouts stay exact; earlier deliveries and payouts remain in the audit log. {@code settle} is called under
+     * the order lock with the extra escrow the owner owes (negative for a refund) and returns {@code false} to
+     * leave the order unchanged. A copy is left unchanged and the new price is sent to its home, which settles
+     * with the owner; {@code settle} is not called.
+     *
+     * @return {@code true} if the order was repriced or the new price sent to its home
+     */
+    public boolean repriceOrder(int id, long pricePerItem, LongPredicate settle, UUID staffUuid, String staffName) {
+        Order order = orders.get(id);
+        if (order == null) {
+            return false;
+        }
+        ReentrantLock lock = lockOrder(id);
+        try {
+            if (order.getStatus() != OrderStatus.ACTIVE || !orders.containsKey(id)) {
+                return false;
+            }
+            if (isCopy(order)) {
+                homeLink.reprice(id, pricePerItem, staffUuid, staffName);
+                return true;
             }
+            long remaining = order.getRemainingQuantity();
+            long escrow = Math.multiplyExact(pricePerItem, remaining);
+            long delta = escrow - (order.getTotalEscrow() - order.getTotalPaid());
+            if (!settle.test(delta)) {
+                return false;
+            }
+            order.setTotalQuantity(remaining);
+            order.setTotalEscrow(escrow);
+            order.setTotalPaid(0L);
+            auditLog.record(AuditLog.Action.REPRICE, id, staffUuid, staffName, order.getMaterial(), remaining, escrow,
+                    order.getOwnerName());
+            eventBus.post(publish(order), OrderEventBus.Change.REPRICED);
+            return true;
+        } finally {
+            lock.unlock();
         }
-        for (Integer id : toRemove) {
-            orders.remove(id);
-            locks.remove(id);
+    }
+
+    /**
+     * Staff removal of a finished order whose retention has elapsed, together with any goods still stored in it,
+     * as the expiry sweep would remove it. A copy is left in place and the removal is sent to its home.
+     *
+     * @return the removed order's last view, or {@code null} if it is gone, still active or still retained
+     */
+    public OrderSnapshot removeOrder(int id, UUID staffUuid, String staffName) {
+        Order order = orders.get(id);
+        if (order == null) {
+            return null;
+        }
+        ReentrantLock lock = lockOrder(id);
+        try {
+            if (!order.isExpired() || !orders.containsKey(id)) {
+                return null;
+            }
+            OrderSnapshot last = readModel.current().get(id);
+            if (isCopy(order)) {
+                homeLink.remove(id, staffUuid, staffName);
+                return last;
+            }
+            Order removed = removeExpired(id);
+            if (removed == null) {
+                return null;
+            }
+            auditLog.record(AuditLog.Action.EXPIRE, id, staffUuid, staffName, removed.getMaterial(),
+                    removed.getStoredQuantity(), 0L, removed.getOwnerName());
+            return last;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void expireOrder(int id) {
+        Order removed = removeExpired(id);
+        if (removed != null) {
+            auditLog.record(AuditLog.Action.EXPIRE, id, removed.getOwnerUuid(), removed.getOwnerName(),
+                    removed.getMaterial(), removed.getStoredQuantity(), 0L, null);
+        }
+    }
+
+    private Order removeExpired(int id) {
+        return remove(id, OrderEventBus.Change.EXPIRED);
+    }
+
+    private Order remove(int id, OrderEventBus.Change change) {
+        Order removed = orders.remove(id);
+        locks.remove(id);
+        reservations.remove(id);
+        forwardedUnits.remove(id);
+        OrderSnapshot last = readModel.current().get(id);
+        if (last != null) {
+            eventBus.post(last, change);
+        }
+        readModel.remove(id);
+        return removed;
+    }
+
+    /**
+     * Replaces, or adds, an order with the state published by the server it was created on.
+     */
+    public void applyReplicatedState(OrderSnapshot state) {
+        ReentrantLock lock = lockOrder(state.id());
+        try {
+            Order order = orders.get(state.id());
+            long demandBefore = 0L;
+            if (order == null) {
+                order = new Order(state.id(), state.ownerUuid(), state.ownerName(), state.material(),
+                        state.totalQuantity(), state.remainingQuantity(), state.totalEscrow(), state.totalPaid(),
+                        state.createdTimestamp(), state.expirationTimestamp(), state.status(), state.storedQuantity(),
+                        state.homeNode());
+                orders.put(order.getId(), order);
+                // Keep new local ids above every id seen, including unstrided ids saved before replication.
+                nextId.updateAndGet(current -> alignId(Math.max(current, state.id() + 1)));
+            } else {
+                demandBefore = openDemand(order);
+                order.setTotalQuantity(state.totalQuantity());
+                order.setRemainingQuantity(state.remainingQuantity());
+                order.setTotalEscrow(state.totalEscrow());
+                order.setTotalPaid(state.totalPaid());
+                order.setExpirationTimestamp(state.expirationTimestamp());
+                order.setStatus(state.status());
+                order.setStoredQuantity(state.storedQuantity());
+                if (state.status() != OrderStatus.ACTIVE) {
+                    reservations.remove(order.getId());
+                }
+            }
+            forwardedUnits.remove(order.getId());
+            marketStats.adjustOpenDemand(order.getMaterial(), openDemand(order) - demandBefore);
+            eventBus.post(publish(order), OrderEventBus.Change.REPLICATED);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes an order that the server it was created on removed.
+     */
+    public void applyReplicatedRemoval(int id) {
+        if (!orders.containsKey(id)) {
+            return;
+        }
+        ReentrantLock lock = lockOrder(id);
+        try {
+            Order removed = remove(id, OrderEventBus.Change.REPLICATED);
+            if (removed != null) {
+                marketStats.adjustOpenDemand(removed.getMaterial(), -openDemand(removed));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Settles a delivery that a copy of an order homed here took in: the supplier is owed the payout for the units
+     * still open, which the caller pays. Units beyond those are kept for the owner unpaid and audited as a conflict.
+     *
+     * @return the accepted units and their payout, or a failure if the order is unknown
+     */
+    public DeliveryResult applyRemoteDelivery(int id, UUID supplierUuid, String supplierName, long units, String node) {
+        Order order = orders.get(id);
+        if (order == null) {
+            return DeliveryResult.failed("Order not found.");
+        }
+        ReentrantLock lock = lockOrder(id);
+        try {
+            if (!orders.containsKey(id)) {
+                return DeliveryResult.failed("Order not found.");
+            }
+            long accepted = order.getStatus() == OrderStatus.ACTIVE ? Math.min(units, order.getRemainingQuantity()) : 0L;
+            DeliveryResult result = accepted > 0
+                    ? settleDelivery(supplierUuid, supplierName, order, accepted, WorkloadRecorder.CHANNEL_ENDPOINT)
+                    : DeliveryResult.success(0L, 0L);
+            if (accepted < units) {
+                addStoredItems(order, units - accepted);
+                auditLog.record(AuditLog.Action.CONFLICT, id, supplierUuid, supplierName, order.getMaterial(),
+                        units - accepted, 0L, "unpaid delivery via " + node + " after the order filled");
+                eventBus.post(publish(order), OrderEventBus.Change.REPLICATED);
+            }
+            return result;
+        } finally {
+            lock.unlock();
         }
     }
 
+    private static long openDemand(Order order) {
+        return order.getStatus() == OrderStatus.ACTIVE ? order.getRemainingQuantity() : 0L;
+    }
+
     public boolean canCollect(Player player, Order order) {
-        if (order.getOwnerUuid().equals(player.getUniqueId())) {
+        UUID playerUuid = player.getUniqueId();
+        if (order.isOwnedBy(playerUuid)) {
             return true;
         }
-        if (order.getTrustedPlayers().contains(player.getUniqueId())) {
+        if (trustTable.isTrusted(order.getOwnerUuid(), playerUuid)) {
             return true;
         }
         return player.hasPermission("ordersystem.collect.trusted");
     }
 
-    public void addTrustedPlayer(Order order, OfflinePlayer target) {
-        if (!order.getTrustedPlayers().contains(target.getUniqueId())) {
-            order.getTrustedPlayers().add(target.getUniqueId());
+    /**
+     * Trusts {@code target} to collect from all of the owner's orders, including future ones.
+     *
+     * @return {@code false} if the target was already trusted
+     */
+    public boolean trustPlayer(Player owner, OfflinePlayer target) {
+        if (!trustTable.trust(owner.getUniqueId(), target.getUniqueId())) {
+            return false;
         }
+        auditLog.record(AuditLog.Action.TRUST, 0, owner.getUniqueId(), owner.getName(), null, 0L, 0L, target.getName());
+        recordTrust(WorkloadRecorder.Kind.TRUST, owner, target);
+        return true;
     }
 
-    private void addStoredItems(Order order, long amount) {
-        long remaining = amount;
-        int maxStack = order.getMaterial().getMaxStackSize();
-        while (remaining > 0) {
-            int stack = (int) Math.min(remaining, maxStack);
-            order.getStoredItems().add(new ItemStack(order.getMaterial(), stack));
-            remaining -= stack;
+    /**
+     * @return {@code false} if the target was not trusted
+     */
+    public boolean untrustPlayer(Player owner, OfflinePlayer target) {
+        if (!trustTable.untrust(owner.getUniqueId(), target.getUniqueId())) {
+            return false;
         }
+        auditLog.record(AuditLog.Action.UNTRUST, 0, owner.getUniqueId(), owner.getName(), null, 0L, 0L, target.getName());
+        recordTrust(WorkloadRecorder.Kind.UNTRUST, owner, target);
+        return true;
+    }
+
+    private void recordTrust(WorkloadRecorder.Kind kind, Player owner, OfflinePlayer target) {
+        WorkloadRecorder recorder = this.recorder;
+        if (recorder != null) {
+            recorder.recordWithTarget(kind, owner.getUniqueId(), owner.getName(), target.getUniqueId(), target.getName(), 0, null);
+        }
+    }
+
+    /**
+     * Removes and returns the stored stack at {@code index}, or {@code null} if it no longer exists or the order is
+     * a copy, whose goods are collected on its home server. Stored goods are laid out as full stacks followed by one
+     * partial stack.
+     */
+    public ItemStack takeStoredItem(Player player, Order order, int index) {
+        if (isCopy(order)) {
+            return null;
+        }
+        ReentrantLock lock = lockOrder(order.getId());
+        try {
+            long amount = storedStackAmount(order.getStoredQuantity(), order.getMaterial().getMaxStackSize(), index);
+            if (amount <= 0) {
+                return null;
+            }
+            order.setStoredQuantity(order.getStoredQuantity() - amount);
+            eventBus.post(publish(order), OrderEventBus.Change.COLLECTED, amount, 0L);
+            recordCollect(player, order, amount, index, index + 1);
+            return new ItemStack(order.getMaterial(), (int) amount);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes and returns the stored stacks in {@code [fromIndex, toIndex)}, clamped to what is still stored. Nothing
+     * is taken from a copy.
+     */
+    public List<ItemStack> takeStoredItems(Player player, Order order, int fromIndex, int toIndex) {
+        if (isCopy(order)) {
+            return List.of();
+        }
+        ReentrantLock lock = lockOrder(order.getId());
+        try {
+            int maxStack = order.getMaterial().getMaxStackSize();
+            List<ItemStack> taken = new ArrayList<>();
+            long amount = 0;
+            for (int index = Math.max(0, fromIndex); index < toIndex; index++) {
+                long stack = storedStackAmount(order.getStoredQuantity(), maxStack, index);
+                if (stack <= 0) {
+                    break;
+                }
+                taken.add(new ItemStack(order.getMaterial(), (int) stack));
+                amount += stack;
+            }
+            if (amount == 0) {
+                return List.of();
+            }
+            order.setStoredQuantity(order.getStoredQuantity() - amount);
+            eventBus.post(publish(order), OrderEventBus.Change.COLLECTED, amount, 0L);
+            recordCollect(player, order, amount, fromIndex, toIndex);
+            return taken;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Size of the stack at {@code index} when {@code stored} units are split into stacks of {@code maxStack}.
+     */
+    static long storedStackAmount(long stored, int maxStack, int index) {
+        long offset = (long) index * maxStack;
+        if (index < 0 || offset >= stored) {
+            return 0L;
+        }
+        return Math.min(maxStack, stored - offset);
+    }
+
+    static int storedStackCount(long stored, int maxStack) {
+        return (int) ((stored + maxStack - 1) / maxStack);
+    }
+
+    private void recordCollect(Player player, Order order, long amount, int fromIndex, int toIndex) {
+        if (amount > 0) {
+            auditLog.record(AuditLog.Action.COLLECT, order.getId(), player.getUniqueId(), player.getName(),
+                    order.getMaterial(), amount, 0L, order.getOwnerName());
+            WorkloadRecorder recorder = this.recorder;
+            if (recorder != null) {
+                recorder.record(WorkloadRecorder.Kind.COLLECT, player.getUniqueId(), player.getName(), order.getId(), null,
+                        fromIndex, toIndex);
+            }
+        }
+    }
+
+    /**
+     * Publishes the order's current state to the read model. Callers hold the order lock.
+     *
+     * @return the published view
+     */
+    private OrderSnapshot publish(Order order) {
+        OrderSnapshot view = viewOf(order);
+        readModel.publish(view);
+        return view;
+    }
+
+    private static OrderSnapshot viewOf(Order order) {
+        return new OrderSnapshot(order.getId(),
+                order.getOwnerUuid(),
+                order.getOwnerName(),
+                order.getMaterial(),
+                order.getTotalQuantity(),
+                order.getRemainingQuantity(),
+                order.getTotalEscrow(),
+                order.getTotalPaid(),
+                order.getCreatedTimestamp(),
+                order.getExpirationTimestamp(),
+                order.getStatus(),
+                order.getStoredQuantity(),
+                order.getHomeNode());
+    }
+
+    /**
+     * Pays the prorated share of escrow for the units delivered so far, minus what was already paid.
+     * The final delivery therefore settles exactly the unpaid escrow.
+     */
+    private long calculatePayout(Order order, long actual) {
+        long deliveredAfter = order.getTotalQuantity() - order.getRemainingQuantity() + actual;
+        long owed = Money.prorate(order.getTotalEscrow(), deliveredAfter, order.getTotalQuantity());
+        return Math.max(0L, owed - order.getTotalPaid());
+    }
+
+    private void addStoredItems(Order order, long amount) {
+        order.setStoredQuantity(order.getStoredQuantity() + amount);
     }
 
     private long countItems(Player player, Material material) {
@@ -253,25 +1081,86 @@ public class OrderManager {
         player.getInventory().setContents(contents);
     }
 
+    /**
+     * Carries changes made to copies to the server the order is homed on. Called from any thread.
+     */
+    public interface HomeLink {
+        void deliver(int orderId, UUID supplierUuid, String supplierName, long units);
+
+        void cancel(int orderId, boolean refund, UUID staffUuid, String staffName);
+
+        void reprice(int orderId, long pricePerItem, UUID staffUuid, String staffName);
+
+        void remove(int orderId, UUID staffUuid, String staffName);
+    }
+
+    /**
+     * A supplier's claim on part of an order's remaining quantity. Mutable state is guarded by the order lock.
+     */
+    public static final class Reservation {
+        private final long id;
+        private final int orderId;
+        private final UUID supplier;
+        private long amount;
+        private long expiresAt;
+
+        private Reservation(long id, int orderId, UUID supplier, long amount, long expiresAt) {
+            this.id = id;
+            this.orderId = orderId;
+            this.supplier = supplier;
+            this.amount = amount;
+            this.expiresAt = expiresAt;
+        }
+
+        public long id() {
+            return id;
+        }
+
+        public int orderId() {
+            return orderId;
+        }
+
+        public UUID supplier() {
+            return supplier;
+        }
+
+        public long amount() {
+            return amount;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+
     public static class DeliveryResult {
         private final boolean success;
         private final String message;
         private final long amountDelivered;
-        private final double payout;
+        private final long payout;
+        private final boolean forwarded;
 
-        private DeliveryResult(boolean success, String message, long amountDelivered, double payout) {
+        private DeliveryResult(boolean success, String message, long amountDelivered, long payout, boolean forwarded) {
             this.success = success;
             this.message = message;
             this.amountDelivered = amountDelivered;
             this.payout = payout;
+            this.forwarded = forwarded;
+        }
+
+        public static DeliveryResult success(long amount, long payout) {
+            return new DeliveryResult(true, null, amount, payout, false);
         }
 
-        public static DeliveryResult success(long amount, double payout) {
-            return new DeliveryResult(true, null, amount, payout);
+        /**
+         * Units taken in by a copy; the order's home pays the supplier once it settles them.
+         */
+        public static DeliveryResult forwarded(long amount) {
+            return new DeliveryResult(true, null, amount, 0L, true);
         }
 
         public static DeliveryResult failed(String message) {
-            return new DeliveryResult(false, message, 0L, 0D);
+            return new DeliveryResult(false, message, 0L, 0L, false);
         }
 
         public boolean isSuccess() {
@@ -286,9 +1175,16 @@ public class OrderManager {
             return amountDelivered;
         }
 
-        public double getPayout() {
+        public long getPayout() {
             return payout;
         }
+
+        /**
+         * Whether the payout is made by the order's home server rather than included in {@link #getPayout()}.
+         */
+        public boolean isForwarded() {
+            return forwarded;
+        }
     }
 
     public record OrderSnapshot(int id,
@@ -297,13 +1193,36 @@ public class OrderManager {
                                  Material material,
                                  long totalQuantity,
                                  long remainingQuantity,
-                                 double pricePerItem,
-                                 double totalEscrow,
-                                 double totalPaid,
+                                 long totalEscrow,
+                                 long totalPaid,
                                  long createdTimestamp,
                                  long expirationTimestamp,
                                  OrderStatus status,
-                                 List<ItemStack> storedItems,
-                                 List<UUID> trustedPlayers) {
+                                 long storedQuantity,
+                                 int homeNode) {
+
+        public long pricePerItem() {
+            return totalQuantity <= 0 ? 0L : totalEscrow / totalQuantity;
+        }
+
+        public int storedStackCount() {
+            return OrderManager.storedStackCount(storedQuantity, material.getMaxStackSize());
+        }
+
+        /**
+         * Materializes the stored stacks in {@code [fromIndex, toIndex)} for display.
+         */
+        public List<ItemStack> storedStacks(int fromIndex, int toIndex) {
+            List<ItemStack> stacks = new ArrayList<>();
+            int maxStack = material.getMaxStackSize();
+            for (int index = Math.max(0, fromIndex); index < toIndex; index++) {
+                long amount = storedStackAmount(storedQuantity, maxStack, index);
+                if (amount <= 0) {
+                    break;
+                }
+                stacks.add(new ItemStack(material, (int) amount));
+            }
+            return stacks;
+        }
     }
 }
@@ -0,0 +1,209 @@
+package com.example.ordersystem;
+
+import org.bukkit.Material;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Copy-on-write table of immutable order views. Writers publish a new {@link Epoch} per mutation by copying
+ * only the touched 64-entry chunk and the chunk directory; readers take a consistent view of every order with
+ * a single volatile read and never lock.
+ * <p>
+ * Superseded epochs are not recycled explicitly: once no reader references one, the garbage collector
+ * reclaims it together with any views only it still shares.
+ * <p>
+ * Material and owner indexes map to candidate ids, which are resolved against an epoch. An order's material and
+ * owner never change, so the indexes are only touched when an order is added or removed. Scalar fields are also
+ * kept in {@link OrderColumns} for scans over every order.
+ */
+public class OrderReadModel {
+    private static final int CHUNK_BITS = 6;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int PARALLEL_INDEX_THRESHOLD = 4096;
+
+    private volatile Epoch current = new Epoch(0L, new OrderManager.OrderSnapshot[0][], 0);
+    private final Map<Material, Set<Integer>> byMaterial = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<Integer>> byOwner = new ConcurrentHashMap<>();
+    private final OrderColumns columns = new OrderColumns();
+
+    public Epoch current() {
+        return current;
+    }
+
+    public OrderColumns columns() {
+        return columns;
+    }
+
+    public synchronized void publish(OrderManager.OrderSnapshot view) {
+        Epoch epoch = current;
+        int chunkIndex = view.id() >>> CHUNK_BITS;
+        OrderManager.OrderSnapshot[][] chunks = epoch.chunks.length > chunkIndex
+                ? epoch.chunks.clone()
+                : Arrays.copyOf(epoch.chunks, Math.max(chunkIndex + 1, epoch.chunks.length * 2));
+        OrderManager.OrderSnapshot[] chunk = chunks[chunkIndex] == null
+                ? new OrderManager.OrderSnapshot[CHUNK_SIZE]
+                : chunks[chunkIndex].clone();
+        boolean added = chunk[view.id() & CHUNK_MASK] == null;
+        if (added) {
+            index(view);
+        }
+        chunk[view.id() & CHUNK_MASK] = view;
+        chunks[chunkIndex] = chunk;
+        columns.put(view);
+        current = new Epoch(epoch.number + 1, chunks, added ? epoch.size + 1 : epoch.size);
+    }
+
+    public synchronized void remove(int id) {
+        Epoch epoch = current;
+        int chunkIndex = id >>> CHUNK_BITS;
+        if (chunkIndex >= epoch.chunks.length || epoch.chunks[chunkIndex] == null
+                || epoch.chunks[chunkIndex][id & CHUNK_MASK] == null) {
+            return;
+        }
+        OrderManager.OrderSnapshot[][] chunks = epoch.chunks.clone();
+        OrderManager.OrderSnapshot[] chunk = chunks[chunkIndex].clone();
+        OrderManager.OrderSnapshot removed = chunk[id & CHUNK_MASK];
+        chunk[id & CHUNK_MASK] = null;
+        chunks[chunkIndex] = chunk;
+        current = new Epoch(epoch.number + 1, chunks, epoch.size - 1);
+        columns.remove(id);
+        unindex(byMaterial, removed.material(), id);
+        unindex(byOwner, removed.ownerUuid(), id);
+    }
+
+    /**
+     * Publishes many views as a single epoch, e.g. after loading. Large batches are indexed in parallel.
+     */
+    public synchronized void publishAll(Collection<OrderManager.OrderSnapshot> views) {
+        Epoch epoch = current;
+        int maxChunk = epoch.chunks.length - 1;
+        for (OrderManager.OrderSnapshot view : views) {
+            maxChunk = Math.max(maxChunk, view.id() >>> CHUNK_BITS);
+        }
+        OrderManager.OrderSnapshot[][] chunks = Arrays.copyOf(epoch.chunks, maxChunk + 1);
+        boolean[] copied = new boolean[chunks.length];
+        List<OrderManager.OrderSnapshot> added = new ArrayList<>();
+        for (OrderManager.OrderSnapshot view : views) {
+            int chunkIndex = view.id() >>> CHUNK_BITS;
+            if (!copied[chunkIndex]) {
+                chunks[chunkIndex] = chunks[chunkIndex] == null
+                        ? new OrderManager.OrderSnapshot[CHUNK_SIZE]
+                        : chunks[chunkIndex].clone();
+                copied[chunkIndex] = true;
+            }
+            if (chunks[chunkIndex][view.id() & CHUNK_MASK] == null) {
+                added.add(view);
+            }
+            chunks[chunkIndex][view.id() & CHUNK_MASK] = view;
+        }
+        if (added.size() >= PARALLEL_INDEX_THRESHOLD) {
+            added.parallelStream().forEach(this::index);
+        } else {
+            added.forEach(this::index);
+        }
+        columns.putAll(views);
+        current = new Epoch(epoch.number + 1, chunks, epoch.size + added.size());
+    }
+
+    /**
+     * Orders of one material in {@code epoch}, in id order.
+     */
+    public List<OrderManager.OrderSnapshot> byMaterial(Epoch epoch, Material material) {
+        return epoch.select(byMaterial.get(material));
+    }
+
+    /**
+     * Orders of one owner in {@code epoch}, in id order.
+     */
+    public List<OrderManager.OrderSnapshot> byOwner(Epoch epoch, UUID owner) {
+        return epoch.select(byOwner.get(owner));
+    }
+
+    // Ids are indexed before the epoch holding them is published and unindexed after, so every order in the
+    // current epoch can be found through the indexes.
+    private void index(OrderManager.OrderSnapshot view) {
+        byMaterial.computeIfAbsent(view.material(), key -> ConcurrentHashMap.newKeySet()).add(view.id());
+        byOwner.computeIfAbsent(view.ownerUuid(), key -> ConcurrentHashMap.newKeySet()).add(view.id());
+    }
+
+    private static <K> void unindex(Map<K, Set<Integer>> index, K key, int id) {
+        index.computeIfPresent(key, (ignored, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    /**
+     * An immutable, internally consistent view of every order at one point in time.
+     */
+    public static final class Epoch {
+        private final long number;
+        private final OrderManager.OrderSnapshot[][] chunks;
+        private final int size;
+
+        private Epoch(long number, OrderManager.OrderSnapshot[][] chunks, int size) {
+            this.number = number;
+            this.chunks = chunks;
+            this.size = size;
+        }
+
+        public long number() {
+            return number;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public OrderManager.OrderSnapshot get(int id) {
+            int chunkIndex = id >>> CHUNK_BITS;
+            if (id < 0 || chunkIndex >= chunks.length || chunks[chunkIndex] == null) {
+                return null;
+            }
+            return chunks[chunkIndex][id & CHUNK_MASK];
+        }
+
+        public void forEach(Consumer<OrderManager.OrderSnapshot> action) {
+            for (OrderManager.OrderSnapshot[] chunk : chunks) {
+                if (chunk == null) {
+                    continue;
+                }
+                for (OrderManager.OrderSnapshot view : chunk) {
+                    if (view != null) {
+                        action.accept(view);
+                    }
+                }
+            }
+        }
+
+        private List<OrderManager.OrderSnapshot> select(Set<Integer> ids) {
+            if (ids == null) {
+                return new ArrayList<>();
+            }
+            List<OrderManager.OrderSnapshot> list = new ArrayList<>(ids.size());
+            for (int id : ids) {
+                OrderManager.OrderSnapshot view = get(id);
+                if (view != null) {
+                    list.add(view);
+                }
+            }
+            list.sort((a, b) -> Integer.compare(a.id(), b.id()));
+            return list;
+        }
+
+        public List<OrderManager.OrderSnapshot> toList() {
+            List<OrderManager.OrderSnapshot> list = new ArrayList<>(size);
+            forEach(list::add);
+            return list;
+        }
+    }
+}
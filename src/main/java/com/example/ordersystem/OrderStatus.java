@@ -5,5 +5,6 @@ package com.example.ordersystem;
  */
 public enum OrderStatus {
     ACTIVE,
-    COMPLETED
+    COMPLETED,
+    CANCELLED
 }
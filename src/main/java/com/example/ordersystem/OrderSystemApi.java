@@ -0,0 +1,76 @@
+package com.example.ordersystem;
+
+import org.bukkit.Material;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Read-only order queries and bulk operations for other plugins, registered with Bukkit's services manager:
+ * <pre>{@code
+ * OrderSystemApi api = Bukkit.getServicesManager().load(OrderSystemApi.class);
+ * api.getBestBids(Material.WHEAT, 5).thenAccept(bids -> ...);
+ * }</pre>
+ * Every method may be called from any thread and completes on an OrderSystem worker thread, never the main
+ * thread. Results are immutable {@link OrderManager.OrderSnapshot} views taken from one consistent snapshot.
+ */
+public interface OrderSystemApi {
+
+    CompletableFuture<Optional<OrderManager.OrderSnapshot>> getOrder(int id);
+
+    /**
+     * The orders with the given ids that exist, keyed by id in the order requested.
+     */
+    CompletableFuture<Map<Integer, OrderManager.OrderSnapshot>> getOrders(Collection<Integer> ids);
+
+    /**
+     * All orders of one material, newest first.
+     */
+    CompletableFuture<List<OrderManager.OrderSnapshot>> getOrdersByMaterial(Material material);
+
+    /**
+     * All orders placed by one player, newest first.
+     */
+    CompletableFuture<List<OrderManager.OrderSnapshot>> getOrdersByOwner(UUID ownerUuid);
+
+    /**
+     * Up to {@code limit} active orders for a material, best price per item first.
+     */
+    CompletableFuture<List<OrderManager.OrderSnapshot>> getBestBids(Material material, int limit);
+
+    /**
+     * {@link #getBestBids(Material, int)} for several materials at once, from the same snapshot.
+     */
+    CompletableFuture<Map<Material, List<OrderManager.OrderSnapshot>>> getBestBids(Collection<Material> materials, int limit);
+
+    CompletableFuture<MarketView> getMarket(Material material);
+
+    /**
+     * Delivers goods the caller has already taken from a supplier to several orders, as an endpoint would.
+     * Each order is settled under its own lock; the supplier is paid once for the whole batch on the next tick.
+     * Every order fails while orders are loading or while saving is disabled.
+     *
+     * @param amounts units to deliver, keyed by order id
+     * @return the result per order id, in the order of {@code amounts}
+     */
+    CompletableFuture<Map<Integer, OrderManager.DeliveryResult>> deliver(UUID supplierUuid, String supplierName,
+                                                                         Map<Integer, Long> amounts);
+
+    /**
+     * Subscribes to order changes, coalesced per order per tick. Synchronous listeners run on the main thread;
+     * asynchronous ones run in order on a background thread. {@link OrderChangeEvent} carries the same changes.
+     */
+    OrderEventBus.Subscription subscribe(Consumer<OrderEventBus.OrderChange> listener, boolean async);
+
+    /**
+     * Market state for one material. Prices and money are in minor units.
+     */
+    record MarketView(Material material, long openDemand, long lastPrice,
+                      Map<MarketStats.Window, MarketStats.WindowSummary> windows) {
+    }
+}
@@ -4,6 +4,9 @@ import net.milkbowl.vault.economy.Economy;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.block.Block;
+import org.bukkit.block.Container;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
@@ -12,39 +15,102 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.AsyncPlayerChatEvent;
 import org.bukkit.plugin.RegisteredServiceProvider;
+import org.bukkit.plugin.ServicePriority;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
 
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
  * Main plugin entry point for OrderSystem.
  */
 public class OrderSystemPlugin extends JavaPlugin implements Listener, TabCompleter {
+    private static final List<String> SUBCOMMANDS = List.of("create", "search", "collect", "trust", "untrust", "market",
+            "endpoint", "staff", "export", "record", "audit", "metrics");
+    // Subcommands refused while saving is disabled, since what they change would be lost.
+    private static final Set<String> CHANGING_SUBCOMMANDS = Set.of("create", "collect", "trust", "untrust", "endpoint",
+            "staff");
+    private static final DateTimeFormatter FILE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")
+            .withZone(ZoneId.systemDefault());
+    private static final DateTimeFormatter AUDIT_TIME_FORMAT = DateTimeFormatter.ofPattern("MM-dd HH:mm:ss")
+            .withZone(ZoneId.systemDefault());
     private Economy economy;
+    private MarketStats marketStats;
+    private AuditLog auditLog;
+    private TickScheduler tickScheduler;
     private OrderManager orderManager;
     private StorageManager storageManager;
     private GUIManager guiManager;
+    private DeliveryEndpointManager deliveryEndpoints;
+    private OrderExporter orderExporter;
+    private OrderApiService apiService;
+    private OwnerMailbox mailbox;
+    private StaffBulkJob staffJob;
+    private StartupLoader startupLoader;
+    private OrderCompletions completions;
+    private ReplicationManager replication;
     private final Map<UUID, OrderCreationSession> creationSessions = new HashMap<>();
     private final Map<UUID, SearchSession> searchSessions = new HashMap<>();
 
     @Override
     public void onEnable() {
+        long enableStart = System.nanoTime();
         saveDefaultConfig();
         if (!setupEconomy()) {
             getLogger().severe("Vault economy not found. Disabling plugin.");
             getServer().getPluginManager().disablePlugin(this);
             return;
         }
-        orderManager = new OrderManager(this);
-        storageManager = new StorageManager(this);
-        storageManager.loadOrders(orderManager);
-        guiManager = new GUIManager(this, orderManager, economy);
+        marketStats = new MarketStats();
+        auditLog = new AuditLog(getLogger(), new File(getDataFolder(), "audit"),
+                getConfig().getLong("audit.max-segment-mb", 16L) * 1024L * 1024L,
+                getConfig().getInt("audit.retention-days", 30),
+                getConfig().getLong("audit.flush-interval-ms", 1000L));
+        auditLog.start();
+        tickScheduler = new TickScheduler(this, getConfig().getLong("scheduler.tick-budget-ms", 5L));
+        tickScheduler.start();
+        orderManager = new OrderManager(this, marketStats, auditLog);
+        storageManager = new StorageManager(this, marketStats);
+        storageManager.loadMarketStats(marketStats);
+        startupLoader = new StartupLoader(this, storageManager, orderManager, getConfig().getInt("storage.load-threads", 4));
+        guiManager = new GUIManager(this, orderManager, economy, new ClickLimiter(getConfig().getInt("gui.click-burst", 8),
+                getConfig().getDouble("gui.clicks-per-second", 4D)));
+        deliveryEndpoints = new DeliveryEndpointManager(this, orderManager, economy,
+                getConfig().getLong("endpoints.max-units-per-settle", 2304L));
+        if (getConfig().getBoolean("replication.enabled", false)) {
+            replication = createReplication();
+        }
+        completions = new OrderCompletions(orderManager, guiManager, SUBCOMMANDS, getConfig().getInt("completion.max-results", 20));
+        startupLoader.start(completions::warmUp, () -> {
+            storageManager.loadEndpoints(deliveryEndpoints);
+            completions.rebuildCollectible();
+            startReplication();
+        });
+        mailbox = new OwnerMailbox(this, orderManager.getEventBus());
+        storageManager.loadMailbox(mailbox);
+        orderExporter = new OrderExporter(getLogger(), new File(getDataFolder(), "exports"));
+        apiService = new OrderApiService(this, orderManager, storageManager, marketStats, economy,
+                getConfig().getInt("api.threads", 2));
+        getServer().getServicesManager().register(OrderSystemApi.class, apiService, this, ServicePriority.Normal);
         Bukkit.getPluginManager().registerEvents(guiManager, this);
+        Bukkit.getPluginManager().registerEvents(deliveryEndpoints, this);
+        Bukkit.getPluginManager().registerEvents(mailbox, this);
         Bukkit.getPluginManager().registerEvents(this, this);
         getCommand("orders").setExecutor(this);
         getCommand("orders").setTabCompleter(this);
@@ -53,16 +119,60 @@ public class OrderSystemPlugin extends JavaPlugin implements Listener, TabComple
             getCommand("order").setTabCompleter(this);
         }
 
+        Bukkit.getScheduler().runTaskTimer(this, () -> tickScheduler.submit(TickScheduler.Priority.MAINTENANCE,
+                orderManager.newExpirySweep(() -> storageManager.requestSaveAsync(orderManager))),
+                20L * 60L, 20L * 60L * 30L);
+        Bukkit.getScheduler().runTaskTimer(this, orderManager.getEventBus()::flush, 1L, 1L);
+        if (replication != null) {
+            Bukkit.getScheduler().runTaskTimer(this, replication::tick, 1L, 1L);
+            long fullSyncInterval = Math.max(1L, getConfig().getLong("replication.full-sync-minutes", 10L)) * 20L * 60L;
+            Bukkit.getScheduler().runTaskTimer(this, replication::requestFullSync, fullSyncInterval, fullSyncInterval);
+        }
+        long digestInterval = Math.max(1L, getConfig().getLong("mailbox.digest-interval-seconds", 300L)) * 20L;
+        Bukkit.getScheduler().runTaskTimer(this, mailbox::sendToOnline, digestInterval, digestInterval);
+        long settleInterval = Math.max(1L, getConfig().getLong("endpoints.settle-interval-ticks", 100L));
         Bukkit.getScheduler().runTaskTimer(this, () -> {
-            orderManager.removeExpiredOrders();
-            storageManager.requestSaveAsync(orderManager);
-        }, 20L * 60L, 20L * 60L * 30L);
+            if (deliveryEndpoints.getDirtyCount() > 0) {
+                tickScheduler.submit(TickScheduler.Priority.MAINTENANCE,
+                        deliveryEndpoints.newSettleJob(() -> storageManager.requestSaveAsync(orderManager)));
+            }
+        }, settleInterval, settleInterval);
+        if (getConfig().getBoolean("recorder.enabled", false)) {
+            startRecording();
+        }
+        startupLoader.recordPhase("enable", System.nanoTime() - enableStart);
     }
 
     @Override
     public void onDisable() {
+        if (startupLoader != null) {
+            startupLoader.shutdown();
+        }
+        if (tickScheduler != null) {
+            tickScheduler.stop();
+            tickScheduler.drainAll();
+        }
+        if (orderManager != null) {
+            stopRecording();
+        }
+        if (replication != null) {
+            replication.shutdown();
+        }
+        if (orderExporter != null) {
+            orderExporter.shutdown();
+        }
+        if (apiService != null) {
+            getServer().getServicesManager().unregisterAll(this);
+            apiService.shutdown();
+        }
+        if (orderManager != null) {
+            orderManager.getEventBus().shutdown();
+        }
         if (storageManager != null && orderManager != null) {
-            storageManager.saveNow(orderManager);
+            storageManager.shutdown(orderManager);
+        }
+        if (auditLog != null) {
+            auditLog.shutdown();
         }
     }
 
@@ -70,6 +180,32 @@ public class OrderSystemPlugin extends JavaPlugin implements Listener, TabComple
         return storageManager;
     }
 
+    public TickScheduler getTickScheduler() {
+        return tickScheduler;
+    }
+
+    public MarketStats getMarketStats() {
+        return marketStats;
+    }
+
+    public GUIManager getGuiManager() {
+        return guiManager;
+    }
+
+    public DeliveryEndpointManager getDeliveryEndpoints() {
+        return deliveryEndpoints;
+    }
+
+    /**
+     * Exports the current order book to {@code exports/} on a background thread.
+     *
+     * @return the running export, or {@code null} if another export is still running
+     */
+    public OrderExporter.Export exportOrders(OrderExporter.Format format, boolean gzip) {
+        return orderExporter.export(orderManager.snapshot(), format, gzip,
+                "orders-" + FILE_TIME_FORMAT.format(Instant.now()));
+    }
+
     public void setSelectedMaterial(Player player, Material material) {
         OrderCreationSession session = creationSessions.computeIfAbsent(player.getUniqueId(), key -> new OrderCreationSession());
         session.setMaterial(material);
@@ -130,16 +266,13 @@ public class OrderSystemPlugin extends JavaPlugin implements Listener, TabComple
                 return;
             }
             if (session.getStep() == OrderCreationSession.Step.TOTAL_PRICE) {
-                double totalPrice = Double.parseDouble(message);
+                long totalPrice = Money.parse(message);
                 if (totalPrice <= 0) {
                     player.sendMessage(ChatColor.RED + "Price must be positive.");
                     return;
                 }
-                double pricePerItem = totalPrice / session.getQuantity();
                 session.setTotalPrice(totalPrice);
-                session.setPricePerItem(pricePerItem);
-                double listingFee = getConfig().getDouble("listing-fee", 1000D);
-                guiManager.openConfirmCreation(player, session, listingFee);
+                guiManager.openConfirmCreation(player, session, getListingFee());
             }
         } catch (NumberFormatException ex) {
             player.sendMessage(ChatColor.RED + "Invalid number.");
@@ -197,16 +330,20 @@ public class OrderSystemPlugin extends JavaPlugin implements Listener, TabComple
             player.closeInventory();
             return;
         }
-        double escrow = session.getTotalPrice();
-        double listingFee = getConfig().getDouble("listing-fee", 1000D);
-        double total = escrow + listingFee;
-        if (!economy.has(player, total)) {
-            player.sendMessage(ChatColor.RED + "You need $" + NumberFormatter.formatCompact(total) + " to create this order.");
+        if (storageManager.isSavingDisabled()) {
+            player.sendMessage(ChatColor.RED + StorageManager.SAVING_DISABLED_MESSAGE);
+            player.closeInventory();
+            return;
+        }
+        long escrow = session.getTotalPrice();
+        long total = escrow + getListingFee();
+        if (!economy.has(player, Money.toMajor(total))) {
+            player.sendMessage(ChatColor.RED + "You need $" + NumberFormatter.formatMoney(total) + " to create this order.");
             player.closeInventory();
             return;
         }
-        economy.withdrawPlayer(player, total);
-        Order order = orderManager.createOrder(player, session.getMaterial(), session.getQuantity(), session.getPricePerItem());
+        economy.withdrawPlayer(player, Money.toMajor(total));
+        Order order = orderManager.createOrder(player, session.getMaterial(), session.getQuantity(), escrow);
         storageManager.requestSaveAsync(orderManager);
         player.sendMessage(ChatColor.GREEN + "Order created! ID: " + order.getId());
         player.closeInventory();
@@ -219,6 +356,10 @@ public class OrderSystemPlugin extends JavaPlugin implements Listener, TabComple
         player.sendMessage(ChatColor.RED + "Order creation cancelled.");
     }
 
+    private long getListingFee() {
+        return Money.toMinor(getConfig().getDouble("listing-fee", 1000D));
+    }
+
     private int getMaxOrders(Player player) {
         int max = -1;
         for (int i = 1; i <= 100; i++) {
@@ -248,15 +389,37 @@ public class OrderSystemPlugin extends JavaPlugin implements Listener, TabComple
             return true;
         }
         if (args.length == 0) {
-            guiManager.openOrderBoard(player, 1, null);
+            tickScheduler.submit(TickScheduler.Priority.INTERACTIVE, () -> guiManager.openOrderBoard(player, 1, null));
+            return true;
+        }
+        if (!orderManager.isLoaded() && !args[0].equalsIgnoreCase("metrics")) {
+            player.sendMessage(ChatColor.YELLOW + "Orders are still loading, try again in a moment.");
+            return true;
+        }
+        if (storageManager.isSavingDisabled() && CHANGING_SUBCOMMANDS.contains(args[0].toLowerCase(Locale.ROOT))) {
+            player.sendMessage(ChatColor.RED + StorageManager.SAVING_DISABLED_MESSAGE);
             return true;
         }
         if (args[0].equalsIgnoreCase("create")) {
-            creationSessions.put(player.getUniqueId(), new OrderCreationSession());
+            OrderCreationSession session = new OrderCreationSession();
+            creationSessions.put(player.getUniqueId(), session);
+            if (args.length >= 2) {
+                handleChatInput(player, session, args[1]);
+                return true;
+            }
             player.sendMessage(ChatColor.GRAY + "Type a material name to create an order, or 'gui' to browse.");
             player.sendMessage(ChatColor.GRAY + "Type 'cancel' to stop.");
             return true;
         }
+        if (args[0].equalsIgnoreCase("search")) {
+            if (args.length < 2) {
+                beginSearch(player, null);
+                return true;
+            }
+            searchSessions.put(player.getUniqueId(), new SearchSession(null));
+            handleSearchInput(player, searchSessions.get(player.getUniqueId()), args[1]);
+            return true;
+        }
         if (args[0].equalsIgnoreCase("collect")) {
             if (args.length < 2) {
                 player.sendMessage(ChatColor.RED + "Usage: /orders collect <id>");
@@ -289,30 +452,572 @@ public class OrderSystemPlugin extends JavaPlugin implements Listener, TabComple
                 player.sendMessage(ChatColor.RED + "Player not found.");
                 return true;
             }
-            List<Order> ownedOrders = orderManager.getOrdersSorted().stream()
-                    .filter(order -> order.getOwnerUuid().equals(player.getUniqueId()))
-                    .toList();
-            if (ownedOrders.isEmpty()) {
-                player.sendMessage(ChatColor.RED + "You have no orders to trust players on.");
+            if (target.getUniqueId().equals(player.getUniqueId())) {
+                player.sendMessage(ChatColor.RED + "You cannot trust yourself.");
                 return true;
             }
-            for (Order order : ownedOrders) {
-                orderManager.addTrustedPlayer(order, target);
+            if (!orderManager.trustPlayer(player, target)) {
+                player.sendMessage(ChatColor.YELLOW + target.getName() + " is already trusted.");
+                return true;
             }
             storageManager.requestSaveAsync(orderManager);
-            player.sendMessage(ChatColor.GREEN + target.getName() + " can now collect items for your orders.");
+            player.sendMessage(ChatColor.GREEN + target.getName() + " can now collect items for all of your orders.");
+            return true;
+        }
+        if (args[0].equalsIgnoreCase("untrust")) {
+            if (args.length < 2) {
+                player.sendMessage(ChatColor.RED + "Usage: /orders untrust <player>");
+                return true;
+            }
+            OfflinePlayer target = findTrustedPlayer(player, args[1]);
+            if (target == null || !orderManager.untrustPlayer(player, target)) {
+                player.sendMessage(ChatColor.RED + args[1] + " is not trusted.");
+                return true;
+            }
+            storageManager.requestSaveAsync(orderManager);
+            player.sendMessage(ChatColor.GREEN + args[1] + " can no longer collect items for your orders.");
+            return true;
+        }
+        if (args[0].equalsIgnoreCase("market")) {
+            if (args.length < 2) {
+                player.sendMessage(ChatColor.RED + "Usage: /orders market <material>");
+                return true;
+            }
+            Material material = guiManager.findExactMaterial(args[1]);
+            if (material == null) {
+                player.sendMessage(ChatColor.RED + "No exact material found.");
+                sendMaterialSuggestions(player, args[1]);
+                return true;
+            }
+            sendMarketStats(player, material);
+            return true;
+        }
+        if (args[0].equalsIgnoreCase("endpoint")) {
+            handleEndpointCommand(player, args);
+            return true;
+        }
+        if (args[0].equalsIgnoreCase("staff")) {
+            handleStaffCommand(player, args);
+            return true;
+        }
+        if (args[0].equalsIgnoreCase("export")) {
+            handleExportCommand(player, args);
+            return true;
+        }
+        if (args[0].equalsIgnoreCase("record")) {
+            handleRecordCommand(player, args);
+            return true;
+        }
+        if (args[0].equalsIgnoreCase("metrics")) {
+            if (!player.hasPermission("ordersystem.staff.metrics")) {
+                player.sendMessage(ChatColor.RED + "You do not have permission to view metrics.");
+                return true;
+            }
+            sendMetrics(player);
+            return true;
+        }
+        if (args[0].equalsIgnoreCase("audit")) {
+            if (!player.hasPermission("ordersystem.staff.audit")) {
+                player.sendMessage(ChatColor.RED + "You do not have permission to view the audit log.");
+                return true;
+            }
+            if (args.length < 2) {
+                player.sendMessage(ChatColor.RED + "Usage: /orders audit <order id|player> [limit]");
+                return true;
+            }
+            int limit = 10;
+            if (args.length >= 3) {
+                try {
+                    limit = Math.max(1, Math.min(100, Integer.parseInt(args[2])));
+                } catch (NumberFormatException ex) {
+                    player.sendMessage(ChatColor.RED + "Invalid limit.");
+                    return true;
+                }
+            }
+            queryAudit(player, args[1], limit);
             return true;
         }
         player.sendMessage(ChatColor.RED + "Unknown subcommand.");
         return true;
     }
 
+    private void handleEndpointCommand(Player player, String[] args) {
+        if (!player.hasPermission("ordersystem.endpoint")) {
+            player.sendMessage(ChatColor.RED + "You do not have permission to manage delivery endpoints.");
+            return;
+        }
+        if (args.length < 2) {
+            player.sendMessage(ChatColor.RED + "Usage: /orders endpoint <order id|material|remove>");
+            return;
+        }
+        Block block = player.getTargetBlockExact(5);
+        if (block == null || !(block.getState() instanceof Container)) {
+            player.sendMessage(ChatColor.RED + "Look at a container to use it as a delivery endpoint.");
+            return;
+        }
+        DeliveryEndpointManager.Endpoint existing = deliveryEndpoints.getEndpoint(block);
+        if (args[1].equalsIgnoreCase("remove")) {
+            if (existing == null || (!existing.owner().equals(player.getUniqueId())
+                    && !player.hasPermission("ordersystem.staff.endpoint"))) {
+                player.sendMessage(ChatColor.RED + "That container is not one of your delivery endpoints.");
+                return;
+            }
+            deliveryEndpoints.unbind(block);
+            player.sendMessage(ChatColor.GREEN + "Delivery endpoint removed.");
+            return;
+        }
+        if (existing != null && !existing.owner().equals(player.getUniqueId())) {
+            player.sendMessage(ChatColor.RED + "That container is already bound by " + existing.ownerName() + ".");
+            return;
+        }
+        int maxEndpoints = getConfig().getInt("endpoints.max-per-player", 4);
+        if (existing == null && maxEndpoints >= 0 && deliveryEndpoints.countOwned(player.getUniqueId()) >= maxEndpoints) {
+            player.sendMessage(ChatColor.RED + "You already have " + maxEndpoints + " delivery endpoints.");
+            return;
+        }
+        int orderId = 0;
+        Material material;
+        try {
+            orderId = Integer.parseInt(args[1]);
+            Optional<Order> order = orderManager.getOrder(orderId);
+            if (order.isEmpty() || order.get().getStatus() != OrderStatus.ACTIVE) {
+                player.sendMessage(ChatColor.RED + "Order #" + orderId + " is not active.");
+                return;
+            }
+            material = order.get().getMaterial();
+        } catch (NumberFormatException ex) {
+            material = guiManager.findExactMaterial(args[1]);
+            if (material == null) {
+                player.sendMessage(ChatColor.RED + "No exact material found.");
+                sendMaterialSuggestions(player, args[1]);
+                return;
+            }
+        }
+        if (deliveryEndpoints.bind(player, block, orderId, material) == null) {
+            player.sendMessage(ChatColor.RED + "You do not have access to that container.");
+            return;
+        }
+        player.sendMessage(ChatColor.GREEN + "Container now delivers " + guiManager.formatMaterialName(material)
+                + (orderId > 0 ? " to order #" + orderId : " to the best bids") + ". Feed it with hoppers.");
+    }
+
+    private void handleStaffCommand(Player player, String[] args) {
+        String usage = "Usage: /orders staff <cancel|refund|expire|reprice <price>> <all|owner:<name>|material:<name>|price:<min>-<max> ...> [confirm]";
+        if (args.length < 3) {
+            player.sendMessage(ChatColor.RED + usage);
+            return;
+        }
+        StaffBulkJob.Action action;
+        try {
+            action = StaffBulkJob.Action.valueOf(args[1].toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            player.sendMessage(ChatColor.RED + usage);
+            return;
+        }
+        String permission = action == StaffBulkJob.Action.REPRICE ? "ordersystem.staff.edit" : "ordersystem.staff.cancel";
+        if (!player.hasPermission(permission)) {
+            player.sendMessage(ChatColor.RED + "You do not have permission to " + action.name().toLowerCase() + " orders.");
+            return;
+        }
+        if (staffJob != null && !staffJob.isDone()) {
+            player.sendMessage(ChatColor.RED + "A staff " + staffJob.getAction().name().toLowerCase() + " job is still running.");
+            return;
+        }
+        int index = 2;
+        long newPrice = 0;
+        if (action == StaffBulkJob.Action.REPRICE) {
+            try {
+                newPrice = Money.parse(args[index++]);
+            } catch (NumberFormatException ex) {
+                player.sendMessage(ChatColor.RED + "Invalid price.");
+                return;
+            }
+            if (newPrice <= 0) {
+                player.sendMessage(ChatColor.RED + "Price must be positive.");
+                return;
+            }
+        }
+        Predicate<OrderManager.OrderSnapshot> filter = null;
+        boolean confirm = false;
+        for (; index < args.length; index++) {
+            String arg = args[index];
+            Predicate<OrderManager.OrderSnapshot> criterion;
+            if (arg.equalsIgnoreCase("confirm")) {
+                confirm = true;
+                continue;
+            } else if (arg.equalsIgnoreCase("all")) {
+                criterion = view -> true;
+            } else if (arg.toLowerCase().startsWith("owner:")) {
+                String owner = arg.substring(6);
+                criterion = view -> owner.equalsIgnoreCase(view.ownerName());
+            } else if (arg.toLowerCase().startsWith("material:")) {
+                Material material = guiManager.findExactMaterial(arg.substring(9));
+                if (material == null) {
+                    player.sendMessage(ChatColor.RED + "No exact material found for " + arg.substring(9) + ".");
+                    return;
+                }
+                criterion = view -> view.material() == material;
+            } else if (arg.toLowerCase().startsWith("price:")) {
+                String[] range = arg.substring(6).split("-", 2);
+                long min;
+                long max;
+                try {
+                    min = range[0].isEmpty() ? 0L : Money.parse(range[0]);
+                    max = range.length < 2 || range[1].isEmpty() ? Long.MAX_VALUE : Money.parse(range[1]);
+                } catch (NumberFormatException ex) {
+                    player.sendMessage(ChatColor.RED + "Invalid price range " + arg.substring(6) + ".");
+                    return;
+                }
+                criterion = view -> view.pricePerItem() >= min && view.pricePerItem() <= max;
+            } else {
+                player.sendMessage(ChatColor.RED + usage);
+                return;
+            }
+            filter = filter == null ? criterion : filter.and(criterion);
+        }
+        if (filter == null) {
+            player.sendMessage(ChatColor.RED + "Give at least one filter, or 'all'.");
+            return;
+        }
+        if (action != StaffBulkJob.Action.EXPIRE) {
+            filter = filter.and(view -> view.status() == OrderStatus.ACTIVE);
+        }
+        StaffBulkJob job = new StaffBulkJob(orderManager, economy, action, filter, newPrice, !confirm,
+                player.getUniqueId(), player.getName());
+        staffJob = job;
+        String verb = action.name().toLowerCase();
+        player.sendMessage(ChatColor.GRAY + (confirm ? "Running " : "Dry run: checking ") + verb + " on "
+                + job.getTotal() + " matching orders...");
+        BukkitTask[] progress = new BukkitTask[1];
+        progress[0] = Bukkit.getScheduler().runTaskTimer(this, () -> {
+            if (!job.isDone()) {
+                player.sendMessage(ChatColor.GRAY + "Staff " + verb + " " + job.getProcessed() * 100 / Math.max(1, job.getTotal())
+                        + "% (" + job.getProcessed() + "/" + job.getTotal() + ")");
+            }
+        }, 40L, 40L);
+        tickScheduler.submit(TickScheduler.Priority.MAINTENANCE, job.newJob(() -> {
+            progress[0].cancel();
+            if (!job.isDryRun()) {
+                storageManager.requestSaveAsync(orderManager);
+            }
+            String pastTense = switch (action) {
+                case CANCEL -> "cancelled";
+                case REFUND -> "refunded";
+                case REPRICE -> "repriced";
+                case EXPIRE -> "expired";
+            };
+            player.sendMessage((job.isDryRun() ? ChatColor.YELLOW + "Dry run: would " + verb + " "
+                    : ChatColor.GREEN + "Done: " + pastTense + " ") + job.getAffected() + " orders ("
+                    + NumberFormatter.formatCompact(job.getUnits()) + " items), refunds $" + NumberFormatter.formatMoney(job.getRefunded())
+                    + (job.getCharged() > 0 ? ", charges $" + NumberFormatter.formatMoney(job.getCharged()) : "")
+                    + ", " + job.getSkipped() + " skipped, " + job.getElapsedMillis() + "ms.");
+            if (job.isDryRun()) {
+                player.sendMessage(ChatColor.GRAY + "Repeat the command with 'confirm' to apply it.");
+            }
+        }));
+    }
+
+    private void handleExportCommand(Player player, String[] args) {
+        if (!player.hasPermission("ordersystem.staff.export")) {
+            player.sendMessage(ChatColor.RED + "You do not have permission to export orders.");
+            return;
+        }
+        OrderExporter.Format format = OrderExporter.Format.CSV;
+        boolean gzip = false;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equalsIgnoreCase("csv")) {
+                format = OrderExporter.Format.CSV;
+            } else if (args[i].equalsIgnoreCase("jsonl") || args[i].equalsIgnoreCase("json")) {
+                format = OrderExporter.Format.JSONL;
+            } else if (args[i].equalsIgnoreCase("gzip")) {
+                gzip = true;
+            } else {
+                player.sendMessage(ChatColor.RED + "Usage: /orders export [csv|jsonl] [gzip]");
+                return;
+            }
+        }
+        OrderExporter.Export export = exportOrders(format, gzip);
+        if (export == null) {
+            player.sendMessage(ChatColor.RED + "An export is already running.");
+            return;
+        }
+        player.sendMessage(ChatColor.GRAY + "Exporting " + export.getTotal() + " orders to " + export.getFile().getName() + "...");
+        BukkitTask[] progress = new BukkitTask[1];
+        progress[0] = Bukkit.getScheduler().runTaskTimer(this, () -> {
+            if (!export.isDone()) {
+                player.sendMessage(ChatColor.GRAY + "Export " + export.getWritten() * 100 / Math.max(1, export.getTotal())
+                        + "% (" + export.getWritten() + "/" + export.getTotal() + ")");
+                return;
+            }
+            progress[0].cancel();
+            if (export.getError() != null) {
+                player.sendMessage(ChatColor.RED + "Export failed: " + export.getError());
+                return;
+            }
+            player.sendMessage(ChatColor.GREEN + "Exported " + export.getWritten() + " orders to " + export.getFile().getName()
+                    + " (" + NumberFormatter.formatCompact(export.getBytes()) + " bytes in " + export.getElapsedMillis() + "ms).");
+        }, 20L, 40L);
+    }
+
+    private void handleRecordCommand(Player player, String[] args) {
+        if (!player.hasPermission("ordersystem.staff.record")) {
+            player.sendMessage(ChatColor.RED + "You do not have permission to record workloads.");
+            return;
+        }
+        if (args.length < 2) {
+            player.sendMessage(ChatColor.RED + "Usage: /orders record <start|stop>");
+            return;
+        }
+        if (args[1].equalsIgnoreCase("start")) {
+            if (orderManager.getRecorder() != null) {
+                player.sendMessage(ChatColor.YELLOW + "Already recording to " + orderManager.getRecorder().getFile().getName() + ".");
+                return;
+            }
+            WorkloadRecorder recorder = startRecording();
+            if (recorder == null) {
+                player.sendMessage(ChatColor.RED + "Could not start recording. See the console for details.");
+                return;
+            }
+            player.sendMessage(ChatColor.GREEN + "Recording order activity to " + recorder.getFile().getName() + ".");
+            return;
+        }
+        if (args[1].equalsIgnoreCase("stop")) {
+            WorkloadRecorder recorder = stopRecording();
+            if (recorder == null) {
+                player.sendMessage(ChatColor.RED + "Not recording.");
+                return;
+            }
+            player.sendMessage(ChatColor.GREEN + "Recorded " + recorder.getRecorded() + " operations to "
+                    + recorder.getFile().getName() + ".");
+            return;
+        }
+        player.sendMessage(ChatColor.RED + "Usage: /orders record <start|stop>");
+    }
+
+    private ReplicationManager createReplication() {
+        ReplicationTransport transport;
+        String node = "node-" + getConfig().getInt("replication.node-index", 0);
+        if (getConfig().getString("replication.transport", "directory").equalsIgnoreCase("socket")) {
+            List<InetSocketAddress> peers = new ArrayList<>();
+            for (String peer : getConfig().getStringList("replication.peers")) {
+                int colon = peer.lastIndexOf(':');
+                try {
+                    peers.add(new InetSocketAddress(peer.substring(0, colon), Integer.parseInt(peer.substring(colon + 1))));
+                } catch (RuntimeException ex) {
+                    getLogger().warning("Ignoring replication peer '" + peer + "', expected host:port.");
+                }
+            }
+            transport = new SocketTransport(getLogger(), getConfig().getString("replication.bind-address", "127.0.0.1"),
+                    getConfig().getInt("replication.listen-port", 25590), peers,
+                    getConfig().getString("replication.secret", ""));
+        } else {
+            File directory = new File(getConfig().getString("replication.directory", "replication"));
+            if (!directory.isAbsolute()) {
+                directory = new File(getDataFolder(), directory.getPath());
+            }
+            transport = new DirectoryTransport(getLogger(), directory, node,
+                    getConfig().getLong("replication.poll-interval-ms", 250L),
+                    getConfig().getLong("replication.retention-minutes", 60L) * 60_000L);
+        }
+        return new ReplicationManager(getLogger(), orderManager, auditLog, economy, transport,
+                getConfig().getInt("replication.node-index", 0), getConfig().getInt("replication.node-count", 1));
+    }
+
+    private void startReplication() {
+        if (replication == null) {
+            return;
+        }
+        try {
+            replication.start();
+            getLogger().info("Replicating orders as node " + replication.getNodeIndex() + " of "
+                    + replication.getNodeCount() + " via " + replication.describeTransport() + ".");
+        } catch (IOException ex) {
+            getLogger().severe("Failed to start replication, orders stay local: " + ex.getMessage());
+        }
+    }
+
+    private WorkloadRecorder startRecording() {
+        File file = new File(new File(getDataFolder(), "traces"),
+                "trace-" + FILE_TIME_FORMAT.format(Instant.now()) + ".ost.gz");
+        WorkloadRecorder recorder = new WorkloadRecorder(getLogger(), file);
+        try {
+            recorder.start(orderManager.snapshot());
+        } catch (IOException ex) {
+            getLogger().severe("Failed to start workload trace: " + ex.getMessage());
+            return null;
+        }
+        orderManager.setRecorder(recorder);
+        getLogger().info("Recording order activity to " + file.getPath());
+        return recorder;
+    }
+
+    private WorkloadRecorder stopRecording() {
+        WorkloadRecorder recorder = orderManager.getRecorder();
+        if (recorder == null) {
+            return null;
+        }
+        orderManager.setRecorder(null);
+        recorder.stop();
+        return recorder;
+    }
+
+    private void queryAudit(Player player, String target, int limit) {
+        Predicate<AuditLog.AuditEntry> filter;
+        try {
+            int orderId = Integer.parseInt(target);
+            filter = entry -> entry.orderId() == orderId;
+        } catch (NumberFormatException ex) {
+            filter = entry -> target.equalsIgnoreCase(entry.actorName()) || target.equalsIgnoreCase(entry.detail());
+        }
+        Predicate<AuditLog.AuditEntry> finalFilter = filter;
+        int maxSegments = getConfig().getInt("audit.query-max-segments", 14);
+        player.sendMessage(ChatColor.GRAY + "Searching audit log...");
+        Bukkit.getScheduler().runTaskAsynchronously(this, () -> {
+            List<AuditLog.AuditEntry> entries = auditLog.query(finalFilter, limit, maxSegments);
+            Bukkit.getScheduler().runTask(this, () -> {
+                if (entries.isEmpty()) {
+                    player.sendMessage(ChatColor.RED + "No audit entries found for " + target + ".");
+                    return;
+                }
+                player.sendMessage(ChatColor.YELLOW + "Audit entries for " + target + " (newest first):");
+                for (AuditLog.AuditEntry entry : entries) {
+                    player.sendMessage(ChatColor.GRAY + AUDIT_TIME_FORMAT.format(Instant.ofEpochMilli(entry.timestamp())) + " "
+                            + ChatColor.WHITE + entry.action().name() + ChatColor.GRAY + " #" + entry.orderId()
+                            + " by " + (entry.actorName() == null ? "system" : entry.actorName())
+                            + (entry.amount() > 0 ? " x" + NumberFormatter.formatCompact(entry.amount()) : "")
+                            + (entry.material() == null ? "" : " " + guiManager.formatMaterialName(entry.material()))
+                            + (entry.money() > 0 ? " $" + NumberFormatter.formatMoney(entry.money()) : "")
+                            + (entry.detail() == null ? "" : " (" + entry.detail() + ")"));
+                }
+            });
+        });
+    }
+
+    private OfflinePlayer findTrustedPlayer(Player owner, String name) {
+        for (UUID trusted : orderManager.getTrustTable().getTrusted(owner.getUniqueId())) {
+            OfflinePlayer candidate = Bukkit.getOfflinePlayer(trusted);
+            if (name.equalsIgnoreCase(candidate.getName())) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private void sendMetrics(Player player) {
+        player.sendMessage(ChatColor.YELLOW + "OrderSystem metrics:");
+        player.sendMessage(ChatColor.GRAY + "Scheduler: budget " + TimeUnit.NANOSECONDS.toMillis(tickScheduler.getBudgetNanos()) + "ms, "
+                + tickScheduler.getJobsRun() + " jobs over " + tickScheduler.getTicks() + " ticks, "
+                + tickScheduler.getYields() + " yields, " + tickScheduler.getOverruns() + " overruns, worst tick "
+                + TimeUnit.NANOSECONDS.toMicros(tickScheduler.getWorstTickNanos()) / 1000D + "ms");
+        SaveScheduler saves = storageManager.getSaveScheduler();
+        player.sendMessage(ChatColor.GRAY + "Saves: " + saves.getRequests() + " requests, " + saves.getWrites() + " writes ("
+                + String.format("%.1f", saves.getCoalescingRatio()) + "x coalesced), " + saves.getReruns() + " reruns, " + saves.getFailures() + " failed, avg "
+                + TimeUnit.NANOSECONDS.toMillis(saves.getAverageWriteNanos()) + "ms, max "
+                + TimeUnit.NANOSECONDS.toMillis(saves.getMaxWriteNanos()) + "ms, unsaved for " + saves.getStalenessMillis() + "ms");
+        if (storageManager.isSavingDisabled()) {
+            player.sendMessage(ChatColor.RED + "Saving is disabled: no orders snapshot could be loaded. See the server log.");
+        }
+        if (replication != null) {
+            player.sendMessage(ChatColor.GRAY + "Replication: node " + replication.getNodeIndex() + "/" + replication.getNodeCount()
+                    + " via " + replication.describeTransport() + ", sent " + replication.getSentRecords() + " changes in "
+                    + replication.getSentBatches() + " batches, received " + replication.getReceivedBatches() + " batches ("
+                    + replication.getRejectedBatches() + " rejected, " + replication.getPendingBatches() + " pending), applied "
+                    + replication.getAppliedRecords() + ", " + replication.getStaleRecords() + " stale, "
+                    + replication.getConflicts() + " conflicts");
+        }
+        String startup = startupLoader.getReport();
+        player.sendMessage(ChatColor.GRAY + "Startup: " + (startup == null ? "loading orders..." : startup));
+        SnapshotFile snapshot = storageManager.getSnapshotFile();
+        player.sendMessage(ChatColor.GRAY + "Snapshot: " + NumberFormatter.formatCompact(snapshot.getLastWrittenBytes() / 1024)
+                + " KB written from " + NumberFormatter.formatCompact(snapshot.getLastRawBytes() / 1024) + " KB, "
+                + snapshot.getBackupsPresent() + "/" + snapshot.getBackupCount() + " backups, "
+                + snapshot.getFallbacks() + " recoveries from backup");
+        player.sendMessage(ChatColor.GRAY + "Completion: " + completions.getMaterialCount() + " materials, "
+                + completions.getCollectibleCount() + " collectible orders of " + completions.getCollectibleOwnerCount()
+                + " owners, " + completions.getLookups() + " lookups averaging "
+                + TimeUnit.NANOSECONDS.toMicros(completions.getAverageLookupNanos()) + "us");
+        ClickLimiter clicks = guiManager.getClickLimiter();
+        player.sendMessage(ChatColor.GRAY + "GUI clicks: " + clicks.getAllowed() + " allowed, " + clicks.getRejected()
+                + " rate-limited, " + clicks.getCoalesced() + " coalesced, " + clicks.getCached() + " refreshes from cache, "
+                + guiManager.getBoardRenders() + " board renders");
+        long scanStart = System.nanoTime();
+        OrderColumns.Totals totals = orderManager.columns().totals();
+        long scanMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scanStart);
+        player.sendMessage(ChatColor.GRAY + "Order table: " + totals.orders() + " orders ("
+                + totals.byStatus().get(OrderStatus.ACTIVE) + " active, " + totals.byStatus().get(OrderStatus.COMPLETED)
+                + " completed, " + totals.byStatus().get(OrderStatus.CANCELLED) + " cancelled) from " + totals.owners()
+                + " owners, " + NumberFormatter.formatCompact(totals.openUnits()) + " open units worth $"
+                + NumberFormatter.formatMoney(totals.openValue()) + ", scanned in " + scanMicros + "us");
+        player.sendMessage(ChatColor.GRAY + "Queued: " + tickScheduler.getQueuedJobs(TickScheduler.Priority.INTERACTIVE) + " interactive, "
+                + tickScheduler.getQueuedJobs(TickScheduler.Priority.DELIVERY) + " delivery, "
+                + tickScheduler.getQueuedJobs(TickScheduler.Priority.MAINTENANCE) + " maintenance");
+        long contentions = orderManager.getLockContentions();
+        player.sendMessage(ChatColor.GRAY + "Order locks: " + orderManager.getLockAcquisitions() + " acquisitions, "
+                + contentions + " contended, avg wait "
+                + TimeUnit.NANOSECONDS.toMicros(contentions == 0 ? 0L : orderManager.getLockWaitNanos() / contentions)
+                + "us, max " + TimeUnit.NANOSECONDS.toMicros(orderManager.getMaxLockWaitNanos()) + "us");
+        player.sendMessage(ChatColor.GRAY + "Endpoints: " + deliveryEndpoints.getEndpoints().size() + " bound, "
+                + deliveryEndpoints.getDirtyCount() + " pending, " + deliveryEndpoints.getBatches() + " batches settled "
+                + NumberFormatter.formatCompact(deliveryEndpoints.getUnitsSettled()) + " items for $"
+                + NumberFormatter.formatMoney(deliveryEndpoints.getMoneySettled()));
+        DeliveryExtractor extractor = guiManager.getDeliveryExtractor();
+        player.sendMessage(ChatColor.GRAY + "Deliveries: " + orderManager.getReservedOrderCount() + " orders with open reservations, "
+                + extractor.getExtractions() + " extractions, avg " + TimeUnit.NANOSECONDS.toMicros(extractor.getAverageNanos())
+                + "us, max " + TimeUnit.NANOSECONDS.toMicros(extractor.getMaxNanos()) + "us, "
+                + extractor.getShulkersRewritten() + "/" + extractor.getShulkersScanned() + " shulkers rewritten");
+        StaffBulkJob job = staffJob;
+        if (job != null && !job.isDone()) {
+            player.sendMessage(ChatColor.GRAY + "Staff job: " + job.getAction().name().toLowerCase() + (job.isDryRun() ? " (dry run) " : " ")
+                    + job.getProcessed() + "/" + job.getTotal() + " orders");
+        }
+        OrderExporter.Export export = orderExporter.getRunning();
+        if (export != null) {
+            player.sendMessage(ChatColor.GRAY + "Export: " + export.getWritten() + "/" + export.getTotal() + " orders to "
+                    + export.getFile().getName());
+        }
+        player.sendMessage(ChatColor.GRAY + "Mailbox: " + mailbox.getPendingCount() + " owners with pending digests, "
+                + mailbox.getDigestsSent() + " digests sent");
+        OrderEventBus eventBus = orderManager.getEventBus();
+        player.sendMessage(ChatColor.GRAY + "Events: " + eventBus.getPosted() + " changes, " + eventBus.getNotified()
+                + " notifications (" + String.format("%.1f", eventBus.getPosted() / (double) Math.max(1L, eventBus.getNotified()))
+                + "x coalesced), " + eventBus.getListenerCount() + " listeners");
+        player.sendMessage(ChatColor.GRAY + "API: " + apiService.getQueries() + " queries, "
+                + apiService.getBulkDeliveries() + " bulk deliveries");
+        WorkloadRecorder recorder = orderManager.getRecorder();
+        player.sendMessage(ChatColor.GRAY + "Recorder: " + (recorder == null ? "off"
+                : recorder.getRecorded() + " operations to " + recorder.getFile().getName()));
+    }
+
+    private void sendMarketStats(Player player, Material material) {
+        long now = System.currentTimeMillis();
+        player.sendMessage(ChatColor.YELLOW + "Market for " + guiManager.formatMaterialName(material) + ":");
+        player.sendMessage(ChatColor.GRAY + "Open demand: " + NumberFormatter.formatCompact(marketStats.getOpenDemand(material))
+                + ", last price: $" + NumberFormatter.formatMoney(marketStats.getLastPrice(material)));
+        for (MarketStats.Window window : MarketStats.Window.values()) {
+            MarketStats.WindowSummary summary = marketStats.summarize(material, window, now);
+            if (summary.trades() == 0) {
+                player.sendMessage(ChatColor.GRAY + window.getLabel() + ": no trades, "
+                        + NumberFormatter.formatCompact(summary.demandAdded()) + " ordered");
+                continue;
+            }
+            player.sendMessage(ChatColor.GRAY + window.getLabel() + ": "
+                    + NumberFormatter.formatCompact(summary.volume()) + " traded, VWAP $" + NumberFormatter.formatMoney(summary.vwap())
+                    + ", range $" + NumberFormatter.formatMoney(summary.minPrice()) + "-$" + NumberFormatter.formatMoney(summary.maxPrice())
+                    + ", " + NumberFormatter.formatCompact(summary.demandAdded()) + " ordered");
+        }
+    }
+
     @Override
     public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
         if (args.length == 1) {
-            return List.of("create", "collect", "trust").stream()
-                    .filter(option -> option.startsWith(args[0].toLowerCase()))
-                    .toList();
+            return completions.completeSubcommand(args[0]);
+        }
+        if (args.length == 2 && (args[0].equalsIgnoreCase("create") || args[0].equalsIgnoreCase("search")
+                || args[0].equalsIgnoreCase("market"))) {
+            return completions.completeMaterial(args[1]);
+        }
+        if (args.length == 2 && args[0].equalsIgnoreCase("collect") && sender instanceof Player player) {
+            return completions.completeCollectible(player, args[1]);
         }
         if (args.length == 2 && args[0].equalsIgnoreCase("trust")) {
             return Bukkit.getOnlinePlayers().stream()
@@ -321,6 +1026,17 @@ public class OrderSystemPlugin extends JavaPlugin implements Listener, TabComple
                     .sorted()
                     .toList();
         }
+        if (args.length == 2 && args[0].equalsIgnoreCase("untrust") && sender instanceof Player player) {
+            List<String> names = new ArrayList<>();
+            for (UUID trusted : orderManager.getTrustTable().getTrusted(player.getUniqueId())) {
+                String name = Bukkit.getOfflinePlayer(trusted).getName();
+                if (name != null && name.toLowerCase().startsWith(args[1].toLowerCase())) {
+                    names.add(name);
+                }
+            }
+            names.sort(String.CASE_INSENSITIVE_ORDER);
+            return names;
+        }
         return List.of();
     }
 
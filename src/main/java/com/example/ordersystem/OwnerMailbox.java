@@ -0,0 +1,169 @@
+package com.example.ordersystem;
+
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Per-owner digest of deliveries to their orders, sent as one message on join or on a throttled interval
+ * instead of one message per delivery.
+ * <p>
+ * Fed from {@link OrderEventBus}, so a burst of deliveries is already coalesced per tick before it reaches a
+ * digest. Digests hold only totals and per-material unit counts and are saved alongside the orders.
+ */
+public class OwnerMailbox implements Listener {
+    private static final int FORMAT_VERSION = 1;
+    private static final int MATERIALS_SHOWN = 3;
+
+    private final OrderSystemPlugin plugin;
+    private final Map<UUID, Digest> digests = new ConcurrentHashMap<>();
+    private long digestsSent;
+
+    public OwnerMailbox(OrderSystemPlugin plugin, OrderEventBus eventBus) {
+        this.plugin = plugin;
+        eventBus.subscribe(this::onOrderChange, false);
+    }
+
+    public int getPendingCount() {
+        return digests.size();
+    }
+
+    public long getDigestsSent() {
+        return digestsSent;
+    }
+
+    private void onOrderChange(OrderEventBus.OrderChange change) {
+        if (change.delivered() <= 0 && !change.has(OrderEventBus.Change.COMPLETED)) {
+            return;
+        }
+        OrderManager.OrderSnapshot view = change.view();
+        digests.computeIfAbsent(view.ownerUuid(), key -> new Digest())
+                .add(view.material(), change.delivered(), change.paid(), change.has(OrderEventBus.Change.COMPLETED) ? 1 : 0);
+    }
+
+    @EventHandler
+    public void onJoin(PlayerJoinEvent event) {
+        Player player = event.getPlayer();
+        // Let the join messages settle so the digest is not scrolled away.
+        Bukkit.getScheduler().runTaskLater(plugin, () -> {
+            if (player.isOnline()) {
+                send(player);
+            }
+        }, 60L);
+    }
+
+    /**
+     * Sends pending digests to every online owner. Runs on the digest interval.
+     */
+    public void sendToOnline() {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            send(player);
+        }
+    }
+
+    private void send(Player player) {
+        Digest digest = digests.remove(player.getUniqueId());
+        if (digest == null) {
+            return;
+        }
+        digestsSent++;
+        synchronized (digest) {
+            if (digest.units > 0) {
+                List<Map.Entry<Material, Long>> materials = new ArrayList<>(digest.unitsByMaterial.entrySet());
+                materials.sort(Map.Entry.<Material, Long>comparingByValue().reversed());
+                String top = materials.stream()
+                        .limit(MATERIALS_SHOWN)
+                        .map(entry -> plugin.getGuiManager().formatMaterialName(entry.getKey()) + " x"
+                                + NumberFormatter.formatCompact(entry.getValue()))
+                        .collect(Collectors.joining(", "));
+                if (materials.size() > MATERIALS_SHOWN) {
+                    top += ", +" + (materials.size() - MATERIALS_SHOWN) + " more";
+                }
+                player.sendMessage(ChatColor.YELLOW + "Since your last update, suppliers delivered "
+                        + NumberFormatter.formatCompact(digest.units) + " items to your orders (" + top + ") for $"
+                        + NumberFormatter.formatMoney(digest.paid) + ".");
+            }
+            if (digest.completions > 0) {
+                player.sendMessage(ChatColor.GREEN + String.valueOf(digest.completions)
+                        + (digest.completions == 1 ? " order was" : " orders were") + " completed.");
+            }
+        }
+        player.sendMessage(ChatColor.GRAY + "Use /orders to collect your items.");
+    }
+
+    public void writeTo(DataOutputStream out) throws IOException {
+        List<Map.Entry<UUID, Digest>> entries = new ArrayList<>(digests.entrySet());
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(entries.size());
+        for (Map.Entry<UUID, Digest> entry : entries) {
+            out.writeLong(entry.getKey().getMostSignificantBits());
+            out.writeLong(entry.getKey().getLeastSignificantBits());
+            Digest digest = entry.getValue();
+            synchronized (digest) {
+                out.writeLong(digest.units);
+                out.writeLong(digest.paid);
+                out.writeInt(digest.completions);
+                out.writeShort(digest.unitsByMaterial.size());
+                for (Map.Entry<Material, Long> material : digest.unitsByMaterial.entrySet()) {
+                    out.writeUTF(material.getKey().name());
+                    out.writeLong(material.getValue());
+                }
+            }
+        }
+    }
+
+    public void readFrom(DataInputStream in) throws IOException {
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported mailbox version " + version);
+        }
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            UUID owner = new UUID(in.readLong(), in.readLong());
+            Digest digest = new Digest();
+            digest.units = in.readLong();
+            digest.paid = in.readLong();
+            digest.completions = in.readInt();
+            int materials = in.readUnsignedShort();
+            for (int j = 0; j < materials; j++) {
+                Material material = Material.matchMaterial(in.readUTF());
+                long units = in.readLong();
+                if (material != null) {
+                    digest.unitsByMaterial.put(material, units);
+                }
+            }
+            digests.put(owner, digest);
+        }
+    }
+
+    private static final class Digest {
+        private final Map<Material, Long> unitsByMaterial = new EnumMap<>(Material.class);
+        private long units;
+        private long paid;
+        private int completions;
+
+        private synchronized void add(Material material, long delivered, long payout, int completed) {
+            if (delivered > 0) {
+                unitsByMaterial.merge(material, delivered, Long::sum);
+                units += delivered;
+                paid += payout;
+            }
+            completions += completed;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.ordersystem;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared table of player names so each distinct owner name is held once, however many orders reference it.
+ */
+public final class PlayerNameTable {
+    private static final Map<String, Integer> INDEXES = new ConcurrentHashMap<>();
+    private static final Object LOCK = new Object();
+    private static volatile String[] names = new String[256];
+    private static int size;
+
+    private PlayerNameTable() {
+    }
+
+    public static int intern(String name) {
+        String key = name == null ? "Unknown" : name;
+        Integer index = INDEXES.get(key);
+        if (index != null) {
+            return index;
+        }
+        synchronized (LOCK) {
+            index = INDEXES.get(key);
+            if (index != null) {
+                return index;
+            }
+            String[] table = names;
+            if (size == table.length) {
+                table = Arrays.copyOf(table, table.length * 2);
+            }
+            table[size] = key;
+            // Publish the slot before the index can be observed by readers.
+            names = table;
+            INDEXES.put(key, size);
+            return size++;
+        }
+    }
+
+    public static String name(int index) {
+        return names[index];
+    }
+
+    public static int size() {
+        synchronized (LOCK) {
+            return size;
+        }
+    }
+}
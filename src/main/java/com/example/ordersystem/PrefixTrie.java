@@ -0,0 +1,158 @@
+package com.example.ordersystem;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A character trie mapping keys to completion strings, for prefix lookups on every keystroke.
+ * <p>
+ * Completions are stored once when a key is added, so a lookup allocates nothing per candidate: it walks to the
+ * prefix node and collects up to {@code limit} stored strings, shortest key first and alphabetically among keys
+ * of equal length. For decimal order ids that is numeric order. Each node counts the keys below it, so empty
+ * branches are skipped. Not thread-safe; callers confine a trie to one thread or synchronize on it.
+ */
+public class PrefixTrie {
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final Node root = new Node();
+
+    /**
+     * Adds {@code key}, replacing the completion of an existing key.
+     */
+    public void add(String key, String completion) {
+        Node node = root;
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.childOrCreate(key.charAt(i));
+            path[i + 1] = node;
+        }
+        boolean added = node.completion == null;
+        node.completion = completion;
+        for (int depth = 0; depth < path.length; depth++) {
+            Node step = path[depth];
+            step.height = Math.max(step.height, key.length() - depth);
+            if (added) {
+                step.count++;
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if the key was present
+     */
+    public boolean remove(String key) {
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.child(key.charAt(i));
+            if (node == null) {
+                return false;
+            }
+            path[i + 1] = node;
+        }
+        if (node.completion == null) {
+            return false;
+        }
+        node.completion = null;
+        for (int depth = path.length - 1; depth >= 0; depth--) {
+            path[depth].count--;
+            if (depth > 0 && path[depth].count == 0) {
+                path[depth - 1].removeChild(key.charAt(depth - 1));
+            }
+        }
+        return true;
+    }
+
+    public int size() {
+        return root.count;
+    }
+
+    public boolean isEmpty() {
+        return root.count == 0;
+    }
+
+    /**
+     * Appends up to {@code limit} completions of keys starting with {@code prefix} to {@code out}.
+     *
+     * @return how many were appended
+     */
+    public int complete(String prefix, int limit, List<String> out) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i));
+        }
+        if (node == null || limit <= 0) {
+            return 0;
+        }
+        int before = out.size();
+        int wanted = Math.min(limit, node.count);
+        // Visit one key length at a time so shorter keys come first.
+        for (int depth = 0; depth <= node.height && out.size() - before < wanted; depth++) {
+            collect(node, depth, before + wanted, out);
+        }
+        return out.size() - before;
+    }
+
+    private static void collect(Node node, int depth, int until, List<String> out) {
+        if (depth == 0) {
+            if (node.completion != null) {
+                out.add(node.completion);
+            }
+            return;
+        }
+        for (int i = 0; i < node.size && out.size() < until; i++) {
+            Node child = node.children[i];
+            if (child.height >= depth - 1) {
+                collect(child, depth - 1, until, out);
+            }
+        }
+    }
+
+    private static final class Node {
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private int size;
+        private int count;
+        // Longest key below this node, relative to it. Not lowered on removal, which only costs a wasted visit.
+        private int height;
+        private String completion;
+
+        private Node child(char key) {
+            int index = Arrays.binarySearch(keys, 0, size, key);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private Node childOrCreate(char key) {
+            int index = Arrays.binarySearch(keys, 0, size, key);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertAt = -index - 1;
+            if (size == keys.length) {
+                int capacity = Math.max(2, size * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(keys, insertAt, keys, insertAt + 1, size - insertAt);
+            System.arraycopy(children, insertAt, children, insertAt + 1, size - insertAt);
+            Node child = new Node();
+            keys[insertAt] = key;
+            children[insertAt] = child;
+            size++;
+            return child;
+        }
+
+        private void removeChild(char key) {
+            int index = Arrays.binarySearch(keys, 0, size, key);
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(children, index + 1, children, index, size - index - 1);
+            children[--size] = null;
+        }
+    }
+}
@@ -0,0 +1,628 @@
+package com.example.ordersystem;
+
+import net.milkbowl.vault.economy.Economy;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Shares the order book between servers as a feed of order changes carried by a {@link ReplicationTransport}.
+ * <p>
+ * Every order belongs to the server that created it, its home, which is stored with the order. Orders saved
+ * before replication was enabled are claimed by the local server when it starts. Ids are strided per server so
+ * they never collide. Only the home publishes an order's state, each time under a higher version, and other
+ * servers apply a state only if it is newer than the copy they hold and comes from that copy's home.
+ * <p>
+ * A copy never moves money or goods itself. Deliveries and staff changes made on a copy are sent to the home,
+ * which settles them in arrival order through the shared economy and publishes the result:
+ * <ul>
+ *     <li>a delivery pays the supplier for the units still open; units beyond those, delivered concurrently on
+ *     two servers, stay with the owner as stored goods unpaid and are audited as a
+ *     {@link AuditLog.Action#CONFLICT}</li>
+ *     <li>a staff cancel, reprice or removal is applied as if made on the home, which pays refunds and charges
+ *     the owner; one the order's current state no longer allows is audited as a conflict and dropped</li>
+ * </ul>
+ * Stored goods are collected on the home only.
+ * Servers ask for a full sync when they start and send one every sync interval. It repairs anything the
+ * transport dropped and removes copies of orders their home no longer has.
+ */
+public class ReplicationManager {
+    private static final int MAGIC = 0x4F535250; // "OSRP"
+    private static final int PROTOCOL_VERSION = 3;
+
+    private enum Kind {
+        STATE,
+        REMOVED,
+        DELIVER,
+        CANCEL,
+        REPRICE,
+        REMOVE,
+        SYNC_REQUEST
+    }
+
+    /**
+     * One change. {@code units} is the delivered quantity, or 1 for a cancel with refund; {@code money} is a new
+     * price per item. A forwarded change is addressed to the order's {@code home} and names the supplier or staff
+     * member behind it as {@code actor}.
+     */
+    private record Record(Kind kind, int orderId, long version, OrderManager.OrderSnapshot state, int home, long units,
+                          long money, UUID actor, String actorName) {
+        private Record(Kind kind, int orderId, long version, OrderManager.OrderSnapshot state) {
+            this(kind, orderId, version, state, Order.NO_HOME, 0L, 0L, null, null);
+        }
+    }
+
+    private record Batch(int origin, boolean full, List<Record> records) {
+    }
+
+    private final Logger logger;
+    private final OrderManager orderManager;
+    private final AuditLog auditLog;
+    private final Economy economy;
+    private final ReplicationTransport transport;
+    private final int nodeIndex;
+    private final int nodeCount;
+    // Version of the newest state applied or published per order.
+    private final Map<Integer, Long> versions = new ConcurrentHashMap<>();
+    private final Queue<Batch> inbound = new ConcurrentLinkedQueue<>();
+    // Ids already reported as colliding, so each is logged once. Main thread only.
+    private final Set<Integer> collisions = new HashSet<>();
+    // Filled by the event bus listener and drained by tick(), both on the main thread.
+    private final List<Record> outbound = new ArrayList<>();
+    // Changes made to copies, queued from any thread and sent by tick().
+    private final Queue<Record> forwarded = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean fullSyncDue = new AtomicBoolean();
+    private final AtomicLong sentBatches = new AtomicLong();
+    private final AtomicLong sentRecords = new AtomicLong();
+    private final AtomicLong receivedBatches = new AtomicLong();
+    private final AtomicLong rejectedBatches = new AtomicLong();
+    private final AtomicLong appliedRecords = new AtomicLong();
+    private final AtomicLong staleRecords = new AtomicLong();
+    private final AtomicLong conflicts = new AtomicLong();
+    private volatile boolean started;
+
+    public ReplicationManager(Logger logger, OrderManager orderManager, AuditLog auditLog, Economy economy,
+                              ReplicationTransport transport, int nodeIndex, int nodeCount) {
+        if (nodeCount < 1 || nodeIndex < 0 || nodeIndex >= nodeCount) {
+            throw new IllegalArgumentException("node-index must be in [0, node-count)");
+        }
+        this.logger = logger;
+        this.orderManager = orderManager;
+        this.auditLog = auditLog;
+        this.economy = economy;
+        this.transport = transport;
+        this.nodeIndex = nodeIndex;
+        this.nodeCount = nodeCount;
+        orderManager.setIdStride(nodeIndex, nodeCount);
+        orderManager.claimHome(nodeIndex);
+        orderManager.getEventBus().subscribe(this::onOrderChange, false);
+    }
+
+    /**
+     * Starts the transport, then asks the other servers for their orders and offers this server's own.
+     * Call once saved orders are loaded.
+     */
+    public void start() throws IOException {
+        int claimed = orderManager.claimHome(nodeIndex);
+        if (claimed > 0) {
+            logger.info("Claimed " + claimed + " orders saved without a home node as homed on " + nodeName(nodeIndex) + ".");
+        }
+        transport.start(this::receive);
+        // Only once the home can be reached do copies stop settling locally.
+        orderManager.setHomeLink(new Forwarder());
+        started = true;
+        outbound.add(new Record(Kind.SYNC_REQUEST, 0, 0L, null));
+        fullSyncDue.set(true);
+    }
+
+    public void shutdown() {
+        started = false;
+        transport.close();
+    }
+
+    /**
+     * Schedules a full sync of this server's orders for the next tick.
+     */
+    public void requestFullSync() {
+        fullSyncDue.set(true);
+    }
+
+    public boolean isHome(int orderId) {
+        OrderManager.OrderSnapshot view = orderManager.snapshot().get(orderId);
+        return view != null && view.homeNode() == nodeIndex;
+    }
+
+    /**
+     * Applies what arrived from other servers and sends what changed here. Runs every tick on the main thread,
+     * after the event bus flushed.
+     */
+    public void tick() {
+        if (!started) {
+            return;
+        }
+        Batch batch;
+        while ((batch = inbound.poll()) != null) {
+            apply(batch);
+        }
+        if (fullSyncDue.getAndSet(false)) {
+            sendFullSync();
+        }
+        Record record;
+        while ((record = forwarded.poll()) != null) {
+            outbound.add(record);
+        }
+        if (!outbound.isEmpty()) {
+            send(false, new ArrayList<>(outbound));
+            outbound.clear();
+        }
+    }
+
+    private void onOrderChange(OrderEventBus.OrderChange change) {
+        if (!started) {
+            return;
+        }
+        // Copies only change when their home publishes; changes made to them were forwarded instead.
+        if (change.view().homeNode() == nodeIndex) {
+            outbound.add(publishedRecord(change.orderId()));
+        }
+    }
+
+    /**
+     * The current state of an order this server is home to, under a new version.
+     */
+    private Record publishedRecord(int id) {
+        long version = versions.merge(id, System.currentTimeMillis() << 16, (old, clock) -> Math.max(old + 1, clock));
+        OrderManager.OrderSnapshot current = orderManager.snapshot().get(id);
+        if (current == null) {
+            versions.remove(id);
+            return new Record(Kind.REMOVED, id, version, null);
+        }
+        return new Record(Kind.STATE, id, version, current);
+    }
+
+    private void sendFullSync() {
+        List<Record> records = new ArrayList<>();
+        orderManager.snapshot().forEach(view -> {
+            if (view.homeNode() == nodeIndex) {
+                // Orders already published keep their version, so copies that are current skip them cheaply.
+                Long version = versions.get(view.id());
+                records.add(version == null ? publishedRecord(view.id())
+                        : new Record(Kind.STATE, view.id(), version, view));
+            }
+        });
+        send(true, records);
+    }
+
+    private void apply(Batch batch) {
+        String node = nodeName(batch.origin());
+        Set<Integer> synced = batch.full() ? new HashSet<>() : null;
+        for (Record record : batch.records()) {
+            int id = record.orderId();
+            switch (record.kind()) {
+                case STATE -> {
+                    if (synced != null) {
+                        synced.add(id);
+                    }
+                    if (record.state().homeNode() != batch.origin()) {
+                        staleRecords.incrementAndGet();
+                        continue;
+                    }
+                    if (!isHomedAt(id, batch.origin())) {
+                        reportCollision(id, node);
+                        continue;
+                    }
+                    if (record.version() <= versions.getOrDefault(id, 0L)) {
+                        staleRecords.incrementAndGet();
+                        continue;
+                    }
+                    versions.put(id, record.version());
+                    orderManager.applyReplicatedState(record.state());
+                }
+                case REMOVED -> {
+                    if (!isHomedAt(id, batch.origin())) {
+                        staleRecords.incrementAndGet();
+                        continue;
+                    }
+                    versions.remove(id);
+                    orderManager.applyReplicatedRemoval(id);
+                }
+                case DELIVER, CANCEL, REPRICE, REMOVE -> {
+                    if (record.home() != nodeIndex) {
+                        continue;
+                    }
+                    if (!settleForwarded(record, node)) {
+                        staleRecords.incrementAndGet();
+                        continue;
+                    }
+                }
+                case SYNC_REQUEST -> fullSyncDue.set(true);
+            }
+            appliedRecords.incrementAndGet();
+        }
+        if (synced != null) {
+            pruneCopies(batch.origin(), synced);
+        }
+    }
+
+    /**
+     * Applies a change made to a copy of an order homed here, paying the supplier or settling with the owner as
+     * the same change made here would.
+     *
+     * @return {@code false} if the order is gone
+     */
+    private boolean settleForwarded(Record record, String node) {
+        int id = record.orderId();
+        OrderManager.OrderSnapshot view = orderManager.snapshot().get(id);
+        if (view == null) {
+            if (record.kind() == Kind.DELIVER) {
+                // The supplier's goods were taken on the copy; leave a trace for staff to compensate them.
+                conflicts.incrementAndGet();
+                auditLog.record(AuditLog.Action.CONFLICT, id, record.actor(), record.actorName(), null, record.units(),
+                        0L, "unpaid delivery via " + node + " after the order was removed");
+            }
+            return false;
+        }
+        switch (record.kind()) {
+            case DELIVER -> {
+                OrderManager.DeliveryResult result = orderManager.applyRemoteDelivery(id, record.actor(),
+                        record.actorName(), record.units(), node);
+                if (!result.isSuccess()) {
+                    return false;
+                }
+                if (result.getPayout() > 0) {
+                    economy.depositPlayer(Bukkit.getOfflinePlayer(record.actor()), Money.toMajor(result.getPayout()));
+                }
+                if (result.getAmountDelivered() < record.units()) {
+                    conflicts.incrementAndGet();
+                }
+            }
+            case CANCEL -> {
+                boolean refund = record.units() != 0;
+                long unspent = orderManager.cancelOrder(id, refund, record.actor(), record.actorName());
+                if (unspent < 0) {
+                    rejectStaffChange(view, node, "cancel");
+                } else if (refund && unspent > 0) {
+                    economy.depositPlayer(Bukkit.getOfflinePlayer(view.ownerUuid()), Money.toMajor(unspent));
+                }
+            }
+            case REPRICE -> {
+                boolean repriced = orderManager.repriceOrder(id, record.money(),
+                        delta -> settleReprice(view.ownerUuid(), delta), record.actor(), record.actorName());
+                if (!repriced) {
+                    rejectStaffChange(view, node, "reprice");
+                }
+            }
+            case REMOVE -> {
+                if (orderManager.removeOrder(id, record.actor(), record.actorName()) == null) {
+                    rejectStaffChange(view, node, "removal");
+                }
+            }
+            default -> {
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Refunds the owner for a lower price, or charges them for a higher one if they can afford it.
+     */
+    private boolean settleReprice(UUID owner, long delta) {
+        if (delta < 0) {
+            economy.depositPlayer(Bukkit.getOfflinePlayer(owner), Money.toMajor(-delta));
+        } else if (delta > 0) {
+            if (!economy.has(Bukkit.getOfflinePlayer(owner), Money.toMajor(delta))) {
+                return false;
+            }
+            economy.withdrawPlayer(Bukkit.getOfflinePlayer(owner), Money.toMajor(delta));
+        }
+        return true;
+    }
+
+    /**
+     * Drops a staff change made on a copy that the order's current state no longer allows, e.g. a cancel of an
+     * order that completed meanwhile, and republishes the state so the server that made it converges.
+     */
+    private void rejectStaffChange(OrderManager.OrderSnapshot view, String node, String change) {
+        conflicts.incrementAndGet();
+        auditLog.record(AuditLog.Action.CONFLICT, view.id(), null, node, view.material(), 0L, 0L,
+                "staff " + change + " rejected");
+        outbound.add(publishedRecord(view.id()));
+    }
+
+    /**
+     * Another server publishes an order under an id this server uses for a different order, which happens when
+     * servers that ran without replication saved orders under the same ids. The local order is kept.
+     */
+    private void reportCollision(int id, String node) {
+        conflicts.incrementAndGet();
+        if (collisions.add(id)) {
+            logger.warning("Order #" + id + " from " + node + " has the same id as an order homed elsewhere; "
+                    + "keeping this server's copy. Orders saved before replication was enabled may share ids.");
+        }
+    }
+
+    /**
+     * Drops copies of orders homed at {@code origin} that its full sync no longer lists. Orders created here and
+     * orders without a recorded home are never dropped.
+     */
+    private void pruneCopies(int origin, Set<Integer> synced) {
+        List<Integer> gone = new ArrayList<>();
+        orderManager.snapshot().forEach(view -> {
+            int home = view.homeNode();
+            if (home == origin && home != nodeIndex && home != Order.NO_HOME && !synced.contains(view.id())) {
+                gone.add(view.id());
+            }
+        });
+        for (int id : gone) {
+            versions.remove(id);
+            orderManager.applyReplicatedRemoval(id);
+        }
+    }
+
+    /**
+     * Whether {@code node} may replace this server's copy of an order: true if there is no copy or the copy records
+     * {@code node} as its home, so orders created here or without a home are never overwritten.
+     */
+    private boolean isHomedAt(int orderId, int node) {
+        OrderManager.OrderSnapshot local = orderManager.snapshot().get(orderId);
+        return local == null || local.homeNode() == node;
+    }
+
+    private static String nodeName(int node) {
+        return "node-" + node;
+    }
+
+    private void send(boolean full, List<Record> records) {
+        try {
+            transport.send(encode(full, records));
+            sentBatches.incrementAndGet();
+            sentRecords.addAndGet(records.size());
+        } catch (IOException ex) {
+            logger.warning("Failed to encode replication batch: " + ex.getMessage());
+        }
+    }
+
+    private void receive(byte[] data) {
+        try {
+            Batch batch = decode(data);
+            if (batch.origin() != nodeIndex) {
+                receivedBatches.incrementAndGet();
+                inbound.add(batch);
+            }
+        } catch (IOException | RuntimeException ex) {
+            rejectedBatches.incrementAndGet();
+            logger.warning("Dropped malformed replication batch: " + ex.getMessage());
+        }
+    }
+
+    private byte[] encode(boolean full, List<Record> records) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + records.size() * 64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(PROTOCOL_VERSION);
+        out.writeInt(nodeCount);
+        out.writeInt(nodeIndex);
+        out.writeBoolean(full);
+        out.writeInt(records.size());
+        for (Record record : records) {
+            out.writeByte(record.kind().ordinal());
+            out.writeInt(record.orderId());
+            out.writeLong(record.version());
+            switch (record.kind()) {
+                case STATE -> writeState(out, record.state());
+                case DELIVER, CANCEL, REPRICE, REMOVE -> {
+                    out.writeShort(record.home());
+                    out.writeLong(record.units());
+                    out.writeLong(record.money());
+                    writeActor(out, record.actor(), record.actorName());
+                }
+                default -> {
+                }
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private Batch decode(byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("not a replication batch");
+        }
+        int protocol = in.readInt();
+        if (protocol != PROTOCOL_VERSION) {
+            throw new IOException("unsupported protocol version " + protocol);
+        }
+        int senderCount = in.readInt();
+        if (senderCount != nodeCount) {
+            throw new IOException("sender has node-count " + senderCount + ", this server " + nodeCount);
+        }
+        int origin = in.readInt();
+        boolean full = in.readBoolean();
+        int count = in.readInt();
+        List<Record> records = new ArrayList<>(Math.min(count, 1 << 16));
+        Kind[] kinds = Kind.values();
+        for (int i = 0; i < count; i++) {
+            Kind kind = kinds[in.readUnsignedByte()];
+            int id = in.readInt();
+            long version = in.readLong();
+            OrderManager.OrderSnapshot state = null;
+            long units = 0L;
+            long money = 0L;
+            int home = Order.NO_HOME;
+            UUID actor = null;
+            String actorName = null;
+            switch (kind) {
+                case STATE -> state = readState(in, id);
+                case DELIVER, CANCEL, REPRICE, REMOVE -> {
+                    home = in.readShort();
+                    units = in.readLong();
+                    money = in.readLong();
+                    if (in.readBoolean()) {
+                        actor = new UUID(in.readLong(), in.readLong());
+                    }
+                    actorName = in.readUTF();
+                }
+                default -> {
+                }
+            }
+            if (kind == Kind.DELIVER && actor == null) {
+                throw new IOException("delivery without a supplier");
+            }
+            if (state != null || kind != Kind.STATE) {
+                records.add(new Record(kind, id, version, state, home, units, money, actor, actorName));
+            }
+        }
+        return new Batch(origin, full, records);
+    }
+
+    private static void writeActor(DataOutputStream out, UUID actor, String actorName) throws IOException {
+        out.writeBoolean(actor != null);
+        if (actor != null) {
+            out.writeLong(actor.getMostSignificantBits());
+            out.writeLong(actor.getLeastSignificantBits());
+        }
+        out.writeUTF(actorName == null ? "" : actorName);
+    }
+
+    private static void writeState(DataOutputStream out, OrderManager.OrderSnapshot state) throws IOException {
+        out.writeLong(state.ownerUuid().getMostSignificantBits());
+        out.writeLong(state.ownerUuid().getLeastSignificantBits());
+        out.writeUTF(state.ownerName());
+        out.writeUTF(state.material().name());
+        out.writeLong(state.totalQuantity());
+        out.writeLong(state.remainingQuantity());
+        out.writeLong(state.totalEscrow());
+        out.writeLong(state.totalPaid());
+        out.writeLong(state.createdTimestamp());
+        out.writeLong(state.expirationTimestamp());
+        out.writeUTF(state.status().name());
+        out.writeLong(state.storedQuantity());
+        out.writeShort(state.homeNode());
+    }
+
+    /**
+     * Reads a state, or returns {@code null} for a material or status this server does not know.
+     */
+    private static OrderManager.OrderSnapshot readState(DataInputStream in, int id) throws IOException {
+        UUID owner = new UUID(in.readLong(), in.readLong());
+        String ownerName = in.readUTF();
+        Material material = Material.matchMaterial(in.readUTF());
+        long totalQuantity = in.readLong();
+        long remaining = in.readLong();
+        long escrow = in.readLong();
+        long paid = in.readLong();
+        long created = in.readLong();
+        long expiration = in.readLong();
+        String statusName = in.readUTF();
+        long stored = in.readLong();
+        int home = in.readShort();
+        OrderStatus status;
+        try {
+            status = OrderStatus.valueOf(statusName);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+        if (material == null) {
+            return null;
+        }
+        return new OrderManager.OrderSnapshot(id, owner, ownerName, material, totalQuantity, remaining, escrow, paid,
+                created, expiration, status, stored, home);
+    }
+
+    /**
+     * Queues changes made to copies for their home.
+     */
+    private final class Forwarder implements OrderManager.HomeLink {
+        @Override
+        public void deliver(int orderId, UUID supplierUuid, String supplierName, long units) {
+            forward(Kind.DELIVER, orderId, units, 0L, supplierUuid, supplierName);
+        }
+
+        @Override
+        public void cancel(int orderId, boolean refund, UUID staffUuid, String staffName) {
+            forward(Kind.CANCEL, orderId, refund ? 1L : 0L, 0L, staffUuid, staffName);
+        }
+
+        @Override
+        public void reprice(int orderId, long pricePerItem, UUID staffUuid, String staffName) {
+            forward(Kind.REPRICE, orderId, 0L, pricePerItem, staffUuid, staffName);
+        }
+
+        @Override
+        public void remove(int orderId, UUID staffUuid, String staffName) {
+            forward(Kind.REMOVE, orderId, 0L, 0L, staffUuid, staffName);
+        }
+
+        private void forward(Kind kind, int orderId, long units, long money, UUID actor, String actorName) {
+            Order order = orderManager.getOrder(orderId).orElse(null);
+            if (order != null) {
+                forwarded.add(new Record(kind, orderId, 0L, null, order.getHomeNode(), units, money, actor, actorName));
+            }
+        }
+    }
+
+    public int getNodeIndex() {
+        return nodeIndex;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public String describeTransport() {
+        return transport.describe();
+    }
+
+    public long getSentBatches() {
+        return sentBatches.get();
+    }
+
+    public long getSentRecords() {
+        return sentRecords.get();
+    }
+
+    public long getReceivedBatches() {
+        return receivedBatches.get();
+    }
+
+    public long getRejectedBatches() {
+        return rejectedBatches.get();
+    }
+
+    public long getAppliedRecords() {
+        return appliedRecords.get();
+    }
+
+    /**
+     * Records ignored because a newer state was already applied or the order is gone.
+     */
+    public long getStaleRecords() {
+        return staleRecords.get();
+    }
+
+    public long getConflicts() {
+        return conflicts.get();
+    }
+
+    public int getPendingBatches() {
+        return inbound.size();
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.ordersystem;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Carries encoded {@link ReplicationManager} batches between servers. Delivery is best effort: batches may be
+ * lost while a peer is down, and the periodic full sync repairs what was missed.
+ */
+public interface ReplicationTransport {
+
+    /**
+     * Starts receiving. {@code receiver} is called with each batch from another server, on a transport thread.
+     */
+    void start(Consumer<byte[]> receiver) throws IOException;
+
+    /**
+     * Queues a batch for every other server. Never blocks on I/O.
+     */
+    void send(byte[] batch);
+
+    void close();
+
+    /**
+     * A short description for logs and metrics.
+     */
+    String describe();
+}
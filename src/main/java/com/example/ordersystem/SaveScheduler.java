@@ -0,0 +1,203 @@
+package com.example.ordersystem;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Debounces save requests onto a single writer thread. Every request bumps a dirty generation; a write
+ * happens once requests go quiet for the debounce window, but never later than the staleness bound after
+ * the first unsaved request. If requests arrive while a write is running, another write follows.
+ */
+public class SaveScheduler {
+    private final Logger logger;
+    private final Runnable writer;
+    private final long debounceMillis;
+    private final long maxStalenessMillis;
+    private final ScheduledExecutorService executor;
+    private final AtomicLong dirtyGeneration = new AtomicLong();
+    private volatile long savedGeneration;
+
+    // Guarded by this.
+    private long firstDirtyAt;
+    private long lastRequestAt;
+    private boolean scheduled;
+    private boolean running;
+    private int consecutiveFailures;
+    private boolean suspended;
+
+    private final LongAdder requests = new LongAdder();
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong reruns = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong totalWriteNanos = new AtomicLong();
+    private final AtomicLong maxWriteNanos = new AtomicLong();
+
+    public SaveScheduler(Logger logger, Runnable writer, long debounceMillis, long maxStalenessMillis) {
+        this.logger = logger;
+        this.writer = writer;
+        this.debounceMillis = Math.max(0L, debounceMillis);
+        this.maxStalenessMillis = Math.max(this.debounceMillis, maxStalenessMillis);
+        ScheduledThreadPoolExecutor pool = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "OrderSystem-Save");
+            thread.setDaemon(true);
+            return thread;
+        });
+        pool.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.executor = Executors.unconfigurableScheduledExecutorService(pool);
+    }
+
+    /**
+     * Records that state changed after the caller's mutation and schedules a write. Never blocks.
+     */
+    public void markDirty() {
+        dirtyGeneration.incrementAndGet();
+        requests.increment();
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            lastRequestAt = now;
+            if (firstDirtyAt == 0L) {
+                firstDirtyAt = now;
+            }
+            if (!scheduled && !running && !suspended) {
+                scheduled = true;
+                scheduleFire(debounceMillis);
+            }
+        }
+    }
+
+    /**
+     * Stops the writer thread, waiting for a write in progress. The caller is expected to save synchronously
+     * afterwards if {@link #isDirty()}.
+     */
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Stops writing for good, e.g. when saving would destroy state that failed to load. Requests still mark the
+     * state dirty but schedule nothing, and a pending write is dropped.
+     */
+    public synchronized void suspend() {
+        suspended = true;
+    }
+
+    public synchronized boolean isSuspended() {
+        return suspended;
+    }
+
+    public boolean isDirty() {
+        return dirtyGeneration.get() != savedGeneration;
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getWrites() {
+        return writes.get();
+    }
+
+    public long getReruns() {
+        return reruns.get();
+    }
+
+    public long getFailures() {
+        return failures.get();
+    }
+
+    /**
+     * Save requests per actual write; higher means more coalescing.
+     */
+    public double getCoalescingRatio() {
+        long writeCount = writes.get();
+        return writeCount == 0 ? 0D : requests.sum() / (double) writeCount;
+    }
+
+    public long getAverageWriteNanos() {
+        long writeCount = writes.get();
+        return writeCount == 0 ? 0L : totalWriteNanos.get() / writeCount;
+    }
+
+    public long getMaxWriteNanos() {
+        return maxWriteNanos.get();
+    }
+
+    public synchronized long getStalenessMillis() {
+        return firstDirtyAt == 0L ? 0L : System.currentTimeMillis() - firstDirtyAt;
+    }
+
+    private void fire() {
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            long due = Math.min(lastRequestAt + debounceMillis, firstDirtyAt + maxStalenessMillis);
+            if (suspended) {
+                scheduled = false;
+                return;
+            }
+            if (now < due) {
+                scheduleFire(due - now);
+                return;
+            }
+            scheduled = false;
+            running = true;
+            firstDirtyAt = 0L;
+        }
+        // Anything that bumps the generation after this read is either in the snapshot or triggers a rerun.
+        long target = dirtyGeneration.get();
+        long start = System.nanoTime();
+        boolean failed = false;
+        try {
+            writer.run();
+            savedGeneration = target;
+        } catch (RuntimeException ex) {
+            // The generation stays unsaved, so isDirty() holds and the write is retried below.
+            failed = true;
+            failures.incrementAndGet();
+            logger.severe("Order save failed, retrying: " + ex.getMessage());
+        }
+        long elapsed = System.nanoTime() - start;
+        writes.incrementAndGet();
+        totalWriteNanos.addAndGet(elapsed);
+        maxWriteNanos.accumulateAndGet(elapsed, Math::max);
+        synchronized (this) {
+            running = false;
+            consecutiveFailures = failed ? consecutiveFailures + 1 : 0;
+            if ((failed || dirtyGeneration.get() != target) && !scheduled && !suspended) {
+                if (!failed) {
+                    reruns.incrementAndGet();
+                }
+                scheduled = true;
+                if (firstDirtyAt == 0L) {
+                    firstDirtyAt = System.currentTimeMillis();
+                }
+                scheduleFire(failed ? retryDelay() : debounceMillis);
+            }
+        }
+    }
+
+    // Doubles with each failure in a row, up to the staleness bound.
+    private long retryDelay() {
+        long base = Math.max(1000L, debounceMillis);
+        return Math.min(Math.max(base, maxStalenessMillis), base << Math.min(consecutiveFailures - 1, 10));
+    }
+
+    private void scheduleFire(long delayMillis) {
+        try {
+            executor.schedule(this::fire, delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ex) {
+            // Shutting down; the final synchronous save picks up the dirty state.
+            scheduled = false;
+        }
+    }
+}
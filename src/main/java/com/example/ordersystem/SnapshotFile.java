@@ -0,0 +1,249 @@
+package com.example.ordersystem;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.logging.Logger;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A gzip-compressed text snapshot with a trailing CRC32C checksum, kept with a ring of rotated backups.
+ * <p>
+ * Layout: magic, format version, the gzip stream, then the CRC32C of every byte before it. Writes go to a
+ * temporary file that is synced before it replaces the snapshot, so a torn write never replaces a good file.
+ * The previous snapshot is rotated into {@code name.1 .. name.N} at most once per backup interval. Reads try
+ * the snapshot and then each backup, newest first, and return the first one that verifies and parses.
+ */
+public class SnapshotFile {
+    private static final int MAGIC = 0x4F534E50; // "OSNP"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 8;
+    private static final int TRAILER_BYTES = 4;
+
+    /**
+     * Turns verified snapshot content into a value, throwing if the content does not parse.
+     */
+    public interface Parser<T> {
+        T parse(String content) throws Exception;
+    }
+
+    public record Loaded<T>(T value, File source, int generation) {
+    }
+
+    private final Logger logger;
+    private final File file;
+    private final int backups;
+    private final long backupIntervalMillis;
+    private long lastRotationAt;
+    private long lastRawBytes;
+    private long lastWrittenBytes;
+    private int fallbacks;
+
+    public SnapshotFile(Logger logger, File file, int backups, long backupIntervalMillis) {
+        this.logger = logger;
+        this.file = file;
+        this.backups = Math.max(0, backups);
+        this.backupIntervalMillis = Math.max(0L, backupIntervalMillis);
+        File newest = backup(1);
+        this.lastRotationAt = newest.exists() ? newest.lastModified() : 0L;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Whether the snapshot or any backup exists.
+     */
+    public boolean exists() {
+        for (int generation = 0; generation <= backups; generation++) {
+            if (backup(generation).exists()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Compresses and writes {@code content}, rotating the previous snapshot into the backups when due.
+     * Called from one writer thread at a time.
+     */
+    public synchronized void write(String content) throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        byte[] raw = content.getBytes(StandardCharsets.UTF_8);
+        File tempFile = new File(parent, file.getName() + ".tmp");
+        CRC32C crc = new CRC32C();
+        try (FileOutputStream fileOut = new FileOutputStream(tempFile)) {
+            BufferedOutputStream buffered = new BufferedOutputStream(fileOut, 1 << 16);
+            CheckedOutputStream checked = new CheckedOutputStream(buffered, crc);
+            DataOutputStream header = new DataOutputStream(checked);
+            header.writeInt(MAGIC);
+            header.writeInt(FORMAT_VERSION);
+            GZIPOutputStream gzip = new GZIPOutputStream(new NonClosingOutputStream(checked), 1 << 16);
+            gzip.write(raw);
+            gzip.finish();
+            new DataOutputStream(buffered).writeInt((int) crc.getValue());
+            buffered.flush();
+            fileOut.getFD().sync();
+        }
+        lastRawBytes = raw.length;
+        lastWrittenBytes = tempFile.length();
+        rotateIfDue();
+        try {
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void rotateIfDue() throws IOException {
+        long now = System.currentTimeMillis();
+        if (backups == 0 || !file.exists() || now - lastRotationAt < backupIntervalMillis) {
+            return;
+        }
+        Files.deleteIfExists(backup(backups).toPath());
+        for (int generation = backups - 1; generation >= 1; generation--) {
+            File older = backup(generation);
+            if (older.exists()) {
+                Files.move(older.toPath(), backup(generation + 1).toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(file.toPath(), backup(1).toPath(), StandardCopyOption.REPLACE_EXISTING);
+        lastRotationAt = now;
+    }
+
+    /**
+     * Reads the newest snapshot that verifies and parses, or returns null if none does. A damaged snapshot is
+     * renamed to {@code name.corrupt} so the next save does not rotate it into the backups.
+     */
+    public synchronized <T> Loaded<T> read(Parser<T> parser) {
+        for (int generation = 0; generation <= backups; generation++) {
+            File candidate = backup(generation);
+            if (!candidate.exists()) {
+                continue;
+            }
+            try {
+                T value = parser.parse(readVerified(candidate));
+                if (generation > 0) {
+                    fallbacks++;
+                    logger.severe("Recovered " + file.getName() + " from backup " + candidate.getName()
+                            + "; changes after " + Instant.ofEpochMilli(candidate.lastModified()) + " were lost.");
+                }
+                return new Loaded<>(value, candidate, generation);
+            } catch (Exception ex) {
+                logger.warning("Snapshot " + candidate.getName() + " is unreadable (" + ex.getMessage()
+                        + "), trying an older backup.");
+                if (generation == 0) {
+                    quarantine(candidate);
+                }
+            }
+        }
+        return null;
+    }
+
+    private String readVerified(File candidate) throws IOException {
+        byte[] bytes = Files.readAllBytes(candidate.toPath());
+        if (bytes.length < HEADER_BYTES + TRAILER_BYTES) {
+            throw new IOException("truncated at " + bytes.length + " bytes");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("not a snapshot file");
+        }
+        int version = buffer.getInt(4);
+        if (version != FORMAT_VERSION) {
+            throw new IOException("unsupported format version " + version);
+        }
+        int body = bytes.length - TRAILER_BYTES;
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, 0, body);
+        if ((int) crc.getValue() != buffer.getInt(body)) {
+            throw new IOException("checksum mismatch");
+        }
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes, HEADER_BYTES, body - HEADER_BYTES), 1 << 16)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream((int) Math.min(Integer.MAX_VALUE - 8, body * 4L));
+            in.transferTo(out);
+            return out.toString(StandardCharsets.UTF_8);
+        }
+    }
+
+    private void quarantine(File candidate) {
+        File corrupt = new File(candidate.getParentFile(), candidate.getName() + ".corrupt");
+        try {
+            Files.move(candidate.toPath(), corrupt.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ex) {
+            logger.warning("Failed to move aside " + candidate.getName() + ": " + ex.getMessage());
+        }
+    }
+
+    private File backup(int generation) {
+        return generation == 0 ? file : new File(file.getParentFile(), file.getName() + "." + generation);
+    }
+
+    public int getBackupCount() {
+        return backups;
+    }
+
+    /**
+     * Backups currently on disk.
+     */
+    public int getBackupsPresent() {
+        int present = 0;
+        for (int generation = 1; generation <= backups; generation++) {
+            if (backup(generation).exists()) {
+                present++;
+            }
+        }
+        return present;
+    }
+
+    public long getLastRawBytes() {
+        return lastRawBytes;
+    }
+
+    public long getLastWrittenBytes() {
+        return lastWrittenBytes;
+    }
+
+    /**
+     * Loads that had to fall back to a backup.
+     */
+    public int getFallbacks() {
+        return fallbacks;
+    }
+
+    // Lets the gzip stream finish without closing the file, so the trailer can follow it.
+    private static final class NonClosingOutputStream extends FilterOutputStream {
+        private NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.example.ordersystem;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Replication over TCP between a fixed set of servers. Every server listens for the others and keeps one
+ * outgoing connection to each peer, reconnecting with backoff; batches are length-prefixed frames.
+ * <p>
+ * Both ends of a connection prove they know the shared secret before any batch is sent: each sends a random
+ * nonce and checks the other's HMAC-SHA256 of it, so nothing replayed from an earlier connection is accepted.
+ * The listener binds to {@code bindAddress}, loopback unless configured otherwise. Each peer has a
+ * bounded send queue; when a peer is down long enough to fill it, the oldest batches are dropped. The next full
+ * sync repairs order state, but deliveries and staff changes made here on that peer's orders in the dropped
+ * batches are lost and only recorded in this server's audit log.
+ */
+public class SocketTransport implements ReplicationTransport {
+    private static final int HANDSHAKE = 0x4F53524B; // "OSRK"
+    private static final int NONCE_BYTES = 32;
+    private static final int HANDSHAKE_TIMEOUT_MILLIS = 10_000;
+    private static final byte[] LISTENER_LABEL = "listener".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CONNECTOR_LABEL = "connector".getBytes(StandardCharsets.US_ASCII);
+    private static final int MAX_FRAME_BYTES = 256 * 1024 * 1024;
+    private static final int QUEUE_CAPACITY = 65536;
+    private static final long MAX_BACKOFF_MILLIS = 30_000L;
+
+    private final Logger logger;
+    private final String bindAddress;
+    private final int port;
+    private final List<InetSocketAddress> peerAddresses;
+    private final String secret;
+    private final SecureRandom random = new SecureRandom();
+    private final AtomicInteger threadIndex = new AtomicInteger();
+    private final ExecutorService threads = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "OrderSystem-Replication-" + threadIndex.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final List<Peer> peers = new ArrayList<>();
+    private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean closed;
+    private ServerSocket server;
+
+    public SocketTransport(Logger logger, String bindAddress, int port, List<InetSocketAddress> peerAddresses, String secret) {
+        this.logger = logger;
+        this.bindAddress = bindAddress;
+        this.port = port;
+        this.peerAddresses = List.copyOf(peerAddresses);
+        this.secret = secret == null ? "" : secret;
+    }
+
+    /**
+     * Listens and connects to the peers. Refuses to start without a secret of its own, since anyone who can reach
+     * the port could otherwise feed orders into this server.
+     */
+    @Override
+    public void start(Consumer<byte[]> receiver) throws IOException {
+        if (secret.isBlank() || secret.equals("change-me")) {
+            throw new IOException("replication.secret is not set; choose a shared secret for every server");
+        }
+        server = new ServerSocket(port, 50, InetAddress.getByName(bindAddress));
+        threads.execute(() -> acceptLoop(receiver));
+        for (InetSocketAddress address : peerAddresses) {
+            Peer peer = new Peer(address);
+            peers.add(peer);
+            threads.execute(peer::sendLoop);
+        }
+    }
+
+    @Override
+    public void send(byte[] batch) {
+        for (Peer peer : peers) {
+            while (!peer.queue.offer(batch)) {
+                if (peer.queue.poll() != null && dropped.getAndIncrement() % QUEUE_CAPACITY == 0) {
+                    logger.warning("Replication queue for " + peer.address + " is full, dropping the oldest batches.");
+                }
+            }
+        }
+    }
+
+    private void acceptLoop(Consumer<byte[]> receiver) {
+        while (!closed) {
+            try {
+                Socket socket = server.accept();
+                sockets.add(socket);
+                threads.execute(() -> readLoop(socket, receiver));
+            } catch (IOException ex) {
+                if (!closed) {
+                    logger.warning("Replication listener failed: " + ex.getMessage());
+                }
+            }
+        }
+    }
+
+    private void readLoop(Socket socket, Consumer<byte[]> receiver) {
+        try (socket; DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            socket.setSoTimeout(HANDSHAKE_TIMEOUT_MILLIS);
+            byte[] nonce = nonce();
+            out.writeInt(HANDSHAKE);
+            out.write(nonce);
+            out.flush();
+            if (in.readInt() != HANDSHAKE) {
+                throw new IOException("bad handshake");
+            }
+            verify(in, CONNECTOR_LABEL, nonce);
+            byte[] challenge = new byte[NONCE_BYTES];
+            in.readFully(challenge);
+            out.write(mac(LISTENER_LABEL, challenge));
+            out.flush();
+            socket.setSoTimeout(0);
+            while (!closed) {
+                int length = in.readInt();
+                if (length < 0 || length > MAX_FRAME_BYTES) {
+                    throw new IOException("frame of " + length + " bytes");
+                }
+                byte[] frame = new byte[length];
+                in.readFully(frame);
+                receiver.accept(frame);
+            }
+        } catch (IOException ex) {
+            if (!closed) {
+                logger.fine("Replication connection from " + socket.getRemoteSocketAddress() + " closed: " + ex.getMessage());
+            }
+        } finally {
+            sockets.remove(socket);
+        }
+    }
+
+    private byte[] nonce() {
+        byte[] nonce = new byte[NONCE_BYTES];
+        random.nextBytes(nonce);
+        return nonce;
+    }
+
+    /**
+     * HMAC-SHA256 of the other end's nonce under the shared secret. The label keeps a listener's answer from being
+     * reflected back to it as a connector's.
+     */
+    private byte[] mac(byte[] label, byte[] nonce) throws IOException {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            mac.update(label);
+            return mac.doFinal(nonce);
+        } catch (GeneralSecurityException ex) {
+            throw new IOException("HMAC-SHA256 unavailable", ex);
+        }
+    }
+
+    private void verify(DataInputStream in, byte[] label, byte[] nonce) throws IOException {
+        byte[] expected = mac(label, nonce);
+        byte[] answer = new byte[expected.length];
+        in.readFully(answer);
+        if (!MessageDigest.isEqual(answer, expected)) {
+            throw new IOException("secret mismatch");
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            if (server != null) {
+                server.close();
+            }
+        } catch (IOException ignored) {
+            // Closing anyway
+        }
+        for (Socket socket : sockets) {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // Closing anyway
+            }
+        }
+        threads.shutdownNow();
+    }
+
+    @Override
+    public String describe() {
+        long connected = peers.stream().filter(peer -> peer.connected).count();
+        return "socket " + bindAddress + ":" + port + ", " + connected + "/" + peers.size() + " peers connected, " + dropped.get() + " batches dropped";
+    }
+
+    private final class Peer {
+        private final InetSocketAddress address;
+        private final BlockingQueue<byte[]> queue = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+        private volatile boolean connected;
+
+        private Peer(InetSocketAddress address) {
+            this.address = address;
+        }
+
+        private void sendLoop() {
+            long backoff = 1000L;
+            while (!closed) {
+                try (Socket socket = new Socket()) {
+                    socket.connect(address, 5000);
+                    socket.setTcpNoDelay(true);
+                    socket.setSoTimeout(HANDSHAKE_TIMEOUT_MILLIS);
+                    sockets.add(socket);
+                    try {
+                        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                        if (in.readInt() != HANDSHAKE) {
+                            throw new IOException("bad handshake");
+                        }
+                        byte[] challenge = new byte[NONCE_BYTES];
+                        in.readFully(challenge);
+                        byte[] nonce = nonce();
+                        out.writeInt(HANDSHAKE);
+                        out.write(mac(CONNECTOR_LABEL, challenge));
+                        out.write(nonce);
+                        out.flush();
+                        verify(in, LISTENER_LABEL, nonce);
+                        connected = true;
+                        backoff = 1000L;
+                        while (!closed) {
+                            byte[] batch = queue.poll(1, TimeUnit.SECONDS);
+                            if (batch == null) {
+                                continue;
+                            }
+                            out.writeInt(batch.length);
+                            out.write(batch);
+                            if (queue.isEmpty()) {
+                                out.flush();
+                            }
+                        }
+                    } finally {
+                        sockets.remove(socket);
+                    }
+                } catch (IOException ex) {
+                    if (connected) {
+                        logger.warning("Lost replication connection to " + address + ": " + ex.getMessage());
+                    } else if ("secret mismatch".equals(ex.getMessage())) {
+                        logger.warning("Replication peer " + address + " does not share this server's secret.");
+                    }
+                } catch (InterruptedException ex) {
+                    return;
+                } finally {
+                    connected = false;
+                }
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                backoff = Math.min(MAX_BACKOFF_MILLIS, backoff * 2);
+            }
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.example.ordersystem;
+
+import net.milkbowl.vault.economy.Economy;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * A staff bulk operation over every order matching a filter, run as a {@link TickScheduler.Job} a slice at a
+ * time so it never holds the main thread past the tick budget.
+ * <p>
+ * Matching ids are taken from one snapshot when the job is created; each order is re-checked against the filter
+ * under its lock when processed. Refunds are summed per owner and paid once per slice. A dry run walks the same
+ * orders and reports what would change without touching them.
+ * <p>
+ * Expiring an active order cancels it with a refund, so its stored goods stay collectable for the usual retention;
+ * a finished order is removed only once its retention has elapsed.
+ */
+public class StaffBulkJob {
+    public enum Action {
+        CANCEL,
+        REFUND,
+        REPRICE,
+        EXPIRE
+    }
+
+    private final OrderManager orderManager;
+    private final Economy economy;
+    private final Action action;
+    private final Predicate<OrderManager.OrderSnapshot> filter;
+    private final long newPrice;
+    private final boolean dryRun;
+    private final UUID staffUuid;
+    private final String staffName;
+    private final int[] candidates;
+    private final Map<UUID, Long> pendingRefunds = new HashMap<>();
+    private final long startedAt = System.currentTimeMillis();
+    private int next;
+    private int affected;
+    private int skipped;
+    private long units;
+    private long refunded;
+    private long charged;
+    private volatile boolean done;
+
+    public StaffBulkJob(OrderManager orderManager, Economy economy, Action action, Predicate<OrderManager.OrderSnapshot> filter,
+                        long newPrice, boolean dryRun, UUID staffUuid, String staffName) {
+        this.orderManager = orderManager;
+        this.economy = economy;
+        this.action = action;
+        this.filter = filter;
+        this.newPrice = newPrice;
+        this.dryRun = dryRun;
+        this.staffUuid = staffUuid;
+        this.staffName = staffName;
+        List<OrderManager.OrderSnapshot> matches = orderManager.snapshot().toList();
+        matches.removeIf(filter.negate());
+        this.candidates = matches.stream().mapToInt(OrderManager.OrderSnapshot::id).toArray();
+    }
+
+    /**
+     * Returns the scheduler job; {@code onComplete} runs on the main thread once every order was processed.
+     */
+    public TickScheduler.Job newJob(Runnable onComplete) {
+        return deadline -> {
+            while (next < candidates.length) {
+                process(candidates[next++]);
+                if ((next & 31) == 0 && System.nanoTime() >= deadline) {
+                    payRefunds();
+                    return false;
+                }
+            }
+            payRefunds();
+            done = true;
+            onComplete.run();
+            return true;
+        };
+    }
+
+    private void process(int id) {
+        OrderManager.OrderSnapshot view = orderManager.snapshot().get(id);
+        if (view == null || !filter.test(view)) {
+            skipped++;
+            return;
+        }
+        if (dryRun) {
+            preview(view);
+            return;
+        }
+        switch (action) {
+            case CANCEL, REFUND -> cancel(view, action == Action.REFUND);
+            case REPRICE -> {
+                boolean repriced = orderManager.repriceOrder(id, newPrice, delta -> settleReprice(view.ownerUuid(), delta),
+                        staffUuid, staffName);
+                if (repriced) {
+                    affected++;
+                    units += view.remainingQuantity();
+                } else {
+                    skipped++;
+                }
+            }
+            case EXPIRE -> {
+                if (view.status() == OrderStatus.ACTIVE) {
+                    cancel(view, true);
+                    return;
+                }
+                OrderManager.OrderSnapshot removed = orderManager.removeOrder(id, staffUuid, staffName);
+                if (removed == null) {
+                    skipped++;
+                    return;
+                }
+                affected++;
+                units += removed.storedQuantity();
+            }
+        }
+    }
+
+    private void cancel(OrderManager.OrderSnapshot view, boolean refund) {
+        long unspent = orderManager.cancelOrder(view.id(), refund, staffUuid, staffName);
+        if (unspent < 0) {
+            skipped++;
+            return;
+        }
+        affected++;
+        units += view.remainingQuantity();
+        if (refund && unspent > 0) {
+            pendingRefunds.merge(view.ownerUuid(), unspent, Long::sum);
+            refunded += unspent;
+        }
+    }
+
+    private void preview(OrderManager.OrderSnapshot view) {
+        boolean active = view.status() == OrderStatus.ACTIVE;
+        boolean retained = view.expirationTimestamp() <= 0 || System.currentTimeMillis() < view.expirationTimestamp();
+        if (action == Action.EXPIRE ? !active && retained : !active) {
+            skipped++;
+            return;
+        }
+        affected++;
+        long unspent = view.totalEscrow() - view.totalPaid();
+        switch (action) {
+            case CANCEL -> units += view.remainingQuantity();
+            case REFUND -> {
+                units += view.remainingQuantity();
+                refunded += unspent;
+            }
+            case REPRICE -> {
+                units += view.remainingQuantity();
+                long delta = newPrice * view.remainingQuantity() - unspent;
+                if (delta < 0) {
+                    refunded -= delta;
+                } else {
+                    charged += delta;
+                }
+            }
+            case EXPIRE -> {
+                if (active) {
+                    units += view.remainingQuantity();
+                    refunded += unspent;
+                } else {
+                    units += view.storedQuantity();
+                }
+            }
+        }
+    }
+
+    /**
+     * Queues a refund for a lower price, or charges the owner for a higher one if they can afford it.
+     */
+    private boolean settleReprice(UUID owner, long delta) {
+        if (delta <= 0) {
+            if (delta < 0) {
+                pendingRefunds.merge(owner, -delta, Long::sum);
+                refunded -= delta;
+            }
+            return true;
+        }
+        OfflinePlayer player = Bukkit.getOfflinePlayer(owner);
+        if (!economy.has(player, Money.toMajor(delta))) {
+            return false;
+        }
+        economy.withdrawPlayer(player, Money.toMajor(delta));
+        charged += delta;
+        return true;
+    }
+
+    private void payRefunds() {
+        for (Map.Entry<UUID, Long> refund : pendingRefunds.entrySet()) {
+            economy.depositPlayer(Bukkit.getOfflinePlayer(refund.getKey()), Money.toMajor(refund.getValue()));
+        }
+        pendingRefunds.clear();
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    public boolean isDryRun() {
+        return dryRun;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    public int getTotal() {
+        return candidates.length;
+    }
+
+    public int getProcessed() {
+        return next;
+    }
+
+    public int getAffected() {
+        return affected;
+    }
+
+    public int getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * Remaining units of cancelled, refunded or repriced orders, including active orders expired by a refund, or
+     * stored units of removed ones.
+     */
+    public long getUnits() {
+        return units;
+    }
+
+    public long getRefunded() {
+        return refunded;
+    }
+
+    public long getCharged() {
+        return charged;
+    }
+
+    public long getElapsedMillis() {
+        return System.currentTimeMillis() - startedAt;
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.ordersystem;
+
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.stream.Collectors;
+
+/**
+ * Loads saved orders on worker threads while the server finishes starting.
+ * <p>
+ * The snapshot is read and parsed once; orders are then decoded and validated in parallel, and their views and
+ * indexes are built in parallel and published as one epoch. The live order map is filled on the main thread in
+ * one step, after which {@link OrderManager#isLoaded()} turns true. Until then the board shows a loading screen,
+ * commands are refused and saves are skipped. A per-phase timing breakdown is logged when loading finishes.
+ */
+public class StartupLoader {
+    private final OrderSystemPlugin plugin;
+    private final StorageManager storageManager;
+    private final OrderManager orderManager;
+    private final ForkJoinPool pool;
+    private final Map<String, Long> phaseNanos = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final long startedAt = System.nanoTime();
+    private volatile int skipped;
+    private volatile String report;
+
+    public StartupLoader(OrderSystemPlugin plugin, StorageManager storageManager, OrderManager orderManager, int threads) {
+        this.plugin = plugin;
+        this.storageManager = storageManager;
+        this.orderManager = orderManager;
+        this.pool = new ForkJoinPool(Math.max(1, threads), forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("OrderSystem-Load-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * Records a phase the caller timed itself, such as the synchronous part of {@code onEnable}.
+     */
+    public void recordPhase(String phase, long nanos) {
+        phaseNanos.put(phase, nanos);
+    }
+
+    /**
+     * Starts loading in the background. {@code warmUp} runs on a worker next to decoding; {@code onInstalled}
+     * runs on the main thread right after the orders go live.
+     */
+    public void start(Runnable warmUp, Runnable onInstalled) {
+        orderManager.beginLoading();
+        CompletableFuture<Void> warm = CompletableFuture.runAsync(() -> timed("gui", () -> {
+            warmUp.run();
+            return null;
+        }), pool);
+        CompletableFuture.supplyAsync(this::load, pool)
+                .thenCombine(warm, (prepared, ignored) -> prepared)
+                .whenComplete((prepared, error) -> {
+                    if (plugin.isEnabled()) {
+                        Bukkit.getScheduler().runTask(plugin, () -> finish(prepared, error, onInstalled));
+                    }
+                });
+    }
+
+    private OrderManager.LoadedOrders load() {
+        YamlConfiguration document = timed("read", storageManager::readDocument);
+        ConfigurationSection ordersSection = document.getConfigurationSection("orders");
+        List<String> keys = ordersSection == null ? List.of() : new ArrayList<>(ordersSection.getKeys(false));
+        List<Order> orders = timed("decode", () -> {
+            storageManager.loadTrust(document, orderManager.getTrustTable());
+            // Runs on this pool, so the parallel stream uses its workers rather than the common pool.
+            return keys.parallelStream()
+                    .map(key -> storageManager.decodeOrder(ordersSection, key, orderManager))
+                    .filter(Objects::nonNull)
+                    .toList();
+        });
+        skipped = keys.size() - orders.size();
+        return timed("index", () -> orderManager.prepareLoaded(orders));
+    }
+
+    private void finish(OrderManager.LoadedOrders prepared, Throwable error, Runnable onInstalled) {
+        pool.shutdown();
+        if (error != null) {
+            report = "failed";
+            plugin.getLogger().log(Level.SEVERE, "Failed to load orders. Orders stay unavailable and nothing is saved"
+                    + " until the plugin is restarted.", error);
+            return;
+        }
+        timed("install", () -> {
+            orderManager.installLoaded(prepared);
+            onInstalled.run();
+            return null;
+        });
+        if (skipped > 0) {
+            plugin.getLogger().warning("Skipped " + skipped + " unreadable orders while loading.");
+        }
+        String phases;
+        synchronized (phaseNanos) {
+            phases = phaseNanos.entrySet().stream()
+                    .map(entry -> entry.getKey() + " " + TimeUnit.NANOSECONDS.toMillis(entry.getValue()) + "ms")
+                    .collect(Collectors.joining(", "));
+        }
+        report = prepared.orders().size() + " orders in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt)
+                + "ms (" + phases + ", " + pool.getParallelism() + " threads)";
+        plugin.getLogger().info("Loaded " + report);
+    }
+
+    /**
+     * The timing summary once loading finished, or {@code null} while it is running.
+     */
+    public String getReport() {
+        return report;
+    }
+
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private <T> T timed(String phase, Supplier<T> work) {
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            phaseNanos.put(phase, System.nanoTime() - start);
+        }
+    }
+}
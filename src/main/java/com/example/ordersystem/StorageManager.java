@@ -1,142 +1,413 @@
 package com.example.ordersystem;
 
-import org.bukkit.Bukkit;
+import org.bukkit.Material;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.Plugin;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- * Handles loading and saving orders to a single YAML file.
+ * Handles loading and saving orders as a single YAML document, stored as a compressed, checksummed
+ * {@link SnapshotFile} with rotated backups.
  */
 public class StorageManager {
-    private final OrderSystemPlugin plugin;
-    private final File dataFile;
-    private final AtomicBoolean saveQueued = new AtomicBoolean(false);
+    /**
+     * Shown to players when an action is refused because saving is disabled.
+     */
+    public static final String SAVING_DISABLED_MESSAGE = "Orders are read-only right now because they cannot be saved. "
+            + "Please tell staff.";
 
-    public StorageManager(OrderSystemPlugin plugin) {
+    private final Plugin plugin;
+    private final MarketStats marketStats;
+    private final File legacyFile;
+    private final SnapshotFile snapshotFile;
+    private final File marketFile;
+    private final File mailboxFile;
+    private final SaveScheduler saveScheduler;
+    private volatile OrderManager saveTarget;
+    private volatile DeliveryEndpointManager endpointManager;
+    private volatile OwnerMailbox mailbox;
+    // Parsed once at startup and shared by the startup loader and loadEndpoints.
+    private volatile YamlConfiguration loadedSnapshot;
+    // Set when every snapshot failed to load, so the damaged files are never overwritten.
+    private volatile boolean savingDisabled;
+
+    public StorageManager(Plugin plugin, MarketStats marketStats) {
         this.plugin = plugin;
-        this.dataFile = new File(plugin.getDataFolder(), "orders.yml");
+        this.marketStats = marketStats;
+        this.legacyFile = new File(plugin.getDataFolder(), "orders.yml");
+        this.snapshotFile = new SnapshotFile(plugin.getLogger(), new File(plugin.getDataFolder(), "orders.snap"),
+                plugin.getConfig().getInt("storage.backups", 5),
+                plugin.getConfig().getLong("storage.backup-interval-seconds", 300L) * 1000L);
+        this.marketFile = new File(plugin.getDataFolder(), "market.dat");
+        this.mailboxFile = new File(plugin.getDataFolder(), "mailbox.dat");
+        this.saveScheduler = new SaveScheduler(plugin.getLogger(), () -> saveNow(saveTarget),
+                plugin.getConfig().getLong("storage.save-debounce-ms", 2000L),
+                plugin.getConfig().getLong("storage.max-staleness-ms", 15000L));
+    }
+
+    public SaveScheduler getSaveScheduler() {
+        return saveScheduler;
+    }
+
+    public SnapshotFile getSnapshotFile() {
+        return snapshotFile;
+    }
+
+    /**
+     * Whether saving was refused because no snapshot or backup could be loaded. Until a restart nothing may move
+     * money or goods, since it would be lost.
+     */
+    public boolean isSavingDisabled() {
+        return savingDisabled;
+    }
+
+    /**
+     * Reads the newest valid snapshot, falling back through the backups, or orders.yml from older versions.
+     * The parsed document is kept until {@link #loadEndpoints(DeliveryEndpointManager)} has read it too.
+     */
+    public YamlConfiguration readDocument() {
+        if (loadedSnapshot != null) {
+            return loadedSnapshot;
+        }
+        if (snapshotFile.exists()) {
+            SnapshotFile.Loaded<YamlConfiguration> loaded = snapshotFile.read(content -> {
+                YamlConfiguration config = new YamlConfiguration();
+                config.loadFromString(content);
+                return config;
+            });
+            if (loaded == null) {
+                // Saving an empty order set would rotate the remaining backups away; wait for an operator.
+                savingDisabled = true;
+                saveScheduler.suspend();
+                String name = snapshotFile.getFile().getName();
+                plugin.getLogger().severe("No readable orders snapshot or backup in " + plugin.getDataFolder()
+                        + "; starting empty with saving DISABLED.");
+                plugin.getLogger().severe("A damaged " + name + " was moved to " + name + ".corrupt; its numbered "
+                        + "backups were left in place.");
+                plugin.getLogger().severe("Restore a readable snapshot as " + name + " and restart; no changes will be "
+                        + "saved until then.");
+                loadedSnapshot = new YamlConfiguration();
+            } else {
+                loadedSnapshot = loaded.value();
+            }
+        } else if (legacyFile.exists()) {
+            plugin.getLogger().info("Migrating orders.yml to " + snapshotFile.getFile().getName() + "; orders.yml is kept as is.");
+            loadedSnapshot = YamlConfiguration.loadConfiguration(legacyFile);
+        } else {
+            loadedSnapshot = new YamlConfiguration();
+        }
+        return loadedSnapshot;
     }
 
+    /**
+     * Loads orders on the calling thread, for tools running without a server. The plugin loads through
+     * {@link StartupLoader} instead.
+     */
     public void loadOrders(OrderManager orderManager) {
-        if (!dataFile.exists()) {
+        YamlConfiguration document = readDocument();
+        loadTrust(document, orderManager.getTrustTable());
+        ConfigurationSection ordersSection = document.getConfigurationSection("orders");
+        List<Order> orders = new ArrayList<>();
+        if (ordersSection != null) {
+            for (String key : ordersSection.getKeys(false)) {
+                Order order = decodeOrder(ordersSection, key, orderManager);
+                if (order != null) {
+                    orders.add(order);
+                }
+            }
+        }
+        orderManager.installLoaded(orderManager.prepareLoaded(orders));
+    }
+
+    /**
+     * Decodes one saved order, or returns {@code null} if it is unreadable. Safe to call from several threads at
+     * once on the same document.
+     */
+    public Order decodeOrder(ConfigurationSection ordersSection, String key, OrderManager orderManager) {
+        ConfigurationSection section = ordersSection.getConfigurationSection(key);
+        if (section == null) {
+            return null;
+        }
+        int id;
+        UUID ownerUuid;
+        OrderStatus status;
+        try {
+            id = Integer.parseInt(key);
+            ownerUuid = UUID.fromString(section.getString("ownerUuid", ""));
+            status = OrderStatus.valueOf(section.getString("status", OrderStatus.ACTIVE.name()));
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+        String ownerName = section.getString("ownerName", "Unknown");
+        String materialName = section.getString("material", "STONE");
+        long totalQuantity = section.getLong("totalQuantity");
+        long remainingQuantity = section.getLong("remainingQuantity");
+        long totalEscrow = readMoney(section, "totalEscrow");
+        long totalPaid = readMoney(section, "totalPaid");
+        long createdTimestamp = section.getLong("createdTimestamp");
+        long expirationTimestamp = section.getLong("expirationTimestamp");
+        long storedQuantity = section.getLong("storedQuantity");
+        // Older saves kept the delivered stacks themselves; only their amounts matter.
+        List<?> storedRaw = section.getList("storedItems");
+        if (storedRaw != null) {
+            for (Object item : storedRaw) {
+                if (item instanceof ItemStack) {
+                    storedQuantity += ((ItemStack) item).getAmount();
+                }
+            }
+        }
+        // Older saves kept a trusted list per order; fold it into the owner's trust table.
+        for (String uuid : section.getStringList("trustedPlayers")) {
+            try {
+                orderManager.getTrustTable().trust(ownerUuid, UUID.fromString(uuid));
+            } catch (IllegalArgumentException ignored) {
+                // Skip invalid UUIDs
+            }
+        }
+        return new Order(id, ownerUuid, ownerName, orderManager.parseMaterial(materialName),
+                totalQuantity, remainingQuantity, totalEscrow, totalPaid,
+                createdTimestamp, expirationTimestamp, status, storedQuantity, section.getInt("home", Order.NO_HOME));
+    }
+
+    public void loadTrust(YamlConfiguration document, TrustTable trustTable) {
+        ConfigurationSection trustSection = document.getConfigurationSection("trust");
+        if (trustSection == null) {
             return;
         }
-        YamlConfiguration config = YamlConfiguration.loadConfiguration(dataFile);
-        ConfigurationSection ordersSection = config.getConfigurationSection("orders");
-        if (ordersSection == null) {
+        for (String ownerKey : trustSection.getKeys(false)) {
+            try {
+                UUID ownerUuid = UUID.fromString(ownerKey);
+                for (String uuid : trustSection.getStringList(ownerKey)) {
+                    trustTable.trust(ownerUuid, UUID.fromString(uuid));
+                }
+            } catch (IllegalArgumentException ignored) {
+                // Skip invalid UUIDs
+            }
+        }
+    }
+
+    /**
+     * Loads saved endpoints and includes the manager's endpoints in every later save.
+     */
+    public void loadEndpoints(DeliveryEndpointManager endpointManager) {
+        this.endpointManager = endpointManager;
+        YamlConfiguration config = readDocument();
+        // Endpoints are the last section read; drop the parsed document.
+        loadedSnapshot = null;
+        ConfigurationSection endpointsSection = config.getConfigurationSection("endpoints");
+        if (endpointsSection == null) {
             return;
         }
-        for (String key : ordersSection.getKeys(false)) {
-            ConfigurationSection section = ordersSection.getConfigurationSection(key);
+        for (String key : endpointsSection.getKeys(false)) {
+            ConfigurationSection section = endpointsSection.getConfigurationSection(key);
             if (section == null) {
                 continue;
             }
-            int id = Integer.parseInt(key);
-            String ownerUuidRaw = section.getString("ownerUuid", "");
-            if (ownerUuidRaw.isBlank()) {
+            Material material = Material.matchMaterial(section.getString("material", ""));
+            if (material == null) {
                 continue;
             }
-            UUID ownerUuid;
             try {
-                ownerUuid = UUID.fromString(ownerUuidRaw);
-            } catch (IllegalArgumentException ex) {
-                continue;
-            }
-            String ownerName = section.getString("ownerName", "Unknown");
-            String materialName = section.getString("material", "STONE");
-            long totalQuantity = section.getLong("totalQuantity");
-            long remainingQuantity = section.getLong("remainingQuantity");
-            double pricePerItem = section.getDouble("pricePerItem");
-            double totalEscrow = section.getDouble("totalEscrow");
-            double totalPaid = section.getDouble("totalPaid");
-            long createdTimestamp = section.getLong("createdTimestamp");
-            long expirationTimestamp = section.getLong("expirationTimestamp");
-            OrderStatus status = OrderStatus.valueOf(section.getString("status", OrderStatus.ACTIVE.name()));
-            List<ItemStack> storedItems = new ArrayList<>();
-            List<?> storedRaw = section.getList("storedItems");
-            if (storedRaw != null) {
-                for (Object item : storedRaw) {
-                    if (item instanceof ItemStack) {
-                        storedItems.add((ItemStack) item);
-                    }
-                }
+                DeliveryEndpointManager.BlockKey blockKey = new DeliveryEndpointManager.BlockKey(section.getString("world", ""),
+                        section.getInt("x"), section.getInt("y"), section.getInt("z"));
+                endpointManager.addLoadedEndpoint(new DeliveryEndpointManager.Endpoint(blockKey,
+                        UUID.fromString(section.getString("owner", "")), section.getString("ownerName", "Unknown"),
+                        section.getInt("orderId"), material));
+            } catch (IllegalArgumentException ignored) {
+                // Skip invalid endpoints
             }
-            List<UUID> trustedPlayers = new ArrayList<>();
-            List<String> trustedRaw = section.getStringList("trustedPlayers");
-            for (String uuid : trustedRaw) {
-                try {
-                    trustedPlayers.add(UUID.fromString(uuid));
-                } catch (IllegalArgumentException ignored) {
-                    // Skip invalid UUIDs
-                }
-            }
-            Order order = new Order(id, ownerUuid, ownerName, orderManager.parseMaterial(materialName),
-                    totalQuantity, remainingQuantity, pricePerItem, totalEscrow, totalPaid,
-                    createdTimestamp, expirationTimestamp, status, storedItems, trustedPlayers);
-            orderManager.addLoadedOrder(order);
         }
     }
 
+    /**
+     * Loads undelivered digests and includes the mailbox in every later save.
+     */
+    public void loadMailbox(OwnerMailbox mailbox) {
+        this.mailbox = mailbox;
+        if (!mailboxFile.exists()) {
+            return;
+        }
+        try (InputStream raw = Files.newInputStream(mailboxFile.toPath());
+             DataInputStream in = new DataInputStream(new BufferedInputStream(raw))) {
+            mailbox.readFrom(in);
+        } catch (IOException ex) {
+            plugin.getLogger().warning("Failed to load mailbox.dat, pending digests were lost: " + ex.getMessage());
+        }
+    }
+
+    public void loadMarketStats(MarketStats marketStats) {
+        if (!marketFile.exists()) {
+            return;
+        }
+        try (InputStream raw = Files.newInputStream(marketFile.toPath());
+             DataInputStream in = new DataInputStream(new BufferedInputStream(raw))) {
+            marketStats.readFrom(in, Instant.now().toEpochMilli());
+        } catch (IOException ex) {
+            plugin.getLogger().warning("Failed to load market.dat, starting with empty statistics: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Marks orders dirty after a mutation; the save scheduler writes them off the main thread.
+     */
     public void requestSaveAsync(OrderManager orderManager) {
-        if (saveQueued.compareAndSet(false, true)) {
-            Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-                try {
-                    saveNow(orderManager);
-                } finally {
-                    saveQueued.set(false);
-                }
-            });
+        saveTarget = orderManager;
+        saveScheduler.markDirty();
+    }
+
+    /**
+     * Stops background saving and writes the final state on the calling thread.
+     */
+    public void shutdown(OrderManager orderManager) {
+        saveScheduler.shutdown();
+        if (savingDisabled) {
+            // Reported at startup; nothing could change since.
+            return;
+        }
+        try {
+            saveNow(orderManager);
+        } catch (UncheckedIOException ex) {
+            plugin.getLogger().severe("Final save failed; changes since the last successful save are lost: "
+                    + ex.getCause().getMessage());
         }
     }
 
+    /**
+     * Writes orders, trust, endpoints, market statistics and the mailbox. Every file is attempted even if an
+     * earlier one fails.
+     *
+     * @throws UncheckedIOException if orders are still loading or any file could not be written, so the scheduler
+     *                              keeps the state dirty
+     */
     public void saveNow(OrderManager orderManager) {
-        Map<Integer, OrderManager.OrderSnapshot> snapshot = orderManager.snapshotOrders();
+        if (savingDisabled) {
+            throw new UncheckedIOException(new IOException("saving is disabled because no orders snapshot could be "
+                    + "loaded; restore " + snapshotFile.getFile().getName() + " and restart"));
+        }
+        if (!orderManager.isLoaded()) {
+            // Saving now would replace the snapshot with an empty order set; stay dirty and retry once loaded.
+            throw new UncheckedIOException(new IOException("orders are still loading"));
+        }
+        OrderReadModel.Epoch snapshot = orderManager.snapshot();
         YamlConfiguration config = new YamlConfiguration();
         ConfigurationSection ordersSection = config.createSection("orders");
-        for (OrderManager.OrderSnapshot order : snapshot.values()) {
+        for (OrderManager.OrderSnapshot order : snapshot.toList()) {
             ConfigurationSection section = ordersSection.createSection(String.valueOf(order.id()));
             section.set("ownerUuid", order.ownerUuid().toString());
             section.set("ownerName", order.ownerName());
             section.set("material", order.material().name());
             section.set("totalQuantity", order.totalQuantity());
             section.set("remainingQuantity", order.remainingQuantity());
-            section.set("pricePerItem", order.pricePerItem());
-            section.set("totalEscrow", order.totalEscrow());
-            section.set("totalPaid", order.totalPaid());
+            section.set("totalEscrowMinor", order.totalEscrow());
+            section.set("totalPaidMinor", order.totalPaid());
             section.set("createdTimestamp", order.createdTimestamp());
             section.set("expirationTimestamp", order.expirationTimestamp());
             section.set("status", order.status().name());
-            section.set("storedItems", new ArrayList<>(order.storedItems()));
+            section.set("storedQuantity", order.storedQuantity());
+            if (order.homeNode() != Order.NO_HOME) {
+                section.set("home", order.homeNode());
+            }
+        }
+        ConfigurationSection trustSection = config.createSection("trust");
+        for (Map.Entry<UUID, Set<UUID>> entry : orderManager.getTrustTable().snapshot().entrySet()) {
             List<String> trustedRaw = new ArrayList<>();
-            for (UUID uuid : order.trustedPlayers()) {
+            for (UUID uuid : entry.getValue()) {
                 trustedRaw.add(uuid.toString());
             }
-            section.set("trustedPlayers", trustedRaw);
+            trustSection.set(entry.getKey().toString(), trustedRaw);
         }
-        try {
-            if (!dataFile.getParentFile().exists()) {
-                dataFile.getParentFile().mkdirs();
+        DeliveryEndpointManager endpointManager = this.endpointManager;
+        if (endpointManager != null) {
+            ConfigurationSection endpointsSection = config.createSection("endpoints");
+            int index = 0;
+            for (DeliveryEndpointManager.Endpoint endpoint : endpointManager.getEndpoints()) {
+                ConfigurationSection section = endpointsSection.createSection(String.valueOf(index++));
+                section.set("world", endpoint.key().world());
+                section.set("x", endpoint.key().x());
+                section.set("y", endpoint.key().y());
+                section.set("z", endpoint.key().z());
+                section.set("owner", endpoint.owner().toString());
+                section.set("ownerName", endpoint.ownerName());
+                section.set("orderId", endpoint.orderId());
+                section.set("material", endpoint.material().name());
             }
-            File tempFile = new File(dataFile.getParentFile(), "orders.yml.tmp");
-            config.save(tempFile);
+        }
+        IOException failure = null;
+        try {
+            snapshotFile.write(config.saveToString());
+        } catch (IOException ex) {
+            failure = failed(failure, snapshotFile.getFile(), ex);
+        }
+        try {
+            saveBinary(marketFile, out -> marketStats.writeTo(out, Instant.now().toEpochMilli()));
+        } catch (IOException ex) {
+            failure = failed(failure, marketFile, ex);
+        }
+        OwnerMailbox mailbox = this.mailbox;
+        if (mailbox != null) {
             try {
-                Files.move(tempFile.toPath(), dataFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                saveBinary(mailboxFile, mailbox::writeTo);
             } catch (IOException ex) {
-                Files.move(tempFile.toPath(), dataFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                failure = failed(failure, mailboxFile, ex);
             }
+        }
+        if (failure != null) {
+            throw new UncheckedIOException(failure);
+        }
+    }
+
+    private IOException failed(IOException first, File file, IOException ex) {
+        plugin.getLogger().severe("Failed to save " + file.getName() + ": " + ex.getMessage());
+        if (first == null) {
+            return new IOException("Failed to save " + file.getName() + ": " + ex.getMessage(), ex);
+        }
+        first.addSuppressed(ex);
+        return first;
+    }
+
+    private void saveBinary(File file, BinaryWriter writer) throws IOException {
+        File tempFile = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (OutputStream raw = Files.newOutputStream(tempFile.toPath());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(raw))) {
+            writer.write(out);
+        }
+        try {
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
         } catch (IOException ex) {
-            plugin.getLogger().severe("Failed to save orders.yml: " + ex.getMessage());
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private interface BinaryWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * Reads a money field in minor units, falling back to the legacy double field written by older versions.
+     */
+    private long readMoney(ConfigurationSection section, String key) {
+        if (section.isSet(key + "Minor")) {
+            return section.getLong(key + "Minor");
         }
+        return Money.toMinor(section.getDouble(key));
     }
 }
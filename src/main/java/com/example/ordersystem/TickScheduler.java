@@ -0,0 +1,168 @@
+package com.example.ordersystem;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs plugin main-thread work within a per-tick time budget. Jobs are drained by priority, and a job
+ * that runs out of budget yields and resumes at the head of its queue on the next tick.
+ */
+public class TickScheduler {
+    private static final long OVERRUN_LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    private final Plugin plugin;
+    private final long budgetNanos;
+    private final Deque<Job>[] queues;
+    private BukkitTask task;
+
+    private long ticks;
+    private long jobsRun;
+    private long yields;
+    private long overruns;
+    private long worstTickNanos;
+    private long overrunsSinceLog;
+    private long lastOverrunLog;
+
+    public enum Priority {
+        INTERACTIVE,
+        DELIVERY,
+        MAINTENANCE
+    }
+
+    /**
+     * A unit of main-thread work. Implementations check {@code deadlineNanos} against
+     * {@link System#nanoTime()} and return {@code false} to be resumed on the next tick.
+     */
+    @FunctionalInterface
+    public interface Job {
+        boolean run(long deadlineNanos);
+    }
+
+    @SuppressWarnings("unchecked")
+    public TickScheduler(Plugin plugin, long budgetMillis) {
+        this.plugin = plugin;
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1L, budgetMillis));
+        this.queues = new Deque[Priority.values().length];
+        for (int i = 0; i < queues.length; i++) {
+            queues[i] = new ConcurrentLinkedDeque<>();
+        }
+        this.lastOverrunLog = System.nanoTime() - OVERRUN_LOG_INTERVAL_NANOS;
+    }
+
+    public void start() {
+        task = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * Runs every queued job to completion regardless of budget, e.g. before the plugin disables.
+     */
+    public void drainAll() {
+        for (Deque<Job> queue : queues) {
+            Job job;
+            while ((job = queue.poll()) != null) {
+                while (!job.run(Long.MAX_VALUE)) {
+                    // Keep resuming until the job reports completion.
+                }
+            }
+        }
+    }
+
+    public void submit(Priority priority, Runnable runnable) {
+        queues[priority.ordinal()].offer(deadline -> {
+            runnable.run();
+            return true;
+        });
+    }
+
+    public void submit(Priority priority, Job job) {
+        queues[priority.ordinal()].offer(job);
+    }
+
+    public int getQueuedJobs(Priority priority) {
+        return queues[priority.ordinal()].size();
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public long getJobsRun() {
+        return jobsRun;
+    }
+
+    public long getYields() {
+        return yields;
+    }
+
+    public long getOverruns() {
+        return overruns;
+    }
+
+    public long getWorstTickNanos() {
+        return worstTickNanos;
+    }
+
+    public long getBudgetNanos() {
+        return budgetNanos;
+    }
+
+    private void tick() {
+        long start = System.nanoTime();
+        long deadline = start + budgetNanos;
+        boolean ranAny = false;
+        outer:
+        for (Deque<Job> queue : queues) {
+            while (true) {
+                // Always let one job through so a tiny budget cannot stall the queue entirely.
+                if (ranAny && System.nanoTime() >= deadline) {
+                    break outer;
+                }
+                Job job = queue.poll();
+                if (job == null) {
+                    break;
+                }
+                ranAny = true;
+                jobsRun++;
+                boolean done;
+                try {
+                    done = job.run(deadline);
+                } catch (RuntimeException ex) {
+                    plugin.getLogger().severe("Scheduled order job failed: " + ex);
+                    continue;
+                }
+                if (!done) {
+                    yields++;
+                    queue.offerFirst(job);
+                    break outer;
+                }
+            }
+        }
+        ticks++;
+        long elapsed = System.nanoTime() - start;
+        worstTickNanos = Math.max(worstTickNanos, elapsed);
+        if (elapsed > budgetNanos) {
+            overruns++;
+            overrunsSinceLog++;
+            long now = System.nanoTime();
+            if (now - lastOverrunLog >= OVERRUN_LOG_INTERVAL_NANOS) {
+                plugin.getLogger().warning("Order work exceeded the " + TimeUnit.NANOSECONDS.toMillis(budgetNanos)
+                        + "ms tick budget " + overrunsSinceLog + " time(s) recently; last tick took "
+                        + TimeUnit.NANOSECONDS.toMicros(elapsed) / 1000D + "ms");
+                overrunsSinceLog = 0;
+                lastOverrunLog = now;
+            }
+        }
+    }
+}
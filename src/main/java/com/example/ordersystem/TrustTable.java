@@ -0,0 +1,83 @@
+package com.example.ordersystem;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Owner-level trust: players an owner trusts may collect from all of that owner's orders, present and future.
+ */
+public class TrustTable {
+    private final Map<UUID, Set<UUID>> trustedByOwner = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<UUID>> ownersByTrusted = new ConcurrentHashMap<>();
+
+    public boolean isTrusted(UUID ownerUuid, UUID playerUuid) {
+        Set<UUID> trusted = trustedByOwner.get(ownerUuid);
+        return trusted != null && trusted.contains(playerUuid);
+    }
+
+    /**
+     * @return {@code true} if the player was not already trusted
+     */
+    public boolean trust(UUID ownerUuid, UUID playerUuid) {
+        // Add inside compute so a concurrent untrust cannot drop the set between creating it and adding to it.
+        boolean[] added = new boolean[1];
+        trustedByOwner.compute(ownerUuid, (key, trusted) -> {
+            Set<UUID> set = trusted == null ? ConcurrentHashMap.newKeySet() : trusted;
+            added[0] = set.add(playerUuid);
+            return set;
+        });
+        ownersByTrusted.compute(playerUuid, (key, owners) -> {
+            Set<UUID> set = owners == null ? ConcurrentHashMap.newKeySet() : owners;
+            set.add(ownerUuid);
+            return set;
+        });
+        return added[0];
+    }
+
+    /**
+     * @return {@code true} if the player was trusted
+     */
+    public boolean untrust(UUID ownerUuid, UUID playerUuid) {
+        boolean[] removed = new boolean[1];
+        trustedByOwner.computeIfPresent(ownerUuid, (key, trusted) -> {
+            removed[0] = trusted.remove(playerUuid);
+            return trusted.isEmpty() ? null : trusted;
+        });
+        ownersByTrusted.computeIfPresent(playerUuid, (key, owners) -> {
+            owners.remove(ownerUuid);
+            return owners.isEmpty() ? null : owners;
+        });
+        return removed[0];
+    }
+
+    public Set<UUID> getTrusted(UUID ownerUuid) {
+        Set<UUID> trusted = trustedByOwner.get(ownerUuid);
+        return trusted == null ? Set.of() : Collections.unmodifiableSet(trusted);
+    }
+
+    /**
+     * Owners who trust {@code playerUuid}.
+     */
+    public Set<UUID> getOwnersTrusting(UUID playerUuid) {
+        Set<UUID> owners = ownersByTrusted.get(playerUuid);
+        return owners == null ? Set.of() : Collections.unmodifiableSet(owners);
+    }
+
+    /**
+     * Returns a point-in-time copy for persistence.
+     */
+    public Map<UUID, Set<UUID>> snapshot() {
+        Map<UUID, Set<UUID>> copy = new HashMap<>();
+        for (Map.Entry<UUID, Set<UUID>> entry : trustedByOwner.entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                copy.put(entry.getKey(), new HashSet<>(entry.getValue()));
+            }
+        }
+        return copy;
+    }
+}
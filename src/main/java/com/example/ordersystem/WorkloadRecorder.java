@@ -0,0 +1,292 @@
+package com.example.ordersystem;
+
+import org.bukkit.Material;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Opt-in recorder that captures order operations into a compact trace for {@code WorkloadReplay}, the replay tool
+ * in the test sources.
+ * <p>
+ * Callers enqueue events on a lock-free queue; a background thread drains them into a gzip stream where
+ * timestamps are delta-encoded varints and players and materials are written once and then referenced by index.
+ * A trace starts with the state of every order so a replay can rebuild it.
+ */
+public class WorkloadRecorder {
+    static final int MAGIC = 0x4F535452;
+    static final int VERSION = 1;
+
+    /** Delivery channels recorded with {@link Kind#DELIVER}. */
+    static final int CHANNEL_ITEMS = 0;
+    static final int CHANNEL_INVENTORY = 1;
+    static final int CHANNEL_ENDPOINT = 2;
+
+    enum Kind {
+        SEED,
+        CREATE,
+        DELIVER,
+        COLLECT,
+        TRUST,
+        UNTRUST,
+        BOARD,
+        DEFINE_PLAYER,
+        DEFINE_MATERIAL
+    }
+
+    /**
+     * One recorded operation. {@code values} holds the kind-specific numbers in a fixed order.
+     */
+    record Event(Kind kind, long timestamp, UUID actor, String actorName, UUID target, String targetName,
+                 int orderId, Material material, long[] values) {
+    }
+
+    private final Logger logger;
+    private final File file;
+    private final Queue<Event> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicLong recorded = new AtomicLong();
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "OrderSystem-Recorder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Owned by the writer thread.
+    private DataOutputStream out;
+    private long lastTimestamp;
+    private final Map<UUID, Integer> players = new HashMap<>();
+    private final Map<Material, Integer> materials = new HashMap<>();
+
+    public WorkloadRecorder(Logger logger, File file) {
+        this.logger = logger;
+        this.file = file;
+    }
+
+    /**
+     * Opens the trace, writes the current state of every order and starts draining events.
+     */
+    public void start(OrderReadModel.Epoch initialState) throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(file.toPath()))));
+        long now = System.currentTimeMillis();
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(now);
+        lastTimestamp = now;
+        initialState.forEach(view -> queue.offer(new Event(Kind.SEED, now, view.ownerUuid(), view.ownerName(), null, null,
+                view.id(), view.material(), new long[]{view.totalQuantity(), view.remainingQuantity(), view.totalEscrow(),
+                view.totalPaid(), view.createdTimestamp(), view.expirationTimestamp(), view.status().ordinal(),
+                view.storedQuantity()})));
+        writer.scheduleWithFixedDelay(this::drain, 1L, 1L, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops recording and closes the trace after writing everything still queued.
+     */
+    public void stop() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        drain();
+        try {
+            out.close();
+        } catch (IOException ex) {
+            logger.warning("Failed to close workload trace: " + ex.getMessage());
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public long getRecorded() {
+        return recorded.get();
+    }
+
+    public void record(Kind kind, UUID actor, String actorName, int orderId, Material material, long... values) {
+        recordWithTarget(kind, actor, actorName, null, null, orderId, material, values);
+    }
+
+    public void recordWithTarget(Kind kind, UUID actor, String actorName, UUID target, String targetName,
+                                 int orderId, Material material, long... values) {
+        queue.offer(new Event(kind, System.currentTimeMillis(), actor, actorName, target, targetName, orderId, material, values));
+        recorded.incrementAndGet();
+    }
+
+    private void drain() {
+        Event event = queue.poll();
+        if (event == null) {
+            return;
+        }
+        try {
+            while (event != null) {
+                write(event);
+                event = queue.poll();
+            }
+            out.flush();
+        } catch (IOException ex) {
+            logger.severe("Failed to write workload trace: " + ex.getMessage());
+        }
+    }
+
+    private void write(Event event) throws IOException {
+        int actor = playerIndex(event.actor(), event.actorName());
+        int target = playerIndex(event.target(), event.targetName());
+        int material = materialIndex(event.material());
+        out.writeByte(event.kind().ordinal());
+        writeVarLong(out, Math.max(0L, event.timestamp() - lastTimestamp));
+        lastTimestamp = Math.max(lastTimestamp, event.timestamp());
+        writeVarLong(out, actor);
+        writeVarLong(out, target);
+        writeVarLong(out, event.orderId());
+        writeVarLong(out, material);
+        writeVarLong(out, event.values().length);
+        for (long value : event.values()) {
+            writeVarLong(out, zigZag(value));
+        }
+    }
+
+    /**
+     * Returns the player's index plus one, defining the player in the stream on first use; 0 means none.
+     */
+    private int playerIndex(UUID uuid, String name) throws IOException {
+        if (uuid == null) {
+            return 0;
+        }
+        Integer index = players.get(uuid);
+        if (index == null) {
+            index = players.size();
+            players.put(uuid, index);
+            out.writeByte(Kind.DEFINE_PLAYER.ordinal());
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+            out.writeUTF(name == null ? "" : name);
+        }
+        return index + 1;
+    }
+
+    private int materialIndex(Material material) throws IOException {
+        if (material == null) {
+            return 0;
+        }
+        Integer index = materials.get(material);
+        if (index == null) {
+            index = materials.size();
+            materials.put(material, index);
+            out.writeByte(Kind.DEFINE_MATERIAL.ordinal());
+            out.writeUTF(material.name());
+        }
+        return index + 1;
+    }
+
+    /**
+     * Reads a whole trace. Player and material definitions are resolved into the returned events.
+     */
+    static List<Event> read(File file) throws IOException {
+        List<Event> events = new ArrayList<>();
+        List<UUID> playerIds = new ArrayList<>();
+        List<String> playerNames = new ArrayList<>();
+        List<Material> materialTable = new ArrayList<>();
+        Kind[] kinds = Kind.values();
+        try (InputStream raw = Files.newInputStream(file.toPath());
+             DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(raw)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a workload trace: " + file);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported trace version " + version);
+            }
+            long timestamp = in.readLong();
+            while (true) {
+                int tag;
+                try {
+                    tag = in.readUnsignedByte();
+                } catch (EOFException ex) {
+                    break;
+                }
+                Kind kind = kinds[tag];
+                if (kind == Kind.DEFINE_PLAYER) {
+                    playerIds.add(new UUID(in.readLong(), in.readLong()));
+                    playerNames.add(in.readUTF());
+                    continue;
+                }
+                if (kind == Kind.DEFINE_MATERIAL) {
+                    // Unknown materials (e.g. a trace from a newer version) replay as null.
+                    materialTable.add(Material.matchMaterial(in.readUTF()));
+                    continue;
+                }
+                timestamp += readVarLong(in);
+                int actor = (int) readVarLong(in);
+                int target = (int) readVarLong(in);
+                int orderId = (int) readVarLong(in);
+                int material = (int) readVarLong(in);
+                long[] values = new long[(int) readVarLong(in)];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = unZigZag(readVarLong(in));
+                }
+                events.add(new Event(kind, timestamp,
+                        actor == 0 ? null : playerIds.get(actor - 1), actor == 0 ? null : playerNames.get(actor - 1),
+                        target == 0 ? null : playerIds.get(target - 1), target == 0 ? null : playerNames.get(target - 1),
+                        orderId, material == 0 ? null : materialTable.get(material - 1), values));
+            }
+        }
+        return events;
+    }
+
+    private static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in trace");
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
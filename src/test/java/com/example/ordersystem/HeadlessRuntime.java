@@ -0,0 +1,179 @@
+package com.example.ordersystem;
+
+import net.milkbowl.vault.economy.Economy;
+import net.milkbowl.vault.economy.EconomyResponse;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.logging.Logger;
+
+/**
+ * In-process stand-ins for the server, players and Vault so order logic can run outside a server, e.g. in
+ * {@link LoadHarness}. Only the calls the order code makes are implemented; anything else returns a default.
+ */
+final class HeadlessRuntime {
+    private HeadlessRuntime() {
+    }
+
+    static Plugin plugin(File dataFolder, FileConfiguration config, Logger logger) {
+        return proxy(Plugin.class, (proxy, method, args) -> switch (method.getName()) {
+            case "getDataFolder" -> dataFolder;
+            case "getConfig" -> config;
+            case "getLogger" -> logger;
+            case "getName" -> "OrderSystem";
+            default -> objectMethod(proxy, method, args, "HeadlessPlugin");
+        });
+    }
+
+    /**
+     * A player whose inventory is a plain array of {@code size} slots. Not thread-safe; give each player
+     * to a single worker.
+     */
+    static Player player(UUID uuid, String name, int size) {
+        ItemStack[] slots = new ItemStack[size];
+        PlayerInventory inventory = proxy(PlayerInventory.class, (proxy, method, args) -> switch (method.getName()) {
+            case "getContents", "getStorageContents" -> slots.clone();
+            case "setContents", "setStorageContents" -> {
+                ItemStack[] contents = (ItemStack[]) args[0];
+                System.arraycopy(contents, 0, slots, 0, Math.min(contents.length, slots.length));
+                yield null;
+            }
+            case "getItem" -> slots[(Integer) args[0]];
+            case "setItem" -> {
+                slots[(Integer) args[0]] = (ItemStack) args[1];
+                yield null;
+            }
+            case "getSize" -> slots.length;
+            case "clear" -> {
+                Arrays.fill(slots, null);
+                yield null;
+            }
+            default -> objectMethod(proxy, method, args, name + "'s inventory");
+        });
+        return proxy(Player.class, (proxy, method, args) -> switch (method.getName()) {
+            case "getUniqueId" -> uuid;
+            case "getName", "getDisplayName" -> name;
+            case "getInventory" -> inventory;
+            case "hasPermission", "isOnline" -> true;
+            default -> objectMethod(proxy, method, args, name);
+        });
+    }
+
+    /**
+     * Vault economy stand-in that keeps balances in memory.
+     */
+    static final class Bank implements InvocationHandler {
+        private final Map<UUID, DoubleAdder> balances = new ConcurrentHashMap<>();
+        private final DoubleAdder deposited = new DoubleAdder();
+        private final Economy economy = proxy(Economy.class, this);
+
+        Economy economy() {
+            return economy;
+        }
+
+        double balance(UUID uuid) {
+            DoubleAdder balance = balances.get(uuid);
+            return balance == null ? 0D : balance.sum();
+        }
+
+        double totalDeposited() {
+            return deposited.sum();
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            switch (method.getName()) {
+                case "depositPlayer": {
+                    double amount = (Double) args[args.length - 1];
+                    DoubleAdder balance = account(args[0]);
+                    balance.add(amount);
+                    deposited.add(amount);
+                    return new EconomyResponse(amount, balance.sum(), EconomyResponse.ResponseType.SUCCESS, null);
+                }
+                case "withdrawPlayer": {
+                    double amount = (Double) args[args.length - 1];
+                    DoubleAdder balance = account(args[0]);
+                    balance.add(-amount);
+                    return new EconomyResponse(amount, balance.sum(), EconomyResponse.ResponseType.SUCCESS, null);
+                }
+                case "has":
+                    return true;
+                case "getBalance":
+                    return account(args[0]).sum();
+                case "isEnabled":
+                    return true;
+                case "fractionalDigits":
+                    return 2;
+                default:
+                    return objectMethod(proxy, method, args, "HeadlessEconomy");
+            }
+        }
+
+        private DoubleAdder account(Object holder) {
+            UUID uuid = holder instanceof OfflinePlayer player ? player.getUniqueId() : UUID.nameUUIDFromBytes(String.valueOf(holder).getBytes());
+            return balances.computeIfAbsent(uuid, key -> new DoubleAdder());
+        }
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(HeadlessRuntime.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    /**
+     * Identity semantics for {@link Object} methods and type defaults for everything else.
+     */
+    private static Object objectMethod(Object proxy, Method method, Object[] args, String label) {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return label;
+            default:
+                break;
+        }
+        Class<?> type = method.getReturnType();
+        if (!type.isPrimitive()) {
+            return null;
+        }
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == void.class) {
+            return null;
+        }
+        if (type == double.class) {
+            return 0D;
+        }
+        if (type == float.class) {
+            return 0F;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == char.class) {
+            return '\0';
+        }
+        if (type == byte.class) {
+            return (byte) 0;
+        }
+        if (type == short.class) {
+            return (short) 0;
+        }
+        return 0;
+    }
+}
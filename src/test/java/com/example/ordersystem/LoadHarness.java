@@ -0,0 +1,406 @@
+package com.example.ordersystem;
+
+import org.bukkit.Material;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+
+/**
+ * Standalone load generator that drives {@link OrderManager} and {@link StorageManager} from many threads
+ * against in-process stand-ins for players and Vault.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.mainClass=com.example.ordersystem.LoadHarness
+ * -Dexec.args="key=value ..."}.
+ * Options: {@code threads} (64), {@code seconds} (30), {@code buyers} (200), {@code orders} (1000 seeded),
+ * {@code rate} (operations per second per thread, 0 for unthrottled), {@code mix} (weights, default
+ * {@code create:5,deliver:45,deliverFromPlayer:20,collect:15,board:15}), {@code save-debounce-ms} (2000),
+ * {@code dir} (data directory, a temporary one by default).
+ * <p>
+ * With a rate set, latency is measured from each operation's scheduled start so stalls are not hidden.
+ */
+public final class LoadHarness {
+    private static final Material[] MATERIALS = {
+            Material.STONE, Material.COBBLESTONE, Material.DIRT, Material.SAND,
+            Material.OAK_LOG, Material.IRON_INGOT, Material.WHEAT, Material.COAL
+    };
+
+    enum Operation {
+        CREATE,
+        DELIVER,
+        DELIVER_FROM_PLAYER,
+        COLLECT,
+        BOARD
+    }
+
+    private final Map<String, String> options;
+    private final Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+    private final Map<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, AtomicLong> failures = new EnumMap<>(Operation.class);
+    private final AtomicInteger highestOrderId = new AtomicInteger();
+    // Ledgers kept from the operations' results, checked against the orders after the run.
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong paidOut = new AtomicLong();
+    private final AtomicLong collected = new AtomicLong();
+    private final HeadlessRuntime.Bank bank = new HeadlessRuntime.Bank();
+    private final List<Player> buyers = new ArrayList<>();
+    private OrderManager orderManager;
+    private StorageManager storageManager;
+    private AuditLog auditLog;
+    private int totalWeight;
+
+    private LoadHarness(Map<String, String> options) {
+        this.options = options;
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new LatencyHistogram());
+            failures.put(operation, new AtomicLong());
+        }
+        parseMix(option("mix", "create:5,deliver:45,deliverFromPlayer:20,collect:15,board:15"));
+    }
+
+    /**
+     * What a run did and the order book it left behind. The book balances when every order's paid amount is the
+     * prorated escrow of what it received, and the totals agree with the ledgers of the operations.
+     *
+     * @param ops        operations completed
+     * @param failures   operations that did not succeed, e.g. a delivery to an order filled meanwhile
+     * @param delivered  units accepted by deliveries
+     * @param paidOut    payouts returned by deliveries, in minor units
+     * @param collected  units collected
+     * @param quantity   total quantity over all orders
+     * @param remaining  remaining quantity over all orders
+     * @param escrow     escrow over all orders, in minor units
+     * @param paid       paid over all orders, in minor units
+     * @param stored     stored units over all orders
+     * @param unbalanced orders paid more than their escrow or other than the prorated escrow of their deliveries
+     */
+    record Result(long ops, long failures, long delivered, long paidOut, long collected, long quantity, long remaining,
+                  long escrow, long paid, long stored, int unbalanced) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        run(args);
+    }
+
+    /**
+     * Runs the harness with {@code key=value} options, prints the report and returns the result.
+     */
+    static Result run(String... args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            if (split <= 0) {
+                throw new IllegalArgumentException("Expected key=value, got " + arg);
+            }
+            options.put(arg.substring(0, split), arg.substring(split + 1));
+        }
+        return new LoadHarness(options).drive();
+    }
+
+    private Result drive() throws Exception {
+        int threads = Integer.parseInt(option("threads", "64"));
+        long seconds = Long.parseLong(option("seconds", "30"));
+        double rate = Double.parseDouble(option("rate", "0"));
+        File dataFolder = options.containsKey("dir")
+                ? new File(options.get("dir"))
+                : Files.createTempDirectory("ordersystem-load").toFile();
+        setUp(dataFolder);
+        System.out.printf("Driving %d threads for %ds against %d seeded orders in %s%n",
+                threads, seconds, orderManager.getOrders().size(), dataFolder);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        long intervalNanos = rate > 0 ? (long) (1_000_000_000L / rate) : 0L;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Player supplier = HeadlessRuntime.player(UUID.randomUUID(), "Supplier" + i, 36);
+            Thread worker = new Thread(() -> work(supplier, start, deadline, intervalNanos), "LoadHarness-" + i);
+            workers.add(worker);
+            worker.start();
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - began;
+
+        long shutdownStart = System.nanoTime();
+        storageManager.shutdown(orderManager);
+        long finalSaveNanos = System.nanoTime() - shutdownStart;
+        auditLog.shutdown();
+        report(elapsed, finalSaveNanos);
+        return result();
+    }
+
+    private Result result() {
+        long ops = 0;
+        long failed = 0;
+        for (Operation operation : Operation.values()) {
+            ops += latencies.get(operation).count();
+            failed += failures.get(operation).get();
+        }
+        long quantity = 0;
+        long remaining = 0;
+        long escrow = 0;
+        long paid = 0;
+        long stored = 0;
+        int unbalanced = 0;
+        for (OrderManager.OrderSnapshot view : orderManager.snapshot().toList()) {
+            quantity += view.totalQuantity();
+            remaining += view.remainingQuantity();
+            escrow += view.totalEscrow();
+            paid += view.totalPaid();
+            stored += view.storedQuantity();
+            long owed = Money.prorate(view.totalEscrow(), view.totalQuantity() - view.remainingQuantity(), view.totalQuantity());
+            if (view.totalPaid() > view.totalEscrow() || view.totalPaid() != owed) {
+                unbalanced++;
+            }
+        }
+        return new Result(ops, failed, delivered.get(), paidOut.get(), collected.get(), quantity, remaining, escrow,
+                paid, stored, unbalanced);
+    }
+
+    private void setUp(File dataFolder) {
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("completion-retention-days", 7);
+        config.set("completion-broadcast-threshold", 0);
+        config.set("storage.save-debounce-ms", Long.parseLong(option("save-debounce-ms", "2000")));
+        config.set("storage.max-staleness-ms", 15000L);
+        Plugin plugin = HeadlessRuntime.plugin(dataFolder, config, Logger.getLogger("OrderSystem-Load"));
+        MarketStats marketStats = new MarketStats();
+        auditLog = new AuditLog(plugin.getLogger(), new File(dataFolder, "audit"), 16L * 1024L * 1024L, 30, 1000L);
+        auditLog.start();
+        orderManager = new OrderManager(plugin, marketStats, auditLog);
+        storageManager = new StorageManager(plugin, marketStats);
+        int buyerCount = Integer.parseInt(option("buyers", "200"));
+        for (int i = 0; i < buyerCount; i++) {
+            buyers.add(HeadlessRuntime.player(UUID.randomUUID(), "Buyer" + i, 36));
+        }
+        int seeded = Integer.parseInt(option("orders", "1000"));
+        for (int i = 0; i < seeded; i++) {
+            createOrder(ThreadLocalRandom.current());
+        }
+    }
+
+    private void work(Player supplier, CountDownLatch start, long deadline, long intervalNanos) {
+        try {
+            start.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long next = System.nanoTime();
+        while (true) {
+            long now = System.nanoTime();
+            if (now >= deadline) {
+                return;
+            }
+            long scheduled = now;
+            if (intervalNanos > 0) {
+                if (next > now) {
+                    parkUntil(next);
+                }
+                scheduled = next;
+                next += intervalNanos;
+            }
+            Operation operation = pick(random);
+            boolean ok;
+            try {
+                ok = perform(operation, supplier, random);
+            } catch (RuntimeException ex) {
+                ok = false;
+            }
+            latencies.get(operation).record(System.nanoTime() - scheduled);
+            if (!ok) {
+                failures.get(operation).incrementAndGet();
+            }
+        }
+    }
+
+    private boolean perform(Operation operation, Player supplier, ThreadLocalRandom random) {
+        switch (operation) {
+            case CREATE:
+                createOrder(random);
+                storageManager.requestSaveAsync(orderManager);
+                return true;
+            case DELIVER: {
+                Order order = randomOrder(random);
+                if (order == null) {
+                    return false;
+                }
+                long amount = 1 + random.nextInt(27 * 64);
+                boolean ok = settled(orderManager.deliverItems(supplier, order, amount, bank.economy()));
+                storageManager.requestSaveAsync(orderManager);
+                return ok;
+            }
+            case DELIVER_FROM_PLAYER: {
+                Order order = randomOrder(random);
+                if (order == null) {
+                    return false;
+                }
+                supplier.getInventory().clear();
+                int stacks = 1 + random.nextInt(36);
+                for (int slot = 0; slot < stacks; slot++) {
+                    supplier.getInventory().setItem(slot, new ItemStack(order.getMaterial(), 64));
+                }
+                boolean ok = settled(orderManager.deliverFromPlayer(supplier, order, bank.economy()));
+                storageManager.requestSaveAsync(orderManager);
+                return ok;
+            }
+            case COLLECT: {
+                Order order = randomOrder(random);
+                if (order == null || order.getStoredQuantity() <= 0) {
+                    return false;
+                }
+                Player owner = HeadlessRuntime.player(order.getOwnerUuid(), order.getOwnerName(), 36);
+                List<ItemStack> taken = orderManager.takeStoredItems(owner, order, 0, 45);
+                for (ItemStack stack : taken) {
+                    collected.addAndGet(stack.getAmount());
+                }
+                boolean ok = !taken.isEmpty();
+                storageManager.requestSaveAsync(orderManager);
+                return ok;
+            }
+            case BOARD: {
+                List<OrderManager.OrderSnapshot> board = random.nextBoolean()
+                        ? orderManager.getOrdersSorted()
+                        : orderManager.getOrdersSortedFiltered(MATERIALS[random.nextInt(MATERIALS.length)]);
+                int page = random.nextInt(Math.max(1, board.size() / 45 + 1));
+                return board.size() >= page * 45;
+            }
+            default:
+                throw new IllegalStateException(operation.name());
+        }
+    }
+
+    private boolean settled(OrderManager.DeliveryResult result) {
+        if (result.isSuccess()) {
+            delivered.addAndGet(result.getAmountDelivered());
+            paidOut.addAndGet(result.getPayout());
+        }
+        return result.isSuccess();
+    }
+
+    private void createOrder(ThreadLocalRandom random) {
+        Player buyer = buyers.get(random.nextInt(buyers.size()));
+        long quantity = 64L * (1 + random.nextInt(100));
+        long pricePerItem = 1 + random.nextInt(2_000);
+        Order order = orderManager.createOrder(buyer, MATERIALS[random.nextInt(MATERIALS.length)], quantity, quantity * pricePerItem);
+        highestOrderId.accumulateAndGet(order.getId(), Math::max);
+    }
+
+    private Order randomOrder(ThreadLocalRandom random) {
+        int highest = highestOrderId.get();
+        for (int attempt = 0; attempt < 8 && highest > 0; attempt++) {
+            Order order = orderManager.getOrder(1 + random.nextInt(highest)).orElse(null);
+            if (order != null && order.getStatus() == OrderStatus.ACTIVE) {
+                return order;
+            }
+        }
+        return null;
+    }
+
+    private Operation pick(ThreadLocalRandom random) {
+        int roll = random.nextInt(totalWeight);
+        for (Map.Entry<Operation, Integer> entry : weights.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        return Operation.BOARD;
+    }
+
+    private void parseMix(String mix) {
+        for (String part : mix.split(",")) {
+            String[] pair = part.split(":");
+            Operation operation = switch (pair[0].trim().toLowerCase()) {
+                case "create" -> Operation.CREATE;
+                case "deliver" -> Operation.DELIVER;
+                case "deliverfromplayer" -> Operation.DELIVER_FROM_PLAYER;
+                case "collect" -> Operation.COLLECT;
+                case "board" -> Operation.BOARD;
+                default -> throw new IllegalArgumentException("Unknown operation " + pair[0]);
+            };
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                weights.put(operation, weight);
+                totalWeight += weight;
+            }
+        }
+        if (totalWeight <= 0) {
+            throw new IllegalArgumentException("Operation mix has no positive weights");
+        }
+    }
+
+    private void report(long elapsedNanos, long finalSaveNanos) {
+        double seconds = elapsedNanos / 1e9;
+        long totalOps = 0;
+        System.out.println();
+        System.out.printf("%-20s %10s %10s %9s %9s %9s %9s %9s %9s%n",
+                "operation", "ops", "ops/s", "failed", "p50 us", "p90 us", "p99 us", "p99.9 us", "max us");
+        for (Operation operation : Operation.values()) {
+            LatencyHistogram histogram = latencies.get(operation);
+            if (histogram.count() == 0) {
+                continue;
+            }
+            totalOps += histogram.count();
+            System.out.printf("%-20s %10d %10.0f %9d %9d %9d %9d %9d %9d%n",
+                    operation.name().toLowerCase(), histogram.count(), histogram.count() / seconds,
+                    failures.get(operation).get(),
+                    micros(histogram.percentile(50)), micros(histogram.percentile(90)),
+                    micros(histogram.percentile(99)), micros(histogram.percentile(99.9)), micros(histogram.max()));
+        }
+        System.out.printf("total: %d ops in %.1fs (%.0f ops/s)%n", totalOps, seconds, totalOps / seconds);
+        long contentions = orderManager.getLockContentions();
+        System.out.printf("order locks: %d acquisitions, %d contended (%.2f%%), avg wait %d us, max wait %d us%n",
+                orderManager.getLockAcquisitions(), contentions,
+                100D * contentions / Math.max(1L, orderManager.getLockAcquisitions()),
+                micros(contentions == 0 ? 0L : orderManager.getLockWaitNanos() / contentions),
+                micros(orderManager.getMaxLockWaitNanos()));
+        SaveScheduler saves = storageManager.getSaveScheduler();
+        System.out.printf("saves: %d requests, %d writes (%.1fx coalesced), avg %d ms, max %d ms, final save %d ms%n",
+                saves.getRequests(), saves.getWrites(), saves.getCoalescingRatio(),
+                TimeUnit.NANOSECONDS.toMillis(saves.getAverageWriteNanos()),
+                TimeUnit.NANOSECONDS.toMillis(saves.getMaxWriteNanos()),
+                TimeUnit.NANOSECONDS.toMillis(finalSaveNanos));
+        System.out.printf("orders: %d live, $%s paid to suppliers%n",
+                orderManager.getOrders().size(), NumberFormatter.formatMoney(Money.toMinor(bank.totalDeposited())));
+    }
+
+    private String option(String key, String fallback) {
+        return options.getOrDefault(key, fallback);
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    /**
+     * Parks until an absolute {@link System#nanoTime()} deadline.
+     */
+    private static void parkUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.ordersystem;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the load harness briefly and checks that it made progress and left the order book balanced.
+ */
+class LoadHarnessTest {
+
+    @Test
+    void shortRunBalances() throws Exception {
+        LoadHarness.Result result = LoadHarness.run("threads=4", "seconds=1", "buyers=10", "orders=50");
+        assertTrue(result.ops() > 0, "no operations completed");
+        assertTrue(result.delivered() > 0, "nothing was delivered");
+        assertEquals(0, result.unbalanced(), "orders whose paid amount does not match their deliveries");
+        assertEquals(result.delivered(), result.quantity() - result.remaining(), "delivered units");
+        assertEquals(result.paidOut(), result.paid(), "payouts against paid escrow");
+        assertTrue(result.paid() <= result.escrow(), "paid exceeds escrow");
+        assertEquals(result.delivered() - result.collected(), result.stored(), "stored units");
+    }
+}
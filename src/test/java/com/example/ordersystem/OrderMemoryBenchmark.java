@@ -0,0 +1,136 @@
+package com.example.ordersystem;
+
+import org.bukkit.Material;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Heap benchmark comparing the compact {@link Order} layout with the previous object-per-field layout.
+ * Runs outside the server after {@code mvn test-compile}:
+ * {@code java -cp target/test-classes:target/classes:<paper-api jar> com.example.ordersystem.OrderMemoryBenchmark [orders]}.
+ * Reported numbers are retained heap after forced collections, so run with a fixed heap (e.g. {@code -Xms2g -Xmx2g}).
+ */
+public final class OrderMemoryBenchmark {
+    private static final int OWNERS = 2_000;
+    private static final int STORED_STACKS = 2;
+
+    private OrderMemoryBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        Material material = Material.values()[0];
+        UUID[] owners = new UUID[OWNERS];
+        for (int i = 0; i < OWNERS; i++) {
+            owners[i] = UUID.randomUUID();
+        }
+
+        long baseline = usedHeap();
+        List<Object> legacy = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            UUID owner = owners[i % OWNERS];
+            List<LegacyStack> stored = new ArrayList<>();
+            for (int s = 0; s < STORED_STACKS; s++) {
+                stored.add(new LegacyStack(material, 64));
+            }
+            // Names were read per order from YAML or the player, so each order held its own copy.
+            legacy.add(new LegacyOrder(i, new UUID(owner.getMostSignificantBits(), owner.getLeastSignificantBits()),
+                    new String("Player" + (i % OWNERS)), material, 1000L, 872L, 125.0, 125_000.0, 16_000.0,
+                    System.currentTimeMillis(), 0L, OrderStatus.ACTIVE, stored, new ArrayList<>()));
+        }
+        long legacyBytes = usedHeap() - baseline;
+        report("legacy", count, legacyBytes);
+        legacy.clear();
+        legacy = null;
+
+        baseline = usedHeap();
+        List<Order> compact = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            compact.add(new Order(i, owners[i % OWNERS], "Player" + (i % OWNERS), material, 1000L, 872L,
+                    12_500_000L, 1_600_000L, System.currentTimeMillis(), 0L, OrderStatus.ACTIVE, 64L * STORED_STACKS,
+                    Order.NO_HOME));
+        }
+        long compactBytes = usedHeap() - baseline;
+        report("compact", count, compactBytes);
+        System.out.printf("reduction: %.1f%%%n", 100.0 * (legacyBytes - compactBytes) / Math.max(1L, legacyBytes));
+        if (compact.size() != count) {
+            throw new IllegalStateException();
+        }
+    }
+
+    private static void report(String label, int count, long bytes) {
+        System.out.printf("%-8s %,d orders: %,d bytes retained (%,d bytes/order)%n",
+                label, count, bytes, bytes / Math.max(1, count));
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50L);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+
+    /**
+     * Field-for-field stand-in for the old order class, with its money held in primitive doubles.
+     */
+    private static final class LegacyOrder {
+        private final int id;
+        private final UUID ownerUuid;
+        private final String ownerName;
+        private final Material material;
+        private final long totalQuantity;
+        private long remainingQuantity;
+        private final double pricePerItem;
+        private final double totalEscrow;
+        private double totalPaid;
+        private final long createdTimestamp;
+        private long expirationTimestamp;
+        private OrderStatus status;
+        private final List<LegacyStack> storedItems;
+        private final List<UUID> trustedPlayers;
+
+        private LegacyOrder(int id, UUID ownerUuid, String ownerName, Material material, long totalQuantity,
+                            long remainingQuantity, double pricePerItem, double totalEscrow, double totalPaid,
+                            long createdTimestamp, long expirationTimestamp, OrderStatus status,
+                            List<LegacyStack> storedItems, List<UUID> trustedPlayers) {
+            this.id = id;
+            this.ownerUuid = ownerUuid;
+            this.ownerName = ownerName;
+            this.material = material;
+            this.totalQuantity = totalQuantity;
+            this.remainingQuantity = remainingQuantity;
+            this.pricePerItem = pricePerItem;
+            this.totalEscrow = totalEscrow;
+            this.totalPaid = totalPaid;
+            this.createdTimestamp = createdTimestamp;
+            this.expirationTimestamp = expirationTimestamp;
+            this.status = status;
+            this.storedItems = storedItems;
+            this.trustedPlayers = trustedPlayers;
+        }
+    }
+
+    /**
+     * Approximates a meta-less {@code ItemStack}, which cannot be created without a running server.
+     */
+    private static final class LegacyStack {
+        private final Material type;
+        private int amount;
+        private Object meta;
+
+        private LegacyStack(Material type, int amount) {
+            this.type = type;
+            this.amount = amount;
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.example.ordersystem;
+
+import org.bukkit.Material;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Randomized concurrency stress suite for delivery, collection and persistence invariants.
+ * <p>
+ * Each round seeds a few heavily contended orders and releases worker threads together on a barrier. Workers
+ * deliver, deliver from inventories, deliver through reservations and collect, with random yields between steps
+ * to vary interleavings, while a reader checks every published snapshot and a saver writes and reloads
+ * the orders snapshot. Checked invariants:
+ * <ul>
+ *     <li>delivered plus remaining equals total, and completed orders have nothing remaining</li>
+ *     <li>paid never exceeds escrow and equals the prorated escrow of what was delivered</li>
+ *     <li>stored equals delivered minus collected</li>
+ *     <li>each snapshot view is internally consistent, and so is every order reloaded from a save</li>
+ * </ul>
+ * Run after {@code mvn test-compile} with {@code java -cp target/test-classes:target/classes:<paper-api jar>:<vault jar>
+ * com.example.ordersystem.StressSuite [rounds=20] [threads=8] [ops=2000] [orders=4] [seed=<random>]} for long runs; it
+ * fails on any violation and prints the seed so a failing round can be rerun. {@link StressSuiteTest} runs a few
+ * short rounds under {@code mvn test}.
+ */
+public final class StressSuite {
+    private final int threads;
+    private final int opsPerThread;
+    private final int orderCount;
+    private final Queue<String> violations = new ConcurrentLinkedQueue<>();
+
+    private StressSuite(int threads, int opsPerThread, int orderCount) {
+        this.threads = threads;
+        this.opsPerThread = opsPerThread;
+        this.orderCount = orderCount;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            options.put(arg.substring(0, split), arg.substring(split + 1));
+        }
+        int rounds = Integer.parseInt(options.getOrDefault("rounds", "20"));
+        long seed = Long.parseLong(options.getOrDefault("seed", String.valueOf(System.nanoTime())));
+        List<String> violations = run(rounds, seed, Integer.parseInt(options.getOrDefault("threads", "8")),
+                Integer.parseInt(options.getOrDefault("ops", "2000")),
+                Integer.parseInt(options.getOrDefault("orders", "4")), System.out);
+        if (!violations.isEmpty()) {
+            throw new IllegalStateException(violations.size() + " invariant violations (suite seed " + seed + ")");
+        }
+    }
+
+    /**
+     * Runs {@code rounds} rounds with seeds drawn from {@code seed}, reporting each round on {@code out}.
+     *
+     * @return every violation found, empty if all rounds passed
+     */
+    static List<String> run(int rounds, long seed, int threads, int opsPerThread, int orderCount, PrintStream out)
+            throws Exception {
+        StressSuite suite = new StressSuite(threads, opsPerThread, orderCount);
+        Logger.getLogger("OrderSystem-Stress").setLevel(Level.WARNING);
+        Random seeds = new Random(seed);
+        int failed = 0;
+        for (int round = 1; round <= rounds; round++) {
+            long roundSeed = seeds.nextLong();
+            int before = suite.violations.size();
+            suite.runRound(roundSeed);
+            int found = suite.violations.size() - before;
+            out.printf("round %d (seed %d): %s%n", round, roundSeed, found == 0 ? "ok" : found + " violations");
+            if (found > 0) {
+                failed++;
+            }
+        }
+        for (String violation : suite.violations.stream().limit(50).toList()) {
+            out.println("  " + violation);
+        }
+        out.printf("%d/%d rounds passed (suite seed %d)%n", rounds - failed, rounds, seed);
+        return List.copyOf(suite.violations);
+    }
+
+    private void runRound(long seed) throws Exception {
+        File dataFolder = Files.createTempDirectory("ordersystem-stress").toFile();
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("completion-broadcast-threshold", 0);
+        config.set("storage.save-debounce-ms", 1L);
+        Plugin plugin = HeadlessRuntime.plugin(dataFolder, config, Logger.getLogger("OrderSystem-Stress"));
+        MarketStats marketStats = new MarketStats();
+        AuditLog auditLog = new AuditLog(plugin.getLogger(), new File(dataFolder, "audit"), 1L << 24, 0, 50L);
+        auditLog.start();
+        OrderManager orderManager = new OrderManager(plugin, marketStats, auditLog);
+        StorageManager storageManager = new StorageManager(plugin, marketStats);
+        HeadlessRuntime.Bank bank = new HeadlessRuntime.Bank();
+        Random random = new Random(seed);
+
+        List<Order> orders = new ArrayList<>();
+        List<Player> owners = new ArrayList<>();
+        for (int i = 0; i < orderCount; i++) {
+            Player owner = HeadlessRuntime.player(UUID.randomUUID(), "Owner" + i, 36);
+            long quantity = 1 + random.nextInt(20_000);
+            // Odd escrow amounts exercise the prorating remainder.
+            long escrow = quantity * (1 + random.nextInt(500)) + random.nextInt(97);
+            orders.add(orderManager.createOrder(owner, Material.STONE, quantity, escrow));
+            owners.add(owner);
+        }
+        // Per-order ledgers kept by the workers: delivered, collected and paid.
+        AtomicLongArray delivered = new AtomicLongArray(orderCount);
+        AtomicLongArray collected = new AtomicLongArray(orderCount);
+        AtomicLongArray paid = new AtomicLongArray(orderCount);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        CyclicBarrier barrier = new CyclicBarrier(threads + 2);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long workerSeed = random.nextLong();
+            Player supplier = HeadlessRuntime.player(UUID.randomUUID(), "Supplier" + t, 36);
+            workers.add(start("stress-worker-" + t, barrier, () -> {
+                Random local = new Random(workerSeed);
+                for (int op = 0; op < opsPerThread; op++) {
+                    int index = local.nextInt(orderCount);
+                    step(local, orderManager, bank, supplier, owners.get(index), orders.get(index), index,
+                            delivered, collected, paid);
+                    jitter(local);
+                }
+            }));
+        }
+        Thread reader = start("stress-reader", barrier, () -> {
+            while (running.get()) {
+                orderManager.snapshot().forEach(view -> checkView("snapshot", view));
+            }
+        });
+        Thread saver = start("stress-saver", barrier, () -> {
+            while (running.get()) {
+                storageManager.saveNow(orderManager);
+                checkReload(plugin, dataFolder, "concurrent save");
+            }
+        });
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        running.set(false);
+        reader.join();
+        saver.join();
+
+        for (int i = 0; i < orderCount; i++) {
+            Order order = orders.get(i);
+            String label = "order #" + order.getId();
+            if (delivered.get(i) + order.getRemainingQuantity() != order.getTotalQuantity()) {
+                violations.add(label + ": delivered " + delivered.get(i) + " + remaining " + order.getRemainingQuantity()
+                        + " != total " + order.getTotalQuantity());
+            }
+            if (paid.get(i) != order.getTotalPaid()) {
+                violations.add(label + ": payouts " + paid.get(i) + " != recorded paid " + order.getTotalPaid());
+            }
+            if (delivered.get(i) - collected.get(i) != order.getStoredQuantity()) {
+                violations.add(label + ": delivered " + delivered.get(i) + " - collected " + collected.get(i)
+                        + " != stored " + order.getStoredQuantity());
+            }
+            OrderManager.OrderSnapshot view = orderManager.snapshot().get(order.getId());
+            if (view == null || view.remainingQuantity() != order.getRemainingQuantity()
+                    || view.storedQuantity() != order.getStoredQuantity() || view.totalPaid() != order.getTotalPaid()) {
+                violations.add(label + ": final snapshot does not match the order");
+            } else {
+                checkView("final snapshot", view);
+            }
+        }
+        storageManager.shutdown(orderManager);
+        checkReload(plugin, dataFolder, "final save");
+        auditLog.shutdown();
+    }
+
+    private void step(Random random, OrderManager orderManager, HeadlessRuntime.Bank bank, Player supplier, Player owner,
+                      Order order, int index, AtomicLongArray delivered, AtomicLongArray collected, AtomicLongArray paid) {
+        switch (random.nextInt(5)) {
+            case 0 -> record(orderManager.deliverItems(supplier, order, 1 + random.nextInt(700), bank.economy()),
+                    index, delivered, paid);
+            case 1 -> {
+                supplier.getInventory().clear();
+                int stacks = 1 + random.nextInt(6);
+                for (int slot = 0; slot < stacks; slot++) {
+                    supplier.getInventory().setItem(slot, new ItemStack(order.getMaterial(), 1 + random.nextInt(64)));
+                }
+                record(orderManager.deliverFromPlayer(supplier, order, bank.economy()), index, delivered, paid);
+            }
+            case 2 -> {
+                OrderManager.Reservation reservation = orderManager.reserve(order, supplier.getUniqueId(),
+                        1 + random.nextInt(500), 60_000L);
+                if (reservation == null) {
+                    return;
+                }
+                jitter(random);
+                long offered = 1 + random.nextInt(800);
+                orderManager.extendReservation(order, reservation, offered, 60_000L);
+                jitter(random);
+                record(orderManager.deliverReserved(supplier, order, reservation, offered, bank.economy()),
+                        index, delivered, paid);
+            }
+            case 3 -> {
+                ItemStack stack = orderManager.takeStoredItem(owner, order, random.nextInt(4));
+                if (stack != null) {
+                    collected.addAndGet(index, stack.getAmount());
+                }
+            }
+            default -> {
+                int from = random.nextInt(3);
+                for (ItemStack stack : orderManager.takeStoredItems(owner, order, from, from + 1 + random.nextInt(45))) {
+                    collected.addAndGet(index, stack.getAmount());
+                }
+            }
+        }
+    }
+
+    private void record(OrderManager.DeliveryResult result, int index, AtomicLongArray delivered, AtomicLongArray paid) {
+        if (result.isSuccess()) {
+            delivered.addAndGet(index, result.getAmountDelivered());
+            paid.addAndGet(index, result.getPayout());
+        }
+    }
+
+    private void checkView(String source, OrderManager.OrderSnapshot view) {
+        String label = source + " #" + view.id();
+        long deliveredSoFar = view.totalQuantity() - view.remainingQuantity();
+        if (view.remainingQuantity() < 0 || view.remainingQuantity() > view.totalQuantity()) {
+            violations.add(label + ": remaining " + view.remainingQuantity() + " outside [0, " + view.totalQuantity() + "]");
+        }
+        if (view.totalPaid() > view.totalEscrow()) {
+            violations.add(label + ": paid " + view.totalPaid() + " exceeds escrow " + view.totalEscrow());
+        }
+        long owed = Money.prorate(view.totalEscrow(), deliveredSoFar, view.totalQuantity());
+        if (view.totalPaid() != owed) {
+            violations.add(label + ": paid " + view.totalPaid() + " but " + deliveredSoFar + " delivered owes " + owed);
+        }
+        if (view.storedQuantity() < 0 || view.storedQuantity() > deliveredSoFar) {
+            violations.add(label + ": stored " + view.storedQuantity() + " outside [0, " + deliveredSoFar + "]");
+        }
+        if ((view.status() == OrderStatus.COMPLETED) != (view.remainingQuantity() == 0)) {
+            violations.add(label + ": status " + view.status() + " with " + view.remainingQuantity() + " remaining");
+        }
+    }
+
+    private void checkReload(Plugin plugin, File dataFolder, String source) {
+        OrderManager reloaded = new OrderManager(plugin, new MarketStats(), null);
+        // A fresh loader per check, since a loader keeps the document it read; stop its save thread afterwards.
+        StorageManager loader = new StorageManager(plugin, new MarketStats());
+        try {
+            loader.loadOrders(reloaded);
+        } finally {
+            loader.getSaveScheduler().shutdown();
+        }
+        if (reloaded.snapshot().size() != orderCount) {
+            violations.add(source + ": reloaded " + reloaded.snapshot().size() + " of " + orderCount + " orders");
+        }
+        reloaded.snapshot().forEach(view -> checkView(source + " reload", view));
+    }
+
+    private static Thread start(String name, CyclicBarrier barrier, Runnable body) {
+        Thread thread = new Thread(() -> {
+            try {
+                barrier.await();
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+            body.run();
+        }, name);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Perturbs scheduling between steps so each round explores different interleavings.
+     */
+    private static void jitter(Random random) {
+        int roll = random.nextInt(8);
+        if (roll == 0) {
+            Thread.yield();
+        } else if (roll == 1) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.ordersystem;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs a few short, fixed-seed rounds of the {@link StressSuite} invariants as part of the build.
+ */
+class StressSuiteTest {
+
+    @Test
+    void invariantsHoldUnderContention() throws Exception {
+        List<String> violations = StressSuite.run(3, 20240601L, 4, 300, 3, System.out);
+        assertEquals(List.of(), violations, "invariant violations");
+    }
+}
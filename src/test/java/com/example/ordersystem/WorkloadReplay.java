@@ -0,0 +1,272 @@
+package com.example.ordersystem;
+
+import org.bukkit.Material;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+
+/**
+ * Replays a trace captured by {@link WorkloadRecorder} against {@link OrderManager}, {@link StorageManager} and the
+ * board query, using the same in-process stand-ins as {@link LoadHarness}.
+ * <p>
+ * Run after {@code mvn test-compile} with {@code java -cp target/test-classes:target/classes:<paper-api jar>:<vault jar>
+ * com.example.ordersystem.WorkloadReplay trace=<file> [speed=1] [dir=<data directory>]}. {@code speed} scales the recorded timing ({@code 10} replays ten
+ * times faster); {@code 0} replays as fast as possible. Events are applied in order on one thread, so two runs of
+ * the same trace end in the same state and print the same digest; compare timings between releases.
+ */
+public final class WorkloadReplay {
+    private static final int PAGE_SIZE = 45;
+
+    private final Map<WorkloadRecorder.Kind, LatencyHistogram> latencies = new EnumMap<>(WorkloadRecorder.Kind.class);
+    private final Map<WorkloadRecorder.Kind, Long> skipped = new EnumMap<>(WorkloadRecorder.Kind.class);
+    private final Map<Integer, Integer> createdIds = new HashMap<>();
+    private final Map<UUID, Player> players = new HashMap<>();
+    private final HeadlessRuntime.Bank bank = new HeadlessRuntime.Bank();
+    private OrderManager orderManager;
+    private StorageManager storageManager;
+    private AuditLog auditLog;
+
+    private WorkloadReplay() {
+        for (WorkloadRecorder.Kind kind : WorkloadRecorder.Kind.values()) {
+            latencies.put(kind, new LatencyHistogram());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            if (split <= 0) {
+                throw new IllegalArgumentException("Expected key=value, got " + arg);
+            }
+            options.put(arg.substring(0, split), arg.substring(split + 1));
+        }
+        if (!options.containsKey("trace")) {
+            throw new IllegalArgumentException("Missing trace=<file>");
+        }
+        File dataFolder = options.containsKey("dir")
+                ? new File(options.get("dir"))
+                : Files.createTempDirectory("ordersystem-replay").toFile();
+        new WorkloadReplay().run(new File(options.get("trace")),
+                Double.parseDouble(options.getOrDefault("speed", "1")), dataFolder);
+    }
+
+    private void run(File trace, double speed, File dataFolder) throws Exception {
+        List<WorkloadRecorder.Event> events = WorkloadRecorder.read(trace);
+        setUp(dataFolder);
+        int seeded = 0;
+        long firstTimestamp = -1;
+        List<WorkloadRecorder.Event> operations = new ArrayList<>();
+        for (WorkloadRecorder.Event event : events) {
+            if (event.kind() == WorkloadRecorder.Kind.SEED) {
+                seed(event);
+                seeded++;
+            } else {
+                operations.add(event);
+                if (firstTimestamp < 0) {
+                    firstTimestamp = event.timestamp();
+                }
+            }
+        }
+        System.out.printf("Replaying %d operations over %d seeded orders from %s%s%n", operations.size(), seeded, trace,
+                speed > 0 ? " at " + speed + "x" : " as fast as possible");
+
+        long began = System.nanoTime();
+        for (WorkloadRecorder.Event event : operations) {
+            if (speed > 0) {
+                parkUntil(began + (long) (TimeUnit.MILLISECONDS.toNanos(event.timestamp() - firstTimestamp) / speed));
+            }
+            long start = System.nanoTime();
+            if (apply(event)) {
+                latencies.get(event.kind()).record(System.nanoTime() - start);
+            } else {
+                skipped.merge(event.kind(), 1L, Long::sum);
+            }
+        }
+        long elapsed = System.nanoTime() - began;
+
+        long shutdownStart = System.nanoTime();
+        storageManager.shutdown(orderManager);
+        long finalSaveNanos = System.nanoTime() - shutdownStart;
+        auditLog.shutdown();
+        report(elapsed, finalSaveNanos);
+    }
+
+    private void setUp(File dataFolder) {
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("completion-retention-days", 7);
+        config.set("completion-broadcast-threshold", 0);
+        config.set("storage.save-debounce-ms", 2000L);
+        config.set("storage.max-staleness-ms", 15000L);
+        Plugin plugin = HeadlessRuntime.plugin(dataFolder, config, Logger.getLogger("OrderSystem-Replay"));
+        MarketStats marketStats = new MarketStats();
+        auditLog = new AuditLog(plugin.getLogger(), new File(dataFolder, "audit"), 16L * 1024L * 1024L, 30, 1000L);
+        auditLog.start();
+        orderManager = new OrderManager(plugin, marketStats, auditLog);
+        storageManager = new StorageManager(plugin, marketStats);
+    }
+
+    private void seed(WorkloadRecorder.Event event) {
+        long[] values = event.values();
+        if (event.material() == null) {
+            skipped.merge(WorkloadRecorder.Kind.SEED, 1L, Long::sum);
+            return;
+        }
+        orderManager.addLoadedOrder(new Order(event.orderId(), event.actor(), event.actorName(), event.material(),
+                values[0], values[1], values[2], values[3], values[4], values[5],
+                OrderStatus.values()[(int) values[6]], values[7], Order.NO_HOME));
+    }
+
+    /**
+     * Applies one recorded operation.
+     *
+     * @return {@code false} if it could not be applied, e.g. its order was never seeded or created
+     */
+    private boolean apply(WorkloadRecorder.Event event) {
+        long[] values = event.values();
+        Player actor = player(event.actor(), event.actorName());
+        switch (event.kind()) {
+            case CREATE -> {
+                if (event.material() == null) {
+                    return false;
+                }
+                Order order = orderManager.createOrder(actor, event.material(), values[0], values[1]);
+                createdIds.put(event.orderId(), order.getId());
+                storageManager.requestSaveAsync(orderManager);
+                return true;
+            }
+            case DELIVER -> {
+                Order order = order(event.orderId());
+                if (order == null) {
+                    return false;
+                }
+                long amount = values[0];
+                OrderManager.DeliveryResult result = switch ((int) values[1]) {
+                    case WorkloadRecorder.CHANNEL_INVENTORY -> {
+                        fillInventory(actor, order.getMaterial(), amount);
+                        yield orderManager.deliverFromPlayer(actor, order, bank.economy());
+                    }
+                    case WorkloadRecorder.CHANNEL_ENDPOINT ->
+                            orderManager.deliverFromEndpoint(actor.getUniqueId(), actor.getName(), order, amount);
+                    default -> orderManager.deliverItems(actor, order, amount, bank.economy());
+                };
+                storageManager.requestSaveAsync(orderManager);
+                return result.isSuccess();
+            }
+            case COLLECT -> {
+                Order order = order(event.orderId());
+                if (order == null) {
+                    return false;
+                }
+                orderManager.takeStoredItems(actor, order, (int) values[0], (int) values[1]);
+                storageManager.requestSaveAsync(orderManager);
+                return true;
+            }
+            case TRUST -> {
+                orderManager.trustPlayer(actor, player(event.target(), event.targetName()));
+                return true;
+            }
+            case UNTRUST -> {
+                orderManager.untrustPlayer(actor, player(event.target(), event.targetName()));
+                return true;
+            }
+            case BOARD -> {
+                List<OrderManager.OrderSnapshot> board = orderManager.queryBoard(event.material(), event.target());
+                int from = (int) Math.min(board.size(), Math.max(0L, values[0] - 1) * PAGE_SIZE);
+                // Touch each row the way rendering the page would.
+                long checksum = 0;
+                for (OrderManager.OrderSnapshot view : board.subList(from, Math.min(board.size(), from + PAGE_SIZE))) {
+                    checksum += view.pricePerItem();
+                }
+                return checksum >= 0;
+            }
+            default -> {
+                return false;
+            }
+        }
+    }
+
+    private Order order(int recordedId) {
+        return orderManager.getOrders().get(createdIds.getOrDefault(recordedId, recordedId));
+    }
+
+    private Player player(UUID uuid, String name) {
+        return players.computeIfAbsent(uuid, id -> HeadlessRuntime.player(id, name, 36));
+    }
+
+    private static void fillInventory(Player player, Material material, long amount) {
+        player.getInventory().clear();
+        int maxStack = material.getMaxStackSize();
+        int slot = 0;
+        for (long left = amount; left > 0 && slot < player.getInventory().getSize(); slot++) {
+            int stack = (int) Math.min(maxStack, left);
+            player.getInventory().setItem(slot, new ItemStack(material, stack));
+            left -= stack;
+        }
+    }
+
+    private void report(long elapsedNanos, long finalSaveNanos) {
+        double seconds = elapsedNanos / 1e9;
+        long totalOps = 0;
+        System.out.println();
+        System.out.printf("%-12s %10s %9s %9s %9s %9s %9s %9s%n",
+                "operation", "ops", "skipped", "mean us", "p50 us", "p99 us", "p99.9 us", "max us");
+        for (WorkloadRecorder.Kind kind : WorkloadRecorder.Kind.values()) {
+            LatencyHistogram histogram = latencies.get(kind);
+            long skips = skipped.getOrDefault(kind, 0L);
+            if (histogram.count() == 0 && skips == 0) {
+                continue;
+            }
+            totalOps += histogram.count();
+            System.out.printf("%-12s %10d %9d %9d %9d %9d %9d %9d%n",
+                    kind.name().toLowerCase(), histogram.count(), skips, micros(histogram.mean()),
+                    micros(histogram.percentile(50)), micros(histogram.percentile(99)),
+                    micros(histogram.percentile(99.9)), micros(histogram.max()));
+        }
+        System.out.printf("total: %d ops in %.2fs (%.0f ops/s), final save %d ms%n", totalOps, seconds,
+                totalOps / Math.max(seconds, 1e-9), TimeUnit.NANOSECONDS.toMillis(finalSaveNanos));
+        System.out.printf("state digest: %016x over %d orders%n", digest(), orderManager.getOrders().size());
+    }
+
+    /**
+     * FNV-1a over every order's mutable state in id order, for checking that two releases end in the same state.
+     */
+    private long digest() {
+        long hash = 0xcbf29ce484222325L;
+        List<Integer> ids = new ArrayList<>(orderManager.getOrders().keySet());
+        ids.sort(null);
+        for (int id : ids) {
+            Order order = orderManager.getOrders().get(id);
+            for (long value : new long[]{id, order.getRemainingQuantity(), order.getTotalPaid(),
+                    order.getStoredQuantity(), order.getStatus().ordinal()}) {
+                hash = (hash ^ value) * 0x100000001b3L;
+            }
+        }
+        return hash;
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    private static void parkUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}